@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "io.github.unjoinable"
@@ -21,4 +22,20 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+jmh {
+    jmhVersion = "1.37"
+    // Kept per version so results can be compared between releases
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("results/jmh/results-${project.version}.json")
+    // e.g. ./gradlew jmh -PjmhIncludes=LinkManager
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+// Headless load run, e.g. ./gradlew soak --args="topology=MESH rate=50000 duration=PT10M"
+tasks.register<JavaExec>("soak") {
+    group = "verification"
+    description = "Drives synthetic traffic through LinkManager and reports throughput and latency."
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass = "io.github.unjoinable.whisperwire.core.node.load.LoadHarness"
+}
@@ -0,0 +1,78 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures reading from a journal of one million messages: a full read, the last 1% of it,
+ * and a range of ten messages in the middle, which should cost little more than the seek.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalReaderBenchmark {
+    private static final int MESSAGES = 1_000_000;
+    private static final Instant BASE = Instant.parse("2025-07-11T12:00:00Z");
+
+    private Path directory;
+    private JournalReader reader;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("journal-benchmark");
+        try (MessageJournal journal = MessageJournal.builder(directory).open()) {
+            for (int i = 0; i < MESSAGES; i++) {
+                journal.append(Message.at("discord-" + (i % 8), "player" + (i % 100),
+                        "hello everyone, this is chat message number " + i, BASE.plusMillis(i)));
+            }
+            journal.sync().get(1, TimeUnit.MINUTES);
+        }
+        reader = new JournalReader(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public long readAll(Blackhole blackhole) throws IOException {
+        return reader.read(Instant.MIN, Instant.MAX, blackhole::consume);
+    }
+
+    @Benchmark
+    public long readLastPercent(Blackhole blackhole) throws IOException {
+        return reader.read(BASE.plusMillis(MESSAGES - MESSAGES / 100), Instant.MAX, blackhole::consume);
+    }
+
+    @Benchmark
+    public long seekTen(Blackhole blackhole) throws IOException {
+        Instant from = BASE.plusMillis(MESSAGES / 2);
+        return reader.read(from, from.plusMillis(10), blackhole::consume);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting a chat line with chained {@link String#replace} calls on the raw
+ * format string against a precompiled {@link ChatTemplate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatTemplateBenchmark {
+
+    @Param({"<{username}> {message}", "[{source}] **{username}** » {message}"})
+    public String format;
+
+    private ChatTemplate template;
+    private Message message;
+    private final StringBuilder reused = new StringBuilder(256);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        template = ChatTemplate.compile(format);
+        message = new Message("minestom-lobby", "Steve", "hello everyone, how is the build going today?", Instant.now());
+    }
+
+    @Benchmark
+    public String replace() {
+        return format
+                .replace("{username}", message.username())
+                .replace("{message}", message.rawMessage())
+                .replace("{source}", message.source());
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render(message);
+    }
+
+    @Benchmark
+    public int renderToReusedBuilder() {
+        reused.setLength(0);
+        template.renderTo(message, reused);
+        return reused.length();
+    }
+}
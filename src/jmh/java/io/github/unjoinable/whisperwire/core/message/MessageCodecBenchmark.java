@@ -0,0 +1,122 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding a session of chat messages with {@link MessageCodec} against
+ * writing every field as length-prefixed {@link String#getBytes} output and a fixed-size
+ * timestamp. Scores are per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    private static final int MESSAGES = 1024;
+
+    @Param({"heap", "direct"})
+    public String buffer;
+
+    private final Message[] messages = new Message[MESSAGES];
+    private ByteBuffer out;
+    private ByteBuffer encoded;
+    private ByteBuffer naiveEncoded;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Instant start = Instant.parse("2025-07-11T12:00:00Z");
+        for (int i = 0; i < MESSAGES; i++) {
+            messages[i] = Message.at("discord-13952" + (i % 8) + "0871234567890", "player" + (i % 100),
+                    "hello everyone, how is the build going today? #" + i, start.plusMillis(i * 1_500L));
+        }
+
+        out = allocate(1 << 20);
+        encoded = allocate(1 << 20);
+        MessageCodec.Encoder encoder = MessageCodec.encoder();
+        for (Message message : messages) encoder.encode(message, encoded);
+        encoded.flip();
+
+        naiveEncoded = allocate(1 << 20);
+        for (Message message : messages) naiveEncode(message, naiveEncoded);
+        naiveEncoded.flip();
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return buffer.equals("direct") ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int encode() {
+        MessageCodec.Encoder encoder = MessageCodec.encoder();
+        out.clear();
+        for (Message message : messages) encoder.encode(message, out);
+        return out.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void decode(Blackhole blackhole) {
+        MessageCodec.Decoder decoder = MessageCodec.decoder();
+        ByteBuffer in = encoded.duplicate();
+        while (in.hasRemaining()) blackhole.consume(decoder.decode(in));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public int naiveEncode() {
+        out.clear();
+        for (Message message : messages) naiveEncode(message, out);
+        return out.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void naiveDecode(Blackhole blackhole) {
+        ByteBuffer in = naiveEncoded.duplicate();
+        while (in.hasRemaining()) {
+            String source = naiveString(in);
+            String username = naiveString(in);
+            Instant timestamp = Instant.ofEpochSecond(in.getLong(), in.getInt());
+            blackhole.consume(new Message(source, username, naiveString(in), timestamp));
+        }
+    }
+
+    private static void naiveEncode(Message message, ByteBuffer out) {
+        naiveString(message.source(), out);
+        naiveString(message.username(), out);
+        out.putLong(message.timestamp().getEpochSecond()).putInt(message.timestamp().getNano());
+        naiveString(message.rawMessage(), out);
+    }
+
+    private static void naiveString(String value, ByteBuffer out) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private static String naiveString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
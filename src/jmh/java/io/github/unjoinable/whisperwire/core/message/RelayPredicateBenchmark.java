@@ -0,0 +1,106 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate.Cost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares a dozen-rule filter evaluated as nested lambdas (how {@link RelayPredicate#and}
+ * used to compose), as the structural composition, and as a {@link CompiledPredicate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelayPredicateBenchmark {
+
+    @Param({"clean", "blank", "banned"})
+    public String content;
+
+    private RelayPredicate lambdaChain;
+    private RelayPredicate composed;
+    private CompiledPredicate compiled;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<RelayPredicate> rules = rules();
+
+        // Written in "natural" order with expensive checks first, as filters tend to grow
+        RelayPredicate chain = rules.getFirst();
+        RelayPredicate structure = rules.getFirst();
+        for (int i = 1; i < rules.size(); i++) {
+            chain = lambdaAnd(chain, rules.get(i));
+            structure = structure.and(rules.get(i));
+        }
+
+        lambdaChain = chain;
+        composed = structure;
+        compiled = structure.compile();
+
+        String raw = switch (content) {
+            case "blank" -> "   ";
+            case "banned" -> "this is a minestorm message";
+            default -> "hello everyone, how is the build going today?";
+        };
+        message = new Message("minestom-lobby", "Steve", raw, Instant.now());
+    }
+
+    @Benchmark
+    public boolean lambdaChain() {
+        return lambdaChain.test(message);
+    }
+
+    @Benchmark
+    public boolean composed() {
+        return composed.test(message);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.test(message);
+    }
+
+    private static RelayPredicate lambdaAnd(RelayPredicate left, RelayPredicate right) {
+        return message -> left.test(message) && right.test(message);
+    }
+
+    private static List<RelayPredicate> rules() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) words.add("word" + i);
+        words.add("minestorm");
+
+        return List.of(
+                BannedWordFilter.of(words),
+                RelayPredicate.matching(Pattern.compile("(?i)discord\\.gg/\\w+")).negate(),
+                RelayPredicate.matching(Pattern.compile("(.)\\1{9,}")).negate(),
+                RelayPredicate.named("no-caps-spam", Cost.NORMAL, m -> !m.rawMessage().chars().allMatch(Character::isUpperCase)),
+                RelayPredicate.NOT_BLANK,
+                RelayPredicate.maxLength(256),
+                RelayPredicate.fromSource("minestom-lobby", "minestom-survival", "discord-1234"),
+                RelayPredicate.named("no-command", Cost.CHEAP, m -> !m.rawMessage().startsWith("/")),
+                RelayPredicate.named("has-user", Cost.CHEAP, m -> !m.username().isEmpty()),
+                RelayPredicate.named("not-server", Cost.CHEAP, m -> !m.username().equals("Server")),
+                RelayPredicate.named("no-newlines", Cost.NORMAL, m -> m.rawMessage().indexOf('\n') < 0),
+                RelayPredicate.named("not-muted", Cost.CHEAP, m -> !m.username().equals("Muted"))
+        );
+    }
+}
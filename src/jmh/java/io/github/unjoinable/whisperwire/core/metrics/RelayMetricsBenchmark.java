@@ -0,0 +1,66 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-message cost of recording metrics, on one thread and on eight threads
+ * recording into the same node, which is the contended case the striped counters are for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelayMetricsBenchmark {
+    private final RelayMetrics metrics = new RelayMetrics();
+    private final NodeMetrics node = metrics.node("node");
+    private final LinkMetrics link = metrics.link("node", "other");
+    private long latency = 1;
+
+    @Benchmark
+    public void recordSend() {
+        node.recordSend(nextLatency(), true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordSendContended() {
+        node.recordSend(nextLatency(), true);
+    }
+
+    @Benchmark
+    public void recordCarried() {
+        link.recordCarried();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordCarriedContended() {
+        link.recordCarried();
+    }
+
+    @Benchmark
+    public void lookupLink() {
+        metrics.link("node", "other").recordCarried();
+    }
+
+    /**
+     * Spreads samples over several buckets; the race between threads is harmless here.
+     */
+    private long nextLatency() {
+        latency = latency * 31 % 1_000_003;
+        return latency;
+    }
+}
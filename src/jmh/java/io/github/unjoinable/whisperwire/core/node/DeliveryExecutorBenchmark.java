@@ -0,0 +1,105 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures fanning one message out to {@code nodes} destinations whose sends block for
+ * {@code blockMicros}, as an HTTP or socket transport written as plain blocking code would,
+ * with each {@link LinkManager} executor model.
+ *
+ * <p>A small platform pool and the common pool can only block as many sends at once as they
+ * have threads, so the fan-out takes several rounds of {@code blockMicros}. Virtual threads
+ * unmount while blocked, so all sends overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryExecutorBenchmark {
+    private static final int PLATFORM_THREADS = 8;
+
+    @Param({"platform", "virtual", "commonPool"})
+    public String executor;
+
+    @Param({"64"})
+    public int nodes;
+
+    @Param({"500"})
+    public int blockMicros;
+
+    private ExecutorService platform;
+    private LinkManager manager;
+    private DuplexNode source;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        LinkManager.Builder builder = LinkManager.builder();
+        switch (executor) {
+            case "platform" -> builder.executor(platform);
+            case "commonPool" -> builder.executor(ForkJoinPool.commonPool());
+            case "virtual" -> {} // the default
+            default -> throw new IllegalArgumentException("Unknown executor: " + executor);
+        }
+        manager = builder.build();
+
+        source = new LinkManagerRelayBenchmark.NoopNode("source");
+        message = new Message(source.id(), "Steve", "hello world", Instant.now());
+        for (int i = 0; i < nodes; i++) {
+            manager.link(source, new BlockingNode("blocking-" + i, TimeUnit.MICROSECONDS.toNanos(blockMicros)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        platform.shutdownNow();
+    }
+
+    @Benchmark
+    public void fanOut() {
+        manager.relay(source, message).join();
+    }
+
+    /**
+     * A node whose send blocks the calling thread before completing.
+     */
+    static final class BlockingNode extends AbstractDuplexNode {
+        private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+        private final long blockNanos;
+
+        BlockingNode(String id, long blockNanos) {
+            super(id);
+            this.blockNanos = blockNanos;
+        }
+
+        @Override
+        public CompletableFuture<Void> sendMessage(Message message) {
+            LockSupport.parkNanos(blockNanos);
+            return DONE;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.node.LinkManagerRelayBenchmark.NoopNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DuplexLink#oppositeOf}, which runs once per link for every relayed message.
+ * Node IDs of the same length and prefix make the ID comparison do its full work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplexLinkBenchmark {
+    private final DuplexNode nodeA = new NoopNode("discord-1392014543206289408");
+    private final DuplexNode nodeB = new NoopNode("discord-1392014543206289409");
+    private final DuplexLink link = new DuplexLink(nodeA, nodeB);
+
+    @Benchmark
+    public DuplexNode oppositeOfFirst() {
+        return link.oppositeOf(nodeA);
+    }
+
+    @Benchmark
+    public DuplexNode oppositeOfSecond() {
+        return link.oppositeOf(nodeB);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return link.contains(nodeB);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.node.LinkManagerRelayBenchmark.NoopNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LinkManager#isLinked} readers running alongside threads that keep linking
+ * and unlinking. Readers only perform a volatile read of the topology snapshot, so their cost
+ * should barely move when writers are added; writers serialize on the write lock and pay for
+ * copying the touched adjacency lists.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkContentionBenchmark {
+
+    @Param({"16", "256"})
+    public int nodeCount;
+
+    private LinkManager manager;
+    private DuplexNode[] nodes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        manager = new LinkManager();
+        nodes = new DuplexNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new NoopNode("node-" + i);
+        }
+        // A ring, so every node has links for readers to find
+        for (int i = 0; i < nodeCount; i++) {
+            manager.link(nodes[i], nodes[(i + 1) % nodeCount]);
+        }
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(8)
+    public boolean readOnlyIsLinked() {
+        return isLinked();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public boolean mixedIsLinked() {
+        return isLinked();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public boolean mixedLinkUnlink() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DuplexNode a = nodes[random.nextInt(nodeCount)];
+        DuplexNode b = nodes[random.nextInt(nodeCount)];
+        if (a == b) return false;
+
+        // Churn links other than the ring so readers always have something to find
+        return manager.link(a, b) && manager.unlink(a, b);
+    }
+
+    private boolean isLinked() {
+        int i = ThreadLocalRandom.current().nextInt(nodeCount);
+        return manager.isLinked(nodes[i], nodes[(i + 1) % nodeCount]);
+    }
+}
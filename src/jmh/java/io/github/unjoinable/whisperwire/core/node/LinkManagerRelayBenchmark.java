@@ -0,0 +1,92 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link LinkManager#relay} for a source node linked to {@code degree} sinks while
+ * the total number of links in the manager grows. With the adjacency index the cost should
+ * grow with {@code degree} and stay flat across {@code totalLinks}.
+ *
+ * <p>Deliveries run inline so only the relay path itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkManagerRelayBenchmark {
+    @Param({"1", "4", "16"})
+    public int degree;
+
+    @Param({"100", "10000"})
+    public int totalLinks;
+
+    private LinkManager manager;
+    private DuplexNode source;
+    private DuplexNode sink;
+    private Message message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        manager = LinkManager.builder().executor(Runnable::run).build();
+        source = new NoopNode("source");
+        sink = new NoopNode("sink-0");
+        message = new Message(source.id(), "Steve", "hello world", Instant.now());
+
+        manager.link(source, sink);
+        for (int i = 1; i < degree; i++) {
+            manager.link(source, new NoopNode("sink-" + i));
+        }
+
+        // Unrelated background links the relay path must not pay for
+        DuplexNode previous = new NoopNode("background-0");
+        for (int i = 1; i <= totalLinks - degree; i++) {
+            DuplexNode next = new NoopNode("background-" + i);
+            manager.link(previous, next);
+            previous = next;
+        }
+    }
+
+    @Benchmark
+    public CompletableFuture<Void> relay() {
+        return manager.relay(source, message);
+    }
+
+    @Benchmark
+    public boolean isLinked() {
+        return manager.isLinked(source, sink);
+    }
+
+    /**
+     * A node that accepts every message without doing any work.
+     */
+    static final class NoopNode extends AbstractDuplexNode {
+        private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+        NoopNode(String id) {
+            super(id);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendMessage(Message message) {
+            return DONE;
+        }
+    }
+}
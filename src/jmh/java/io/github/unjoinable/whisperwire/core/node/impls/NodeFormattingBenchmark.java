@@ -0,0 +1,76 @@
+package io.github.unjoinable.whisperwire.core.node.impls;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.DiscordDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.DiscordEscaper;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.MinestomDuplexNode;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-message formatting work of both built-in nodes, with their default
+ * formats, without a Discord connection or a Minecraft server:
+ * <ul>
+ *     <li>{@code discord}: escaping a Minecraft message and rendering
+ *     {@link DiscordDuplexNode#DEFAULT_FORMAT}, as {@link DiscordDuplexNode#sendMessage} does
+ *     before posting;</li>
+ *     <li>{@code minestom}: rendering a Discord message with
+ *     {@link MinestomDuplexNode#DEFAULT_FORMAT}, markdown included, as the Minestom node does
+ *     before broadcasting. The markdown cache is defeated by giving more messages distinct
+ *     text than it holds, so parsing is measured.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeFormattingBenchmark {
+
+    @Param({"plain", "markdown"})
+    public String content;
+
+    private Message fromMinecraft;
+    private Message[] fromDiscord;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String text = content.equals("plain")
+                ? "anyone up for a round of bedwars in a few minutes"
+                : "**anyone** up for _bedwars_? ||spoiler|| ping @everyone `now`";
+
+        fromMinecraft = new Message("minestom-1", "Steve", text, Instant.now());
+        fromDiscord = new Message[1024];
+        for (int i = 0; i < fromDiscord.length; i++) {
+            fromDiscord[i] = new Message(DiscordDuplexNode.ID_PREFIX + "1", "Alex", text + " " + i, Instant.now());
+        }
+    }
+
+    @Benchmark
+    public String discord() {
+        return DiscordDuplexNode.DEFAULT_FORMAT.render(DiscordEscaper.sanitize(fromMinecraft));
+    }
+
+    @Benchmark
+    public Component minestom() {
+        Message message = fromDiscord[next];
+        next = (next + 1) & (fromDiscord.length - 1);
+        return MinestomDuplexNode.DEFAULT_FORMAT.render(message);
+    }
+}
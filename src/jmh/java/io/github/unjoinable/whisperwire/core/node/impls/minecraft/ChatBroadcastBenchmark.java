@@ -0,0 +1,122 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.entity.Player;
+import net.minestom.server.network.ConnectionState;
+import net.minestom.server.network.NetworkBuffer;
+import net.minestom.server.network.packet.server.CachedPacket;
+import net.minestom.server.network.packet.server.FramedPacket;
+import net.minestom.server.network.packet.server.SendablePacket;
+import net.minestom.server.network.packet.server.play.SystemChatPacket;
+import net.minestom.server.network.player.GameProfile;
+import net.minestom.server.network.player.PlayerConnection;
+import net.minestom.server.timer.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.BLUE;
+
+/**
+ * Compares the CPU cost of one chat broadcast through {@link MinestomDuplexNode}, which
+ * renders the message and sends it as one grouped packet on the next tick, against calling
+ * {@code player.sendMessage} for each player.
+ *
+ * <p>Players are real {@link Player}s on fake connections that serialize what they are sent
+ * but do no socket I/O, so only rendering, encoding and fan-out are measured. The node is
+ * flushed by ticking a standalone {@link Scheduler} from the benchmark thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatBroadcastBenchmark {
+
+    @Param({"10", "100", "500", "1000"})
+    public int players;
+
+    private final Message message = new Message("discord-1", "Steve",
+            "hello everyone, how is the build going today?", Instant.now());
+
+    private List<Player> online;
+    private Scheduler scheduler;
+    private MinestomDuplexNode node;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        MinecraftServer.init();
+
+        online = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            online.add(new Player(new EncodingConnection(), new GameProfile(UUID.randomUUID(), "player" + i)));
+        }
+
+        scheduler = Scheduler.newScheduler();
+        node = MinestomDuplexNode.builder(() -> online).scheduler(scheduler).build();
+    }
+
+    @Benchmark
+    public boolean node() {
+        CompletableFuture<Void> sent = node.sendMessage(message);
+        scheduler.processTick();
+        return sent.isDone();
+    }
+
+    @Benchmark
+    public int perPlayer() {
+        Component formatted = text("[Discord] ", BLUE)
+                .append(text(message.username() + ": " + message.rawMessage()));
+        for (Player player : online) {
+            player.sendMessage(formatted);
+        }
+        return online.size();
+    }
+
+    /**
+     * A connection that encodes every packet it is sent, as a socket connection would before
+     * writing, and then discards it.
+     */
+    private static final class EncodingConnection extends PlayerConnection {
+        private static final SocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 25565);
+
+        private long written;
+
+        @Override
+        public void sendPacket(SendablePacket packet) {
+            written += switch (packet) {
+                case SystemChatPacket chat -> NetworkBuffer.makeArray(SystemChatPacket.SERIALIZER, chat).length;
+                case CachedPacket cached -> cached.body(ConnectionState.PLAY).readableBytes();
+                case FramedPacket framed -> framed.body().readableBytes();
+                default -> 0;
+            };
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return ADDRESS;
+        }
+    }
+}
@@ -1,9 +1,34 @@
 package io.github.unjoinable.whisperwire;
 
+import io.github.unjoinable.whisperwire.config.BannedWordsReader;
 import io.github.unjoinable.whisperwire.config.ConfigReader;
 import io.github.unjoinable.whisperwire.config.RuntimeContext;
+import io.github.unjoinable.whisperwire.core.message.BannedWordFilter;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.DiscordDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.WebhookDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.ComponentTemplate;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.DiscordMarkdown;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.MinestomDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.MinestomEventBridge;
 import io.github.unjoinable.whisperwire.discord.DiscordBot;
 import io.github.unjoinable.whisperwire.discord.BotLoadingContext;
+import io.github.unjoinable.whisperwire.discord.DiscordInboundListener;
+import net.minestom.server.entity.Player;
+import net.minestom.server.event.Event;
+import net.minestom.server.event.EventNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Entry point for initializing and starting the WhisperWire Discord bot.
@@ -11,24 +36,93 @@ import io.github.unjoinable.whisperwire.discord.BotLoadingContext;
  * Designed to be used as a library component.
  */
 public final class WhisperWire {
+    private static final Logger log = LoggerFactory.getLogger(WhisperWire.class);
+    private static final int MARKDOWN_CACHE_SIZE = 256;
+
     private final RuntimeContext context;
     private final DiscordBot bot;
+    private final LinkManager linkManager;
+    private final RateLimitScheduler rateLimits = RateLimitScheduler.builder().build();
+    private final Map<String, DuplexNode> discordNodes = new HashMap<>();
 
     /**
      * Constructs a new instance of WhisperWire.
-     * Loads configuration and prepares the bot.
+     * Loads configuration and the banned words list, and prepares the bot.
+     * Messages containing a banned word are not relayed.
      */
     public WhisperWire() {
         this.context = new ConfigReader().load();
         var discordConfig = context.discordConfig();
         this.bot = new DiscordBot(new BotLoadingContext(discordConfig.token(), discordConfig.guildId()));
+        this.linkManager = LinkManager.builder()
+                .filter(BannedWordFilter.of(new BannedWordsReader().load()))
+                .build();
     }
 
     /**
      * Starts the WhisperWire bot.
+     *
+     * <p>Once connected, a node is created for every configured channel, and messages posted in
+     * those channels are relayed through the {@link LinkManager}. If webhooks are enabled, the
+     * node is a {@link WebhookDuplexNode} posting under each player's name and avatar;
+     * otherwise it is a {@link DiscordDuplexNode} formatting with the configured
+     * {@code chat_format}. All nodes post through one {@link RateLimitScheduler}, where join
+     * and leave summaries overtake queued chat.
      */
     public void start() {
         bot.start();
+        if (bot.getJda() == null) return;
+
+        var inbound = DiscordInboundListener.builder(linkManager);
+        context.discordConfig().channels().forEach((name, id) ->
+                bot.textChannelById(id).ifPresentOrElse(channel -> {
+                    DuplexNode node = context.webhookConfig().enabled()
+                            ? WebhookDuplexNode.builder(channel, context.webhookConfig())
+                                    .scheduler(rateLimits)
+                                    .priority(WhisperWire::priority)
+                                    .build()
+                            : DiscordDuplexNode.builder(channel)
+                                    .format(context.minecraftConfig().chatTemplate())
+                                    .scheduler(rateLimits)
+                                    .priority(WhisperWire::priority)
+                                    .build();
+                    discordNodes.put(name, node);
+                    inbound.route(id, node);
+                }, () -> log.warn("Discord channel '{}' with ID '{}' not found", name, id)));
+
+        bot.addListener(inbound.build());
+    }
+
+    private static Priority priority(Message message) {
+        return message.username().equals(MinestomEventBridge.SERVER_USERNAME) ? Priority.NORMAL : Priority.LOW;
+    }
+
+    /**
+     * Creates a node broadcasting Discord messages to the given players, formatted with the
+     * configured {@code discord_to_mc_format} and with their markdown rendered.
+     *
+     * @param players a supplier that provides the current online players
+     * @return a new {@link MinestomDuplexNode}
+     */
+    public MinestomDuplexNode minestomNode(Supplier<Collection<Player>> players) {
+        ComponentTemplate format = ComponentTemplate.of(context.minecraftConfig().discordToMcTemplate())
+                .withBody(new DiscordMarkdown(MARKDOWN_CACHE_SIZE)::render);
+        return MinestomDuplexNode.builder(players).format(format).build();
+    }
+
+    /**
+     * Relays player chat, joins and leaves from the given event node into the
+     * {@link LinkManager} as coming from {@code source}, as set by the configured
+     * {@code enable_chat_bridge}, {@code show_join_leave} and {@code join_leave_*} keys.
+     *
+     * @param source the node representing the server, typically one from {@link #minestomNode}
+     * @param parent the event node to listen on, e.g. {@code MinecraftServer.getGlobalEventHandler()}
+     * @return the registered bridge, to {@link MinestomEventBridge#unregister() unregister} on shutdown
+     */
+    public MinestomEventBridge registerMinestomEvents(DuplexNode source, EventNode<Event> parent) {
+        MinestomEventBridge bridge = new MinestomEventBridge(linkManager, source, context.minecraftConfig());
+        bridge.register(parent);
+        return bridge;
     }
 
     /**
@@ -48,4 +142,23 @@ public final class WhisperWire {
     public DiscordBot bot() {
         return bot;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the link manager that relays messages between nodes.
+     *
+     * @return the {@link LinkManager} instance
+     */
+    public LinkManager linkManager() {
+        return linkManager;
+    }
+
+    /**
+     * Returns the node for a configured Discord channel, once the bot has started.
+     *
+     * @param name the channel name from the configuration
+     * @return the node, or empty if the channel is unknown or was not found
+     */
+    public Optional<DuplexNode> discordNode(String name) {
+        return Optional.ofNullable(discordNodes.get(name));
+    }
+}
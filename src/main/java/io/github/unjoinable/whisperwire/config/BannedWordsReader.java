@@ -0,0 +1,96 @@
+package io.github.unjoinable.whisperwire.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.tomlj.Toml;
+import org.tomlj.TomlArray;
+import org.tomlj.TomlParseError;
+import org.tomlj.TomlParseResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the {@code banned_words} list from a TOML file.
+ *
+ * <p>If the configured file does not exist, the {@code banned_words.toml} bundled with the
+ * application is used instead.
+ */
+public class BannedWordsReader {
+    private static final Logger log = LoggerFactory.getLogger(BannedWordsReader.class);
+    private static final Path BANNED_WORDS_PATH = Paths.get("config", "banned_words.toml");
+    private static final String BUNDLED_RESOURCE = "/banned_words.toml";
+    private static final String KEY = "banned_words";
+
+    private final Path path;
+
+    /**
+     * Constructs a BannedWordsReader using the default path: "config/banned_words.toml".
+     */
+    public BannedWordsReader() {
+        this.path = BANNED_WORDS_PATH;
+    }
+
+    /**
+     * Constructs a BannedWordsReader with a custom path.
+     *
+     * @param path Path to the TOML file containing the {@code banned_words} array.
+     */
+    public BannedWordsReader(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Loads the banned words.
+     *
+     * @return the list of banned words, in file order
+     * @throws IllegalStateException if the file cannot be read, is invalid, or lacks the {@code banned_words} array.
+     */
+    public List<String> load() {
+        try {
+            if (Files.exists(path)) {
+                log.info("Loading banned words from {}", path.toAbsolutePath());
+                return parse(Toml.parse(path), path.toAbsolutePath().toString());
+            }
+
+            log.info("No banned words file at {}, using bundled list", path.toAbsolutePath());
+            try (InputStream in = BannedWordsReader.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("Bundled resource not found: " + BUNDLED_RESOURCE);
+                }
+                return parse(Toml.parse(in), BUNDLED_RESOURCE);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read banned words from: " + path.toAbsolutePath(), e);
+        }
+    }
+
+    private List<String> parse(TomlParseResult result, String origin) {
+        if (result.hasErrors()) {
+            String errors = result.errors().stream()
+                    .map(TomlParseError::toString)
+                    .collect(Collectors.joining(", "));
+            log.error("Failed to parse banned words: {}", errors);
+            throw new IllegalStateException("Failed to parse banned words in " + origin + ": " + errors);
+        }
+
+        TomlArray array = result.getArray(KEY);
+        if (array == null) {
+            throw new IllegalStateException("Missing '" + KEY + "' array in " + origin);
+        }
+
+        List<String> words = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            words.add(array.getString(i));
+        }
+
+        log.info("Loaded {} banned words.", words.size());
+        return List.copyOf(words);
+    }
+}
@@ -14,6 +14,7 @@ import org.tomlj.TomlTable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -155,24 +156,35 @@ public class ConfigReader {
         log.debug("Parsing Minecraft configuration...");
         TomlTable mc = result.getTable("minecraft");
 
+        // Optional; older config files do not have these keys
+        Long windowMillis = mc.getLong("join_leave_window_ms");
+        Long threshold = mc.getLong("join_leave_summary_threshold");
+
         return new MinecraftConfig(
                 mc.getBoolean("enable_chat_bridge"),
                 mc.getString("chat_format"),
                 mc.getString("discord_to_mc_format"),
-                mc.getBoolean("show_join_leave")
+                mc.getBoolean("show_join_leave"),
+                windowMillis != null ? Duration.ofMillis(windowMillis) : MinecraftConfig.DEFAULT_JOIN_LEAVE_WINDOW,
+                threshold != null ? Math.toIntExact(threshold) : MinecraftConfig.DEFAULT_JOIN_LEAVE_SUMMARY_THRESHOLD
         );
     }
 
     /**
-     * Parses the [webhook.formatting] section into a {@link WebhookConfig}.
+     * Parses the [webhook] section into a {@link WebhookConfig}.
      */
     private WebhookConfig parseWebhookConfig(TomlParseResult result) {
         log.debug("Parsing Webhook configuration...");
-        TomlTable formatting = result.getTable("webhook").getTable("formatting");
+        TomlTable webhook = result.getTable("webhook");
+        TomlTable formatting = webhook.getTable("formatting");
+
+        // Optional; older config files do not have this key
+        Boolean enabled = webhook.getBoolean("enabled");
 
         return new WebhookConfig(
                 formatting.getString("username_format"),
-                formatting.getString("avatar_url")
+                formatting.getString("avatar_url"),
+                enabled != null && enabled
         );
     }
 
@@ -1,5 +1,10 @@
 package io.github.unjoinable.whisperwire.config.configs;
 
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
+
+import java.time.Duration;
+import java.util.Objects;
+
 /**
  * Configuration for Minecraft integration.
  *
@@ -7,9 +12,64 @@ package io.github.unjoinable.whisperwire.config.configs;
  * @param chatFormat Format for Minecraft chat messages.
  * @param discordToMcFormat Format for Discord messages shown in Minecraft.
  * @param showJoinLeave Whether to show join/leave messages in chat.
+ * @param joinLeaveWindow How long joins and leaves are gathered before being announced.
+ * @param joinLeaveSummaryThreshold How many joins or leaves in one window are announced as a single summary.
+ * @param chatTemplate {@code chatFormat}, compiled once at load; must have been compiled from it.
+ * @param discordToMcTemplate {@code discordToMcFormat}, compiled once at load; must have been compiled from it.
  */
 public record MinecraftConfig(
         boolean enableChatBridge,
         String chatFormat,
         String discordToMcFormat,
-        boolean showJoinLeave) {}
\ No newline at end of file
+        boolean showJoinLeave,
+        Duration joinLeaveWindow,
+        int joinLeaveSummaryThreshold,
+        ChatTemplate chatTemplate,
+        ChatTemplate discordToMcTemplate) {
+
+    /**
+     * The default value of {@link #joinLeaveWindow()}.
+     */
+    public static final Duration DEFAULT_JOIN_LEAVE_WINDOW = Duration.ofSeconds(3);
+
+    /**
+     * The default value of {@link #joinLeaveSummaryThreshold()}.
+     */
+    public static final int DEFAULT_JOIN_LEAVE_SUMMARY_THRESHOLD = 5;
+
+    public MinecraftConfig {
+        Objects.requireNonNull(chatTemplate, "chatTemplate must not be null");
+        Objects.requireNonNull(discordToMcTemplate, "discordToMcTemplate must not be null");
+        if (!chatTemplate.format().equals(chatFormat)) {
+            throw new IllegalArgumentException("chatTemplate was not compiled from chatFormat: " + chatTemplate.format());
+        }
+        if (!discordToMcTemplate.format().equals(discordToMcFormat)) {
+            throw new IllegalArgumentException(
+                    "discordToMcTemplate was not compiled from discordToMcFormat: " + discordToMcTemplate.format());
+        }
+        Objects.requireNonNull(joinLeaveWindow, "joinLeaveWindow must not be null");
+        if (joinLeaveWindow.isNegative()) {
+            throw new IllegalArgumentException("joinLeaveWindow must not be negative: " + joinLeaveWindow);
+        }
+        if (joinLeaveSummaryThreshold <= 0) {
+            throw new IllegalArgumentException("joinLeaveSummaryThreshold must be positive: " + joinLeaveSummaryThreshold);
+        }
+    }
+
+    /**
+     * Creates a configuration, compiling both format strings into templates.
+     */
+    public MinecraftConfig(boolean enableChatBridge, String chatFormat, String discordToMcFormat, boolean showJoinLeave,
+                           Duration joinLeaveWindow, int joinLeaveSummaryThreshold) {
+        this(enableChatBridge, chatFormat, discordToMcFormat, showJoinLeave, joinLeaveWindow, joinLeaveSummaryThreshold,
+                ChatTemplate.compile(chatFormat), ChatTemplate.compile(discordToMcFormat));
+    }
+
+    /**
+     * Creates a configuration with the default join/leave coalescing settings.
+     */
+    public MinecraftConfig(boolean enableChatBridge, String chatFormat, String discordToMcFormat, boolean showJoinLeave) {
+        this(enableChatBridge, chatFormat, discordToMcFormat, showJoinLeave,
+                DEFAULT_JOIN_LEAVE_WINDOW, DEFAULT_JOIN_LEAVE_SUMMARY_THRESHOLD);
+    }
+}
@@ -5,5 +5,14 @@ package io.github.unjoinable.whisperwire.config.configs;
  *
  * @param usernameFormat Format string for webhook username.
  * @param avatarUrl URL to use for the webhook avatar.
+ * @param enabled Whether messages are posted through a webhook under each player's name and avatar.
  */
-public record WebhookConfig(String usernameFormat, String avatarUrl) {}
+public record WebhookConfig(String usernameFormat, String avatarUrl, boolean enabled) {
+
+    /**
+     * Creates a configuration with webhooks disabled.
+     */
+    public WebhookConfig(String usernameFormat, String avatarUrl) {
+        this(usernameFormat, avatarUrl, false);
+    }
+}
@@ -0,0 +1,271 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * A sparse timestamp index of one {@link JournalSegment}.
+ *
+ * <p>The records of a segment are grouped into blocks of about {@value #BLOCK_BYTES} bytes,
+ * and the index holds the offsets and the earliest and latest {@link
+ * io.github.unjoinable.whisperwire.core.message.Message#timestamp() timestamp} of every block.
+ * It is stored next to the segment in a file of 24-byte big-endian entries: the block's start
+ * and end offsets as {@code int}s and its earliest and latest timestamp as {@code long}
+ * nanoseconds since the epoch. Entries are appended as blocks fill up, so the index of the
+ * active segment trails it by at most one block.
+ *
+ * <p>Messages from different sources are not strictly ordered by timestamp, so lookups do not
+ * rely on the block timestamps being sorted. Instead, the running maximum from the first block
+ * and the running minimum from the last block are precomputed; both are monotonic, and binary
+ * searches over them find the blocks that can contain a time range in O(log n).
+ */
+final class JournalIndex {
+    static final String SUFFIX = ".index";
+    static final int BLOCK_BYTES = 16 * 1024;
+
+    private static final int ENTRY_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+
+    private final int[] starts;
+    private final int[] ends;
+    private final long[] prefixMax;
+    private final long[] suffixMin;
+
+    private JournalIndex(int[] starts, int[] ends, long[] mins, long[] maxes) {
+        this.starts = starts;
+        this.ends = ends;
+        this.prefixMax = maxes.clone();
+        this.suffixMin = mins.clone();
+
+        for (int i = 1; i < prefixMax.length; i++) {
+            prefixMax[i] = Math.max(prefixMax[i - 1], prefixMax[i]);
+        }
+        for (int i = suffixMin.length - 2; i >= 0; i--) {
+            suffixMin[i] = Math.min(suffixMin[i + 1], suffixMin[i]);
+        }
+    }
+
+    /**
+     * Returns the index file belonging to a segment file.
+     */
+    static Path pathFor(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - JournalSegment.SUFFIX.length()) + SUFFIX);
+    }
+
+    /**
+     * Converts a timestamp into the nanoseconds since the epoch used as index keys, saturating
+     * outside the roughly 584 years a {@code long} covers.
+     */
+    static long stamp(Instant timestamp) {
+        return stamp(timestamp.getEpochSecond(), timestamp.getNano());
+    }
+
+    static long stamp(long epochSecond, int nanos) {
+        try {
+            return Math.addExact(Math.multiplyExact(epochSecond, 1_000_000_000L), nanos);
+        } catch (ArithmeticException e) {
+            return epochSecond < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * <p>Entries are only trusted while they are contiguous from the end of the segment header
+     * and within {@code segmentSize}; anything after the first entry that is not, such as a
+     * partially written last entry, is ignored.
+     *
+     * @param path        the index file
+     * @param segmentSize the size of the segment it belongs to
+     * @return the index, or {@code null} if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    static @Nullable JournalIndex read(Path path, int segmentSize) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        Builder builder = new Builder(null);
+        int expectedStart = JournalSegment.HEADER_SIZE;
+        while (in.remaining() >= ENTRY_SIZE) {
+            int start = in.getInt();
+            int end = in.getInt();
+            long min = in.getLong();
+            long max = in.getLong();
+            if (start != expectedStart || end <= start || end > segmentSize || min > max) break;
+
+            builder.addBlock(start, end, min, max);
+            expectedStart = end;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of blocks.
+     */
+    int size() {
+        return starts.length;
+    }
+
+    int start(int block) {
+        return starts[block];
+    }
+
+    int end(int block) {
+        return ends[block];
+    }
+
+    /**
+     * Returns the offset just past the last indexed record, or the end of the header if there
+     * are no blocks.
+     */
+    int indexedEnd() {
+        return ends.length == 0 ? JournalSegment.HEADER_SIZE : ends[ends.length - 1];
+    }
+
+    /**
+     * Returns the first block that can contain a record stamped at or after {@code from}: every
+     * record before it is stamped earlier.
+     */
+    int firstBlock(long from) {
+        // First block whose running maximum reaches from
+        int low = 0;
+        int high = prefixMax.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prefixMax[mid] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the block after the last one that can contain a record stamped before {@code to}:
+     * every record from it on is stamped at or after {@code to}.
+     */
+    int endBlock(long to) {
+        // First block whose running minimum from the end reaches to
+        int low = 0;
+        int high = suffixMin.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (suffixMin[mid] < to) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects blocks while records are appended to a segment, optionally appending each
+     * completed block to an index file.
+     */
+    static final class Builder implements AutoCloseable {
+        private final @Nullable FileChannel out;
+        private final ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private long[] mins = new long[16];
+        private long[] maxes = new long[16];
+        private int size;
+
+        private int openStart = -1;
+        private int openEnd;
+        private long openMin;
+        private long openMax;
+
+        /**
+         * Creates a builder.
+         *
+         * @param out the index file to append completed blocks to, or {@code null} to only
+         *            collect them in memory
+         */
+        Builder(@Nullable FileChannel out) {
+            this.out = out;
+        }
+
+        /**
+         * Creates a builder writing to a new or truncated index file.
+         */
+        static Builder create(Path path) throws IOException {
+            return new Builder(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING));
+        }
+
+        /**
+         * Adds the record occupying {@code [offset, end)} with the given timestamp.
+         */
+        void add(int offset, int end, long stamp) throws IOException {
+            if (openStart < 0) {
+                openStart = offset;
+                openMin = stamp;
+                openMax = stamp;
+            } else {
+                openMin = Math.min(openMin, stamp);
+                openMax = Math.max(openMax, stamp);
+            }
+            openEnd = end;
+
+            if (openEnd - openStart >= BLOCK_BYTES) finishBlock();
+        }
+
+        /**
+         * Completes the block being collected, if any.
+         */
+        void finishBlock() throws IOException {
+            if (openStart < 0) return;
+
+            addBlock(openStart, openEnd, openMin, openMax);
+            if (out != null) {
+                entry.clear().putInt(openStart).putInt(openEnd).putLong(openMin).putLong(openMax).flip();
+                while (entry.hasRemaining()) out.write(entry);
+            }
+            openStart = -1;
+        }
+
+        private void addBlock(int start, int end, long min, long max) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                mins = Arrays.copyOf(mins, size * 2);
+                maxes = Arrays.copyOf(maxes, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            mins[size] = min;
+            maxes[size] = max;
+            size++;
+        }
+
+        /**
+         * Returns an index of the completed blocks.
+         */
+        JournalIndex build() {
+            return new JournalIndex(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(mins, size), Arrays.copyOf(maxes, size));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) out.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the messages of a time range back from the segment files of a {@link MessageJournal}.
+ *
+ * <p>Each segment is mapped read-only and its {@link JournalIndex} is binary searched for the
+ * blocks that can hold the range. Only those blocks are read, front to back, and only records
+ * stamped within the range are decoded, so nothing but the current message is copied onto the
+ * heap and a long read is bound by I/O. Records after the last indexed block, such as the
+ * newest records of the active segment, are read with their checksums verified; a segment
+ * whose index is missing is read that way in full.
+ *
+ * <p>A reader may be used while the journal is being written to; it sees every record that
+ * was committed when it reached the segment.
+ */
+public final class JournalReader {
+    private final Path directory;
+
+    /**
+     * Creates a reader for the journal stored in {@code directory}.
+     *
+     * @param directory the directory holding the segment files
+     */
+    public JournalReader(Path directory) {
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+    }
+
+    /**
+     * Passes every message stamped at or after {@code from} and before {@code to} to
+     * {@code action}, in the order they were journaled.
+     *
+     * @param from   the start of the range, inclusive
+     * @param to     the end of the range, exclusive
+     * @param action receives the messages
+     * @return the number of messages passed to {@code action}
+     * @throws IOException if a segment cannot be read
+     */
+    public long read(Instant from, Instant to, Consumer<Message> action) throws IOException {
+        Objects.requireNonNull(from, "from must not be null");
+        Objects.requireNonNull(to, "to must not be null");
+        Objects.requireNonNull(action, "action must not be null");
+
+        long fromStamp = JournalIndex.stamp(from);
+        long toStamp = JournalIndex.stamp(to);
+        if (fromStamp >= toStamp) return 0;
+
+        long count = 0;
+        for (Path segment : segments()) {
+            try {
+                count += read(segment, fromStamp, toStamp, action);
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since it was listed
+            }
+        }
+        return count;
+    }
+
+    private static long read(Path path, long from, long to, Consumer<Message> action) throws IOException {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < JournalSegment.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid journal segment size " + size + ": " + path);
+            }
+
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            ByteBuffer buffer = mapped.asByteBuffer();
+            JournalIndex index = JournalIndex.read(JournalIndex.pathFor(path), (int) size);
+            if (index == null) index = new JournalIndex.Builder(null).build();
+
+            long count = 0;
+            int endBlock = index.endBlock(to);
+            for (int block = index.firstBlock(from); block < endBlock; block++) {
+                int offset = index.start(block);
+                int blockEnd = index.end(block);
+                while (offset < blockEnd) {
+                    int record = JournalRecord.HEADER_SIZE + buffer.getInt(offset);
+                    if (record <= JournalRecord.HEADER_SIZE || record > blockEnd - offset) {
+                        throw new IOException("Journal index does not match segment " + path + " at offset " + offset);
+                    }
+                    count += accept(buffer, offset, from, to, action);
+                    offset += record;
+                }
+            }
+
+            int offset = index.indexedEnd();
+            int record;
+            while ((record = JournalRecord.validate(buffer, offset, (int) size)) > 0) {
+                count += accept(buffer, offset, from, to, action);
+                offset += record;
+            }
+            return count;
+        }
+    }
+
+    private static int accept(ByteBuffer buffer, int offset, long from, long to, Consumer<Message> action) {
+        long stamp = JournalRecord.stamp(buffer, offset);
+        if (stamp < from || stamp >= to) return 0;
+
+        action.accept(JournalRecord.decode(buffer, offset));
+        return 1;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
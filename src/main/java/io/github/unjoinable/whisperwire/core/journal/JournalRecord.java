@@ -0,0 +1,113 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * The binary layout of one journaled {@link Message}.
+ *
+ * <p>A record is an {@code int} payload length, the {@link CRC32C} of the payload as an
+ * {@code int}, and the payload: the timestamp as epoch seconds ({@code long}) and nanoseconds
+ * ({@code int}), followed by the source, username and raw message, each as an {@code int}
+ * byte count and UTF-8 bytes. All numbers are big-endian. A length of zero marks the end of
+ * the records in a segment, since unused segment space is zero-filled.
+ */
+final class JournalRecord {
+    /** The size of the length and checksum preceding each payload. */
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final int FIXED_PAYLOAD = Long.BYTES + Integer.BYTES + Integer.BYTES * 3;
+
+    private JournalRecord() {}
+
+    /**
+     * Encodes a message as a complete record, reusing {@code buffer} if it is large enough.
+     *
+     * @param message the message to encode
+     * @param buffer  a scratch buffer
+     * @return a buffer holding the record between position zero and its limit
+     */
+    static ByteBuffer encode(Message message, ByteBuffer buffer) {
+        byte[] source = message.source().getBytes(StandardCharsets.UTF_8);
+        byte[] username = message.username().getBytes(StandardCharsets.UTF_8);
+        byte[] rawMessage = message.rawMessage().getBytes(StandardCharsets.UTF_8);
+
+        int payload = FIXED_PAYLOAD + source.length + username.length + rawMessage.length;
+        int size = HEADER_SIZE + payload;
+        ByteBuffer out = buffer.capacity() >= size ? buffer.clear() : ByteBuffer.allocate(size);
+
+        out.putInt(payload).putInt(0)
+                .putLong(message.timestamp().getEpochSecond())
+                .putInt(message.timestamp().getNano());
+        putBytes(out, source);
+        putBytes(out, username);
+        putBytes(out, rawMessage);
+        out.flip();
+
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), HEADER_SIZE, payload);
+        out.putInt(Integer.BYTES, (int) crc.getValue());
+        return out;
+    }
+
+    /**
+     * Returns the size of the valid record starting at {@code offset}, or {@code -1} if there
+     * is none: the end marker, a length running past {@code limit}, or a checksum mismatch.
+     */
+    static int validate(ByteBuffer segment, int offset, int limit) {
+        if (offset + HEADER_SIZE > limit) return -1;
+
+        int payload = segment.getInt(offset);
+        if (payload < FIXED_PAYLOAD || payload > limit - offset - HEADER_SIZE) return -1;
+
+        // Checksums cannot read buffers of a shared arena directly
+        byte[] bytes = new byte[payload];
+        segment.get(offset + HEADER_SIZE, bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        if ((int) crc.getValue() != segment.getInt(offset + Integer.BYTES)) return -1;
+
+        return HEADER_SIZE + payload;
+    }
+
+    /**
+     * Returns the timestamp of the record at {@code offset} as a {@linkplain JournalIndex#stamp
+     * index key}, without decoding the rest of it.
+     */
+    static long stamp(ByteBuffer segment, int offset) {
+        int payload = offset + HEADER_SIZE;
+        return JournalIndex.stamp(segment.getLong(payload), segment.getInt(payload + Long.BYTES));
+    }
+
+    /**
+     * Decodes the record at {@code offset}, which must have been {@linkplain #validate validated}.
+     */
+    static Message decode(ByteBuffer segment, int offset) {
+        int payload = segment.getInt(offset);
+        ByteBuffer in = segment.slice(offset + HEADER_SIZE, payload);
+        try {
+            Instant timestamp = Instant.ofEpochSecond(in.getLong(), in.getInt());
+            return new Message(getString(in), getString(in), getString(in), timestamp);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Corrupt journal record at offset " + offset, e);
+        }
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) throw new BufferUnderflowException();
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Sends the journaled messages of a time range to a {@link DuplexNode}, e.g. the last ten
+ * minutes of a channel after an outage.
+ *
+ * <p>Messages are streamed from a {@link JournalReader} on a virtual thread, so the range is
+ * never held in memory. Sends are paced to the configured rate, with at most
+ * {@link DuplexNode#maxInFlight()} of them outstanding, so a replay does not flood the target
+ * or run into its rate limits. Messages that came from the target itself are skipped unless
+ * {@link Builder#includeTargetMessages(boolean)} is set, so a channel is not sent its own
+ * messages again.
+ *
+ * <p>A replay can be started any number of times; relative ranges set with
+ * {@link Builder#last(Duration)} are measured from each start.
+ */
+public final class JournalReplay {
+    private static final Logger log = LoggerFactory.getLogger(JournalReplay.class);
+
+    private final JournalReader reader;
+    private final Instant from;
+    private final @Nullable Instant to;
+    private final @Nullable Duration window;
+    private final RelayPredicate filter;
+    private final boolean includeTargetMessages;
+    private final long intervalNanos;
+
+    private JournalReplay(Builder builder) {
+        this.reader = new JournalReader(builder.directory);
+        this.from = builder.from;
+        this.to = builder.to;
+        this.window = builder.window;
+        this.filter = builder.filter;
+        this.includeTargetMessages = builder.includeTargetMessages;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / builder.rate;
+    }
+
+    /**
+     * Creates a new builder replaying from the journal stored in {@code directory}.
+     *
+     * @param directory the directory holding the segment files, e.g. {@link MessageJournal#directory()}
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Starts replaying into {@code target}.
+     *
+     * <p>Cancelling the returned future stops the replay before the next message.
+     *
+     * @param target the node to send the messages to
+     * @return a future completing with the number of messages sent once every send has completed
+     */
+    public CompletableFuture<Long> start(DuplexNode target) {
+        Objects.requireNonNull(target, "target must not be null");
+
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        Instant now = Instant.now();
+        Instant begin = window != null ? now.minus(window) : from;
+        Instant end = to != null ? to : now;
+        Thread.ofVirtual().name("whisperwire-replay").start(() -> {
+            Pacer pacer = new Pacer(target, result);
+            try {
+                reader.read(begin, end, pacer);
+                pacer.awaitSends();
+                result.complete(pacer.sent);
+            } catch (CancellationException e) {
+                // Stopped by cancelling the result
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Sends each accepted message once its time slot has come and a send slot is free.
+     */
+    private final class Pacer implements Consumer<Message> {
+        private final DuplexNode target;
+        private final CompletableFuture<Long> result;
+        private final int maxInFlight;
+        private final Semaphore inFlight;
+        private long next = System.nanoTime();
+        private long sent;
+
+        Pacer(DuplexNode target, CompletableFuture<Long> result) {
+            this.target = target;
+            this.result = result;
+            this.maxInFlight = Math.max(1, target.maxInFlight());
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        @Override
+        public void accept(Message message) {
+            if (result.isDone()) throw new CancellationException();
+            if (!includeTargetMessages && message.source().equals(target.id())) return;
+            if (!filter.test(message)) return;
+
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            // After a slow send, carry on at the configured rate instead of catching up in a burst
+            next = Math.max(next, System.nanoTime()) + intervalNanos;
+
+            inFlight.acquireUninterruptibly();
+            sent++;
+            try {
+                target.sendMessage(message).whenComplete((_, error) -> {
+                    inFlight.release();
+                    if (error != null) log.warn("Failed to replay message to {}", target.id(), error);
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                log.warn("Failed to replay message to {}", target.id(), e);
+            }
+        }
+
+        void awaitSends() {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+    }
+
+    /**
+     * Builder for {@link JournalReplay}.
+     */
+    public static class Builder {
+        private final Path directory;
+        private Instant from = Instant.MIN;
+        private @Nullable Instant to;
+        private @Nullable Duration window;
+        private RelayPredicate filter = RelayPredicate.ALLOW_ALL;
+        private boolean includeTargetMessages;
+        private int rate = 20;
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        }
+
+        /**
+         * Replays messages stamped at or after {@code from}. Defaults to the oldest message kept.
+         */
+        public Builder from(Instant from) {
+            this.from = Objects.requireNonNull(from, "from must not be null");
+            this.window = null;
+            return this;
+        }
+
+        /**
+         * Replays messages stamped before {@code to}. Defaults to the time the replay starts.
+         */
+        public Builder to(Instant to) {
+            this.to = Objects.requireNonNull(to, "to must not be null");
+            return this;
+        }
+
+        /**
+         * Replays the messages of the given length of time up to the moment the replay starts.
+         */
+        public Builder last(Duration window) {
+            this.window = Objects.requireNonNull(window, "window must not be null");
+            this.to = null;
+            return this;
+        }
+
+        /**
+         * Only replays messages accepted by {@code filter}, e.g. those from one channel.
+         */
+        public Builder filter(RelayPredicate filter) {
+            this.filter = Objects.requireNonNull(filter, "filter must not be null");
+            return this;
+        }
+
+        /**
+         * Sets whether messages whose source is the target are replayed too. Defaults to
+         * {@code false}.
+         */
+        public Builder includeTargetMessages(boolean includeTargetMessages) {
+            this.includeTargetMessages = includeTargetMessages;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of messages sent per second. Defaults to 20.
+         */
+        public Builder rate(int rate) {
+            if (rate <= 0) {
+                throw new IllegalArgumentException("rate must be positive: " + rate);
+            }
+            this.rate = rate;
+            return this;
+        }
+
+        public JournalReplay build() {
+            return new JournalReplay(this);
+        }
+    }
+}
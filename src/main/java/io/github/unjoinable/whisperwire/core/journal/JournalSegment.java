@@ -0,0 +1,295 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * One fixed-size, memory-mapped file of a {@link MessageJournal}.
+ *
+ * <p>A segment starts with a {@value #HEADER_SIZE}-byte header: a magic number, the format
+ * version, the sequence number of its first record and its creation time in epoch
+ * milliseconds. {@link JournalRecord}s follow back to back until the first zero length.
+ *
+ * <p>Every appended record is also added to the segment's {@link JournalIndex}, whose
+ * completed blocks are written to an index file next to the segment.
+ *
+ * <p>The mapping is owned by a shared {@link Arena}, so {@link #close()} unmaps the file at
+ * once instead of leaving it to the garbage collector, and retired segments can be deleted
+ * straight away on every platform.
+ *
+ * <p>Segments are not thread-safe; a journal only touches them from its writer thread.
+ */
+final class JournalSegment implements AutoCloseable {
+    static final int HEADER_SIZE = 32;
+    static final String SUFFIX = ".journal";
+
+    private static final int MAGIC = 0x57574A4C; // "WWJL"
+    private static final int VERSION = 1;
+    private static final int SCAN_CHUNK = 64 * 1024;
+
+    private final Path path;
+    private final Arena arena;
+    private final MemorySegment mapped;
+    private final ByteBuffer buffer;
+    private final JournalIndex.Builder index;
+    private final long baseSequence;
+    private final Instant created;
+    private int position;
+    private int records;
+
+    private JournalSegment(Path path, Arena arena, MemorySegment mapped, JournalIndex.Builder index,
+                           long baseSequence, Instant created) {
+        this.path = path;
+        this.arena = arena;
+        this.mapped = mapped;
+        this.buffer = mapped.asByteBuffer();
+        this.index = index;
+        this.baseSequence = baseSequence;
+        this.created = created;
+        this.position = HEADER_SIZE;
+    }
+
+    /**
+     * Creates and maps a new, empty segment file in {@code directory}.
+     *
+     * @param directory    the journal directory
+     * @param size         the file size in bytes
+     * @param baseSequence the sequence number of the segment's first record
+     * @param created      the creation time recorded in the header
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static JournalSegment create(Path directory, int size, long baseSequence, Instant created) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        JournalSegment segment = map(path, size, baseSequence, created, StandardOpenOption.CREATE_NEW);
+
+        segment.buffer.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putLong(8, baseSequence)
+                .putLong(16, created.toEpochMilli());
+        segment.mapped.force();
+        return segment;
+    }
+
+    /**
+     * Maps an existing segment file and finds the end of its records.
+     *
+     * <p>Records are checked one by one; the segment ends before the first record whose length
+     * or checksum is invalid, and everything from there on is zeroed, so a record torn by a
+     * crash is discarded and the space is reused by the next append. The index file is
+     * rebuilt from the records found.
+     *
+     * @param path the segment file
+     * @throws IOException if the file cannot be mapped or its header is invalid
+     */
+    static JournalSegment recover(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid journal segment size " + size + ": " + path);
+        }
+
+        Header header = readHeader(path);
+        JournalSegment segment = map(path, (int) size, header.baseSequence(), header.created());
+        int limit = segment.buffer.capacity();
+        int record;
+        while ((record = JournalRecord.validate(segment.buffer, segment.position, limit)) > 0) {
+            segment.index.add(segment.position, segment.position + record, JournalRecord.stamp(segment.buffer, segment.position));
+            segment.position += record;
+            segment.records++;
+        }
+
+        // Pages may reach the disk out of order, so a torn write can leave bytes anywhere after the last valid record
+        long dirtyEnd = segment.dirtyEnd();
+        if (dirtyEnd > segment.position) {
+            segment.mapped.asSlice(segment.position, dirtyEnd - segment.position).fill((byte) 0);
+            segment.mapped.force();
+        }
+        return segment;
+    }
+
+    /**
+     * Reads the header of a segment file without mapping it.
+     *
+     * @param path the segment file
+     * @throws IOException if the file cannot be read or is not a journal segment
+     */
+    static Header readHeader(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Truncated journal segment: " + path);
+            }
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a journal segment: " + path);
+        }
+        return new Header(header.getLong(8), Instant.ofEpochMilli(header.getLong(16)));
+    }
+
+    /**
+     * Returns whether a segment file's header was never written, i.e. the process died while
+     * {@link #create} was setting it up: the file is shorter than a header, or the header is
+     * all zeros.
+     *
+     * @param path the segment file
+     * @throws IOException if the file cannot be read
+     */
+    static boolean isUnwritten(Path path) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Read up to a full header
+            }
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            if (header.get() != 0) return false;
+        }
+        return true;
+    }
+
+    private static JournalSegment map(Path path, int size, long baseSequence, Instant created,
+                                      StandardOpenOption... extra) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = open(path, extra)) {
+            MemorySegment mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            JournalIndex.Builder index = JournalIndex.Builder.create(JournalIndex.pathFor(path));
+            return new JournalSegment(path, arena, mapped, index, baseSequence, created);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel open(Path path, StandardOpenOption... extra) throws IOException {
+        StandardOpenOption[] options = new StandardOpenOption[extra.length + 2];
+        options[0] = StandardOpenOption.READ;
+        options[1] = StandardOpenOption.WRITE;
+        System.arraycopy(extra, 0, options, 2, extra.length);
+        return FileChannel.open(path, options);
+    }
+
+    /**
+     * Returns the file name of the segment whose first record has the given sequence number.
+     * Names sort in sequence order.
+     */
+    static String fileName(long baseSequence) {
+        return "%020d%s".formatted(baseSequence, SUFFIX);
+    }
+
+    /**
+     * Copies a complete record to the end of the segment.
+     *
+     * @param record the encoded record, between its position and limit
+     * @param stamp  the record's timestamp as a {@linkplain JournalIndex#stamp index key}
+     * @return {@code false} if the record does not fit in the remaining space
+     * @throws IOException if the index file cannot be written
+     */
+    boolean append(ByteBuffer record, long stamp) throws IOException {
+        int length = record.remaining();
+        if (length > buffer.capacity() - position) return false;
+
+        buffer.put(position, record, record.position(), length);
+        index.add(position, position + length, stamp);
+        position += length;
+        records++;
+        return true;
+    }
+
+    /**
+     * Forces appended records to storage.
+     */
+    void force() {
+        mapped.force();
+    }
+
+    /**
+     * Passes every record in the segment, in order, to {@code action}.
+     */
+    void forEach(Consumer<Message> action) {
+        int offset = HEADER_SIZE;
+        while (offset < position) {
+            action.accept(JournalRecord.decode(buffer, offset));
+            offset += JournalRecord.HEADER_SIZE + buffer.getInt(offset);
+        }
+    }
+
+    /**
+     * Returns the offset just past the last non-zero chunk after the records.
+     */
+    private long dirtyEnd() {
+        MemorySegment zeros = MemorySegment.ofArray(new byte[SCAN_CHUNK]);
+        long end = position;
+        for (long offset = position; offset < mapped.byteSize(); offset += SCAN_CHUNK) {
+            long length = Math.min(SCAN_CHUNK, mapped.byteSize() - offset);
+            if (MemorySegment.mismatch(mapped, offset, offset + length, zeros, 0, length) != -1) {
+                end = offset + length;
+            }
+        }
+        return end;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * Returns the sequence number the next appended record will have.
+     */
+    long nextSequence() {
+        return baseSequence + records;
+    }
+
+    Instant created() {
+        return created;
+    }
+
+    int records() {
+        return records;
+    }
+
+    /**
+     * Returns the number of bytes used, including the header.
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * The identifying fields of a segment header.
+     *
+     * @param baseSequence the sequence number of the segment's first record
+     * @param created      when the segment was created
+     */
+    record Header(long baseSequence, Instant created) {}
+
+    /**
+     * Completes the index and unmaps the segment. It must not be used afterwards.
+     *
+     * @throws UncheckedIOException if the index file cannot be written
+     */
+    @Override
+    public void close() {
+        try (index) {
+            index.finishBlock();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to complete journal index of " + path, e);
+        } finally {
+            arena.close();
+        }
+    }
+}
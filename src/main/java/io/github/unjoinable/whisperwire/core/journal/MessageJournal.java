@@ -0,0 +1,463 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * An append-only, on-disk journal of relayed {@link Message}s.
+ *
+ * <p>Messages are stored as checksummed {@link JournalRecord}s in fixed-size, memory-mapped
+ * segment files named after the sequence number of their first record, each with a sparse
+ * {@link JournalIndex} of record timestamps that {@link JournalReader} seeks with. {@link #append} only
+ * performs a lock-free enqueue; a single writer thread drains everything queued, copies it
+ * into the active segment and forces the segment to storage once per batch, so the cost of a
+ * flush is shared by every message that arrived while the previous one was in progress
+ * (group commit). {@link #sync()} waits for such a flush.
+ *
+ * <p>The active segment is rolled when a record no longer fits or when it has been open for
+ * longer than the maximum segment age. After each roll, the oldest segments are deleted while
+ * there are more than the maximum number of segments, or while every record in them is older
+ * than the retention period.
+ *
+ * <p>When opened, the journal continues the newest existing segment. Its records are checked
+ * up to the first invalid length or checksum, and anything after that point is discarded, so
+ * a record torn by a crash or power loss is dropped rather than read back as garbage.
+ */
+public final class MessageJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(MessageJournal.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MAX_SCRATCH = 64 * 1024;
+
+    /** The default size of each segment file, 64 MiB. */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    /** The default maximum time a segment is written to, one hour. */
+    public static final Duration DEFAULT_MAX_SEGMENT_AGE = Duration.ofHours(1);
+    /** The default maximum number of segment files kept. */
+    public static final int DEFAULT_MAX_SEGMENTS = 32;
+    /** The default time records are kept for, seven days. */
+    public static final Duration DEFAULT_RETENTION = Duration.ofDays(7);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration maxSegmentAge;
+    private final int maxSegments;
+    private final Duration retention;
+    private final Clock clock;
+
+    private final ConcurrentLinkedQueue<Message> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<CompletableFuture<Void>> syncs = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile long committedSequence;
+
+    // Confined to the writer thread once started
+    private final Deque<Retired> retired = new ArrayDeque<>();
+    private JournalSegment active;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    private MessageJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.maxSegmentAge = builder.maxSegmentAge;
+        this.maxSegments = builder.maxSegments;
+        this.retention = builder.retention;
+        this.clock = builder.clock;
+
+        Files.createDirectories(directory);
+        this.active = recover();
+        this.committedSequence = active.nextSequence();
+        enforceRetention();
+
+        this.writer = Thread.ofPlatform()
+                .name("whisperwire-journal")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Creates a new builder for a journal stored in {@code directory}.
+     *
+     * @param directory the directory holding the segment files; created if missing
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Queues a message to be written. Never blocks.
+     *
+     * @param message the message to journal
+     * @return {@code true} if the message was queued and will be written, or {@code false} if
+     *         the journal has been closed, in which case it is counted in {@link #rejected()}
+     */
+    public boolean append(Message message) {
+        Objects.requireNonNull(message, "message must not be null");
+        if (closed) {
+            rejected.increment();
+            return false;
+        }
+
+        pending.offer(message);
+        // Closed since the check above, so the writer may already have drained for the last time
+        if (closed && pending.remove(message)) {
+            rejected.increment();
+            return false;
+        }
+        appended.increment();
+        wakeWriter();
+        return true;
+    }
+
+    /**
+     * Returns a future that completes once every message appended before this call has been
+     * forced to storage, or completes exceptionally if writing any of them failed.
+     */
+    public CompletableFuture<Void> sync() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (closed && !writer.isAlive()) {
+            future.completeExceptionally(new IllegalStateException("Journal is closed"));
+            return future;
+        }
+
+        syncs.offer(future);
+        wakeWriter();
+        if (!writer.isAlive() && syncs.remove(future)) {
+            future.completeExceptionally(new IllegalStateException("Journal is closed"));
+        }
+        return future;
+    }
+
+    private void wakeWriter() {
+        if (!signalled.get() && signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Returns the directory holding the segment files.
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Returns the sequence number the next committed record will have, i.e. the number of
+     * records committed since the journal was first created.
+     */
+    public long committedSequence() {
+        return committedSequence;
+    }
+
+    /**
+     * Returns the number of messages appended since this journal was opened.
+     */
+    public long appended() {
+        return appended.sum();
+    }
+
+    /**
+     * Returns the number of messages that could not be written, because they were larger than
+     * a segment, writing failed or they were appended after the journal was closed.
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Writes every queued message, forces it to storage and unmaps the active segment.
+     *
+     * <p>Messages appended concurrently with this call may be lost.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void run() {
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        while (true) {
+            boolean stopping = closed;
+            signalled.set(false);
+
+            // Waiters taken before the drain only cover messages appended before them
+            CompletableFuture<Void> waiter;
+            while ((waiter = syncs.poll()) != null) waiters.add(waiter);
+
+            @Nullable Exception failure = writeBatch();
+            for (CompletableFuture<Void> completed : waiters) {
+                if (failure == null) {
+                    completed.complete(null);
+                } else {
+                    completed.completeExceptionally(failure);
+                }
+            }
+            waiters.clear();
+
+            if (stopping && pending.isEmpty()) break;
+            if (pending.isEmpty() && syncs.isEmpty()) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+
+        active.force();
+        try {
+            active.close();
+        } catch (UncheckedIOException e) {
+            log.error("Failed to close journal segment {}", active.path(), e);
+        }
+        for (CompletableFuture<Void> late : syncs) late.completeExceptionally(new IllegalStateException("Journal is closed"));
+    }
+
+    /**
+     * Writes every pending message and forces the active segment once.
+     *
+     * @return the first failure, or {@code null} if every message was written
+     */
+    private @Nullable Exception writeBatch() {
+        @Nullable Exception failure = null;
+        int written = 0;
+
+        try {
+            if (active.records() > 0 && isExpired(active.created())) roll();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to roll journal segment in {}", directory, e);
+            failure = e;
+        }
+
+        Message message;
+        while ((message = pending.poll()) != null) {
+            try {
+                write(message);
+                written++;
+            } catch (IOException | RuntimeException e) {
+                rejected.increment();
+                if (failure == null) {
+                    log.error("Failed to journal message from {}", message.source(), e);
+                    failure = e;
+                }
+            }
+        }
+
+        if (written > 0) {
+            active.force();
+            committedSequence = active.nextSequence();
+        }
+        return failure;
+    }
+
+    private void write(Message message) throws IOException {
+        ByteBuffer record = JournalRecord.encode(message, scratch);
+        if (record != scratch && record.capacity() <= MAX_SCRATCH) scratch = record;
+
+        if (record.remaining() > segmentSize - JournalSegment.HEADER_SIZE) {
+            throw new IllegalArgumentException("Message of " + record.remaining() + " bytes exceeds the segment size");
+        }
+        long stamp = JournalIndex.stamp(message.timestamp());
+        if (!active.append(record, stamp)) {
+            roll();
+            active.append(record, stamp);
+        }
+    }
+
+    private boolean isExpired(Instant created) {
+        return !created.plus(maxSegmentAge).isAfter(clock.instant());
+    }
+
+    private void roll() throws IOException {
+        JournalSegment previous = active;
+        active = JournalSegment.create(directory, segmentSize, previous.nextSequence(), clock.instant());
+
+        previous.force();
+        retired.addLast(new Retired(previous.path(), previous.created()));
+        committedSequence = active.nextSequence();
+        try {
+            previous.close();
+        } catch (UncheckedIOException e) {
+            // Readers fall back to scanning a segment without a usable index
+            log.warn("Failed to close journal segment {}", previous.path(), e);
+        }
+        enforceRetention();
+    }
+
+    /**
+     * Deletes the oldest retired segments that exceed the segment count or whose records are
+     * all older than the retention period, i.e. whose successor was created before it.
+     */
+    private void enforceRetention() {
+        Instant cutoff = clock.instant().minus(retention);
+        while (!retired.isEmpty()) {
+            Iterator<Retired> oldestFirst = retired.iterator();
+            oldestFirst.next();
+            Instant successorCreated = oldestFirst.hasNext() ? oldestFirst.next().created() : active.created();
+            boolean tooMany = retired.size() + 1 > maxSegments;
+            if (!tooMany && !successorCreated.isBefore(cutoff)) break;
+
+            Retired oldest = retired.removeFirst();
+            try {
+                Files.deleteIfExists(oldest.path());
+                Files.deleteIfExists(JournalIndex.pathFor(oldest.path()));
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", oldest.path(), e);
+            }
+        }
+    }
+
+    /**
+     * Finds the existing segments and recovers the newest as the active segment, or creates
+     * the first segment of a new journal. Newest segments whose header was never written are
+     * deleted; any other failure to recover fails the open, so that no records are discarded.
+     */
+    private JournalSegment recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        int last = paths.size() - 1;
+        @Nullable JournalSegment recovered = null;
+        while (recovered == null && last >= 0) {
+            try {
+                recovered = JournalSegment.recover(paths.get(last));
+            } catch (IOException e) {
+                if (!JournalSegment.isUnwritten(paths.get(last))) throw e;
+                // A segment that was being created when the process died
+                log.warn("Discarding journal segment {} whose header was never written", paths.get(last), e);
+                Files.deleteIfExists(paths.get(last));
+                Files.deleteIfExists(JournalIndex.pathFor(paths.get(last)));
+                last--;
+            }
+        }
+
+        for (int i = 0; i < last; i++) {
+            Path path = paths.get(i);
+            retired.addLast(new Retired(path, JournalSegment.readHeader(path).created()));
+        }
+        if (recovered != null) return recovered;
+
+        return JournalSegment.create(directory, segmentSize, 0, clock.instant());
+    }
+
+    /**
+     * A segment that is no longer written to.
+     */
+    private record Retired(Path path, Instant created) {}
+
+    /**
+     * Builder for {@link MessageJournal}.
+     */
+    public static class Builder {
+        private final Path directory;
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+        private Duration maxSegmentAge = DEFAULT_MAX_SEGMENT_AGE;
+        private int maxSegments = DEFAULT_MAX_SEGMENTS;
+        private Duration retention = DEFAULT_RETENTION;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        }
+
+        /**
+         * Sets the size of each segment file in bytes. Defaults to 64 MiB.
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < JournalSegment.HEADER_SIZE * 2) {
+                throw new IllegalArgumentException("segmentSize too small: " + segmentSize);
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a segment is written to before a new one is started. Defaults to one hour.
+         */
+        public Builder maxSegmentAge(Duration maxSegmentAge) {
+            Objects.requireNonNull(maxSegmentAge, "maxSegmentAge must not be null");
+            if (maxSegmentAge.isZero() || maxSegmentAge.isNegative()) {
+                throw new IllegalArgumentException("maxSegmentAge must be positive: " + maxSegmentAge);
+            }
+            this.maxSegmentAge = maxSegmentAge;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of segment files kept, including the active one. Defaults to 32.
+         */
+        public Builder maxSegments(int maxSegments) {
+            if (maxSegments <= 0) {
+                throw new IllegalArgumentException("maxSegments must be positive: " + maxSegments);
+            }
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        /**
+         * Sets how long records are kept. Defaults to seven days.
+         */
+        public Builder retention(Duration retention) {
+            Objects.requireNonNull(retention, "retention must not be null");
+            if (retention.isNegative()) {
+                throw new IllegalArgumentException("retention must not be negative: " + retention);
+            }
+            this.retention = retention;
+            return this;
+        }
+
+        /**
+         * Sets the clock segment ages and retention are measured with.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock, "clock must not be null");
+            return this;
+        }
+
+        /**
+         * Opens the journal, recovering existing segments, and starts its writer thread.
+         *
+         * @throws IOException if the directory or a segment cannot be read or created
+         */
+        public MessageJournal open() throws IOException {
+            return new MessageJournal(this);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * A {@link RelayPredicate} that blocks messages containing banned words.
+ *
+ * <p>The word list is compiled once into an Aho-Corasick automaton, so each message is scanned
+ * in a single pass regardless of how many terms are banned. Matching is case-insensitive and
+ * only considers whole words: {@code "hell"} matches {@code "Hell yes"} but not {@code "hello"}.
+ * Multi-word phrases are supported.
+ *
+ * <p>Instead of dropping offending messages, {@link #masking()} provides a
+ * {@link MessageTransformer} that replaces the matched words with asterisks.
+ */
+public final class BannedWordFilter implements RelayPredicate {
+    private final WordAutomaton automaton;
+    private final int size;
+
+    private BannedWordFilter(WordAutomaton automaton, int size) {
+        this.automaton = automaton;
+        this.size = size;
+    }
+
+    /**
+     * Compiles a filter from the given words.
+     *
+     * @param words the banned words or phrases; blank entries are ignored
+     * @return a new {@code BannedWordFilter}
+     * @throws NullPointerException if {@code words} is {@code null}
+     */
+    public static BannedWordFilter of(Collection<String> words) {
+        Objects.requireNonNull(words, "words must not be null");
+        return new BannedWordFilter(WordAutomaton.compile(words), words.size());
+    }
+
+    /**
+     * Tests whether the message is free of banned words.
+     *
+     * @param message the message to evaluate
+     * @return {@code true} if the raw content contains no banned word
+     */
+    @Override
+    public boolean test(Message message) {
+        return !automaton.matches(message.rawMessage());
+    }
+
+    /**
+     * Scanning the content makes this an {@link Cost#EXPENSIVE} check.
+     */
+    @Override
+    public Cost cost() {
+        return Cost.EXPENSIVE;
+    }
+
+    /**
+     * Returns whether the given text contains a banned word.
+     *
+     * @param text the text to scan
+     * @return {@code true} if at least one whole-word match was found
+     */
+    public boolean containsBannedWord(CharSequence text) {
+        return automaton.matches(text);
+    }
+
+    /**
+     * Replaces every banned word in the text with asterisks of the same length.
+     *
+     * @param text the text to mask
+     * @return the masked text, or {@code text} itself if it contains no banned word
+     */
+    public String mask(String text) {
+        return automaton.mask(text);
+    }
+
+    /**
+     * Returns a transformer that masks banned words instead of blocking the message.
+     *
+     * @return a {@link MessageTransformer} that returns messages without matches unchanged
+     */
+    public MessageTransformer masking() {
+        return message -> {
+            String masked = automaton.mask(message.rawMessage());
+            if (masked == message.rawMessage()) return message;
+
+            return new Message(message.source(), message.username(), masked, message.timestamp());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "BannedWordFilter[words=%d]".formatted(size);
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A chat format string such as {@code <{username}> {message}}, parsed once into segments.
+ *
+ * <p>The recognized placeholders are {@code {username}}, {@code {message}} and
+ * {@code {source}}; anything else, including unknown placeholders, is kept as literal text.
+ * Rendering appends the segments in order, so a message is formatted in a single pass without
+ * regular expressions or repeated {@link String#replace} calls.
+ */
+public final class ChatTemplate {
+    private final String format;
+    private final List<Segment> segments;
+    private final Segment[] program;
+    private final int literalLength;
+
+    private ChatTemplate(String format, List<Segment> segments) {
+        this.format = format;
+        this.segments = List.copyOf(segments);
+        this.program = segments.toArray(Segment[]::new);
+
+        int length = 0;
+        for (Segment segment : program) {
+            if (segment instanceof Literal(String text)) length += text.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a format string.
+     *
+     * @param format the format string
+     * @return the compiled template
+     * @throws NullPointerException if {@code format} is {@code null}
+     */
+    public static ChatTemplate compile(String format) {
+        Objects.requireNonNull(format, "format must not be null");
+
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            int close = c == '{' ? format.indexOf('}', i + 1) : -1;
+            @Nullable Field field = close < 0 ? null : Field.byName(format.substring(i + 1, close));
+
+            if (field == null) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            if (!literal.isEmpty()) {
+                segments.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(field);
+            i = close + 1;
+        }
+
+        if (!literal.isEmpty()) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new ChatTemplate(format, segments);
+    }
+
+    /**
+     * Renders the template for a message.
+     *
+     * @param message the message to render
+     * @return the formatted text
+     */
+    public String render(Message message) {
+        int length = literalLength;
+        for (Segment segment : program) {
+            if (segment instanceof Field field) length += field.valueOf(message).length();
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        renderTo(message, out);
+        return out.toString();
+    }
+
+    /**
+     * Appends the rendered template to {@code out}, so callers can reuse one builder.
+     *
+     * @param message the message to render
+     * @param out     the builder to append to
+     */
+    public void renderTo(Message message, StringBuilder out) {
+        for (Segment segment : program) {
+            switch (segment) {
+                case Literal(String text) -> out.append(text);
+                case Field field -> out.append(field.valueOf(message));
+            }
+        }
+    }
+
+    /**
+     * Returns the parsed segments in order.
+     */
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    /**
+     * Returns the format string this template was compiled from.
+     */
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ChatTemplate that && format.equals(that.format);
+    }
+
+    @Override
+    public int hashCode() {
+        return format.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ChatTemplate[" + format + "]";
+    }
+
+    /**
+     * A part of a template: either literal text or a message field.
+     */
+    public sealed interface Segment permits Literal, Field {}
+
+    /**
+     * Literal text copied as is.
+     *
+     * @param text the text
+     */
+    public record Literal(String text) implements Segment {}
+
+    /**
+     * A placeholder replaced by a message field.
+     */
+    public enum Field implements Segment {
+        USERNAME("username"),
+        MESSAGE("message"),
+        SOURCE("source");
+
+        private final String placeholder;
+
+        Field(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        /**
+         * Returns this field's value for the given message.
+         */
+        public String valueOf(Message message) {
+            return switch (this) {
+                case USERNAME -> message.username();
+                case MESSAGE -> message.rawMessage();
+                case SOURCE -> message.source();
+            };
+        }
+
+        private static @Nullable Field byName(String name) {
+            for (Field field : values()) {
+                if (field.placeholder.equals(name)) return field;
+            }
+            return null;
+        }
+    }
+}
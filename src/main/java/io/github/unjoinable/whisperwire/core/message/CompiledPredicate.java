@@ -0,0 +1,324 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link RelayPredicate} flattened into a linear branch program.
+ *
+ * <p>Compilation walks the structure produced by {@link RelayPredicate#and},
+ * {@link RelayPredicate#or} and {@link RelayPredicate#negate}, merges nested conjunctions
+ * and disjunctions, orders their operands by {@link RelayPredicate#cost()} so cheap checks
+ * run first, and folds {@link RelayPredicate#ALLOW_ALL} and {@link RelayPredicate#DENY_ALL}
+ * away. The result is an array of instructions, each testing one leaf predicate and jumping
+ * to the next instruction (or to a final accept/reject) depending on the outcome. Evaluation
+ * is a single loop without nested calls, and stops at the first decisive result.
+ *
+ * <p>A leaf that occurs more than once in the composition is evaluated at most once per
+ * message. Reordering assumes the leaf predicates are free of side effects.
+ *
+ * <p>When compiled with profiling enabled, per-rule evaluation counts, pass counts and
+ * time spent are recorded and available through {@link #stats()}.
+ */
+public final class CompiledPredicate implements RelayPredicate {
+    private static final int ACCEPT = -1;
+    private static final int REJECT = -2;
+
+    private final RelayPredicate source;
+    private final RelayPredicate[] leaves;
+    private final Rule[] rules;
+    private final int[] leafOf;
+    private final int[] onTrue;
+    private final int[] onFalse;
+    private final int entry;
+    private final boolean memoize;
+    private final @Nullable Counters counters;
+
+    private CompiledPredicate(RelayPredicate source, Program program, boolean profiled) {
+        this.source = source;
+        this.leaves = program.leaves.stream().map(Rule::delegate).toArray(RelayPredicate[]::new);
+        this.rules = program.leaves.toArray(Rule[]::new);
+        this.leafOf = program.leafOf.stream().mapToInt(Integer::intValue).toArray();
+        this.onTrue = program.onTrue.stream().mapToInt(Integer::intValue).toArray();
+        this.onFalse = program.onFalse.stream().mapToInt(Integer::intValue).toArray();
+        this.entry = program.entry;
+        this.memoize = leafOf.length > leaves.length && leaves.length <= Long.SIZE;
+        this.counters = profiled ? new Counters(leaves.length) : null;
+    }
+
+    /**
+     * Compiles the given predicate.
+     *
+     * @param predicate the predicate to compile; a {@code CompiledPredicate} is recompiled from its source
+     * @param profiled  whether to record per-rule statistics
+     * @return a new {@code CompiledPredicate}
+     * @throws NullPointerException if {@code predicate} is {@code null}
+     */
+    public static CompiledPredicate compile(RelayPredicate predicate, boolean profiled) {
+        Objects.requireNonNull(predicate, "predicate must not be null");
+
+        RelayPredicate source = predicate instanceof CompiledPredicate compiled ? compiled.source : predicate;
+        Program program = new Program();
+        program.index(source);
+        program.entry = program.emit(source, ACCEPT, REJECT);
+        return new CompiledPredicate(source, program, profiled);
+    }
+
+    @Override
+    public boolean test(Message message) {
+        int pc = entry;
+        long evaluated = 0;
+        long results = 0;
+
+        while (pc >= 0) {
+            int leaf = leafOf[pc];
+            boolean result;
+
+            if (memoize && (evaluated & (1L << leaf)) != 0) {
+                result = (results & (1L << leaf)) != 0;
+            } else {
+                result = counters == null ? leaves[leaf].test(message) : counters.evaluate(leaves[leaf], leaf, message);
+                if (memoize) {
+                    evaluated |= 1L << leaf;
+                    if (result) results |= 1L << leaf;
+                }
+            }
+
+            pc = result ? onTrue[pc] : onFalse[pc];
+        }
+
+        return pc == ACCEPT;
+    }
+
+    /**
+     * Returns the most expensive cost among the compiled rules.
+     */
+    @Override
+    public Cost cost() {
+        Cost max = Cost.CHEAP;
+        for (Rule rule : rules) {
+            if (rule.cost().weight() > max.weight()) max = rule.cost();
+        }
+        return max;
+    }
+
+    /**
+     * Returns this predicate; it is already compiled.
+     */
+    @Override
+    public CompiledPredicate compile() {
+        return this;
+    }
+
+    /**
+     * Returns the number of branch instructions in the compiled program.
+     */
+    public int size() {
+        return leafOf.length;
+    }
+
+    /**
+     * Returns statistics for each distinct rule, in evaluation order of first appearance.
+     *
+     * <p>Counts are zero unless the predicate was compiled with profiling enabled.
+     *
+     * @return an immutable list with one entry per rule
+     */
+    public List<RuleStats> stats() {
+        List<RuleStats> stats = new ArrayList<>(rules.length);
+        for (int i = 0; i < rules.length; i++) {
+            stats.add(counters == null
+                    ? new RuleStats(rules[i].name(), rules[i].cost(), 0, 0, 0)
+                    : counters.snapshot(i, rules[i]));
+        }
+        return List.copyOf(stats);
+    }
+
+    /**
+     * Resets all per-rule statistics to zero.
+     */
+    public void resetStats() {
+        if (counters != null) counters.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPredicate[rules=%d, instructions=%d]".formatted(rules.length, leafOf.length);
+    }
+
+    /**
+     * Statistics for a single rule of a {@link CompiledPredicate}.
+     *
+     * @param name        the rule name
+     * @param cost        the rule's declared cost
+     * @param evaluations how many times the rule was evaluated
+     * @param passes      how many evaluations returned {@code true}
+     * @param totalNanos  the total time spent evaluating the rule
+     */
+    public record RuleStats(String name, Cost cost, long evaluations, long passes, long totalNanos) {
+
+        /**
+         * Returns the average evaluation time in nanoseconds, or zero if never evaluated.
+         */
+        public double averageNanos() {
+            return evaluations == 0 ? 0 : (double) totalNanos / evaluations;
+        }
+    }
+
+    /**
+     * A leaf with its display name and cost resolved.
+     */
+    private record Rule(String name, Cost cost, RelayPredicate delegate) {}
+
+    /**
+     * Builds the instruction arrays. Leaves are first indexed in evaluation order, then
+     * operands are emitted back to front so that each instruction's jump targets already
+     * exist when it is created.
+     */
+    private static final class Program {
+        private final List<Rule> leaves = new ArrayList<>();
+        private final Map<RelayPredicate, Integer> leafIndex = new IdentityHashMap<>();
+        private final List<Integer> leafOf = new ArrayList<>();
+        private final List<Integer> onTrue = new ArrayList<>();
+        private final List<Integer> onFalse = new ArrayList<>();
+        private int entry;
+
+        void index(RelayPredicate predicate) {
+            if (predicate == ALLOW_ALL || predicate == DENY_ALL) return;
+
+            switch (predicate) {
+                case CompositePredicate.And _ -> sortedOperands(predicate, CompositePredicate.And.class).forEach(this::index);
+                case CompositePredicate.Or _ -> sortedOperands(predicate, CompositePredicate.Or.class).forEach(this::index);
+                case CompositePredicate.Not not -> index(not.operand());
+                case CompiledPredicate compiled -> index(compiled.source);
+                default -> leafIndexOf(predicate);
+            }
+        }
+
+        int emit(RelayPredicate predicate, int whenTrue, int whenFalse) {
+            if (predicate == ALLOW_ALL) return whenTrue;
+            if (predicate == DENY_ALL) return whenFalse;
+
+            return switch (predicate) {
+                case CompositePredicate.And _ -> {
+                    List<RelayPredicate> operands = sortedOperands(predicate, CompositePredicate.And.class);
+                    int next = whenTrue;
+                    for (int i = operands.size() - 1; i >= 0; i--) {
+                        next = emit(operands.get(i), next, whenFalse);
+                    }
+                    yield next;
+                }
+                case CompositePredicate.Or _ -> {
+                    List<RelayPredicate> operands = sortedOperands(predicate, CompositePredicate.Or.class);
+                    int next = whenFalse;
+                    for (int i = operands.size() - 1; i >= 0; i--) {
+                        next = emit(operands.get(i), whenTrue, next);
+                    }
+                    yield next;
+                }
+                case CompositePredicate.Not not -> emit(not.operand(), whenFalse, whenTrue);
+                case CompiledPredicate compiled -> emit(compiled.source, whenTrue, whenFalse);
+                default -> {
+                    leafOf.add(leafIndexOf(predicate));
+                    onTrue.add(whenTrue);
+                    onFalse.add(whenFalse);
+                    yield leafOf.size() - 1;
+                }
+            };
+        }
+
+        private int leafIndexOf(RelayPredicate predicate) {
+            return leafIndex.computeIfAbsent(predicate, p -> {
+                leaves.add(p instanceof CompositePredicate.Rule rule
+                        ? new Rule(rule.name(), rule.cost(), rule.delegate())
+                        : new Rule(p.toString(), p.cost(), p));
+                return leaves.size() - 1;
+            });
+        }
+
+        /**
+         * Collects the operands of nested operations of the same kind and orders them by cost.
+         * The sort is stable, so operands of equal cost keep their written order.
+         */
+        private static List<RelayPredicate> sortedOperands(RelayPredicate predicate, Class<?> kind) {
+            List<RelayPredicate> operands = new ArrayList<>();
+            flatten(predicate, kind, operands);
+            operands.sort(Comparator.comparingInt(Program::weightOf));
+            return operands;
+        }
+
+        private static void flatten(RelayPredicate predicate, Class<?> kind, List<RelayPredicate> into) {
+            switch (predicate) {
+                case CompositePredicate.And and when kind == CompositePredicate.And.class -> {
+                    flatten(and.left(), kind, into);
+                    flatten(and.right(), kind, into);
+                }
+                case CompositePredicate.Or or when kind == CompositePredicate.Or.class -> {
+                    flatten(or.left(), kind, into);
+                    flatten(or.right(), kind, into);
+                }
+                default -> into.add(predicate);
+            }
+        }
+
+        private static int weightOf(RelayPredicate predicate) {
+            return switch (predicate) {
+                case CompositePredicate.And and -> weightOf(and.left()) + weightOf(and.right());
+                case CompositePredicate.Or or -> weightOf(or.left()) + weightOf(or.right());
+                case CompositePredicate.Not not -> weightOf(not.operand());
+                case CompiledPredicate compiled -> weightOf(compiled.source);
+                default -> predicate.cost().weight();
+            };
+        }
+    }
+
+    /**
+     * Per-rule profiling counters.
+     */
+    private static final class Counters {
+        private final LongAdder[] evaluations;
+        private final LongAdder[] passes;
+        private final LongAdder[] nanos;
+
+        Counters(int size) {
+            evaluations = adders(size);
+            passes = adders(size);
+            nanos = adders(size);
+        }
+
+        boolean evaluate(RelayPredicate leaf, int index, Message message) {
+            long start = System.nanoTime();
+            boolean result = leaf.test(message);
+            nanos[index].add(System.nanoTime() - start);
+            evaluations[index].increment();
+            if (result) passes[index].increment();
+            return result;
+        }
+
+        RuleStats snapshot(int index, Rule rule) {
+            return new RuleStats(rule.name(), rule.cost(),
+                    evaluations[index].sum(), passes[index].sum(), nanos[index].sum());
+        }
+
+        void reset() {
+            for (int i = 0; i < evaluations.length; i++) {
+                evaluations[i].reset();
+                passes[i].reset();
+                nanos[i].reset();
+            }
+        }
+
+        private static LongAdder[] adders(int size) {
+            LongAdder[] adders = new LongAdder[size];
+            for (int i = 0; i < size; i++) adders[i] = new LongAdder();
+            return adders;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import java.util.Objects;
+
+/**
+ * Structural representation of predicates composed with {@link RelayPredicate#and},
+ * {@link RelayPredicate#or} and {@link RelayPredicate#negate}.
+ *
+ * <p>Keeping the composition inspectable, rather than hiding it inside nested lambdas,
+ * lets {@link CompiledPredicate} flatten it into a linear branch program.
+ */
+sealed interface CompositePredicate extends RelayPredicate {
+
+    record And(RelayPredicate left, RelayPredicate right) implements CompositePredicate {
+        public And {
+            Objects.requireNonNull(left, "left must not be null");
+            Objects.requireNonNull(right, "right must not be null");
+        }
+
+        @Override
+        public boolean test(Message message) {
+            return left.test(message) && right.test(message);
+        }
+    }
+
+    record Or(RelayPredicate left, RelayPredicate right) implements CompositePredicate {
+        public Or {
+            Objects.requireNonNull(left, "left must not be null");
+            Objects.requireNonNull(right, "right must not be null");
+        }
+
+        @Override
+        public boolean test(Message message) {
+            return left.test(message) || right.test(message);
+        }
+    }
+
+    record Not(RelayPredicate operand) implements CompositePredicate {
+        public Not {
+            Objects.requireNonNull(operand, "operand must not be null");
+        }
+
+        @Override
+        public boolean test(Message message) {
+            return !operand.test(message);
+        }
+    }
+
+    /**
+     * A predicate labelled with a name and an evaluation cost, as created by
+     * {@link RelayPredicate#named(String, RelayPredicate.Cost, RelayPredicate)}.
+     */
+    record Rule(String name, Cost cost, RelayPredicate delegate) implements CompositePredicate {
+        public Rule {
+            Objects.requireNonNull(name, "name must not be null");
+            Objects.requireNonNull(cost, "cost must not be null");
+            Objects.requireNonNull(delegate, "delegate must not be null");
+        }
+
+        @Override
+        public boolean test(Message message) {
+            return delegate.test(message);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
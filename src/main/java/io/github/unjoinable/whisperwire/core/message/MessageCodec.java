@@ -0,0 +1,403 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of {@link Message}s for a session, such as a connection between
+ * two processes, in which both sides see the same messages in the same order.
+ *
+ * <p>A message is encoded as four fields:
+ * <ol>
+ *     <li>the {@link Message#source() source} and {@link Message#username() username}, each as
+ *     a dictionary reference: a varint {@code n > 0} refers to the {@code n}-th string entered
+ *     into the session dictionary, and {@code 0} is followed by a literal string, which is
+ *     entered into the dictionary while it has room;</li>
+ *     <li>the {@link Message#timestamp() timestamp} as a zigzag varint of the difference in
+ *     epoch microseconds from the previous message of the session (or from the epoch for the
+ *     first), so chat arriving seconds apart takes three or four bytes;</li>
+ *     <li>the {@link Message#rawMessage() raw message} as a literal string.</li>
+ * </ol>
+ * Literal strings are a varint byte count followed by UTF-8. Varints are unsigned LEB128.
+ *
+ * <p>Strings are converted straight between {@code String}s and the caller's buffer, without
+ * intermediate byte arrays. A decoder keeps one instance of every dictionary string, so all
+ * decoded messages from the same source or user share it.
+ *
+ * <p>Timestamps are kept to the microsecond; finer precision is truncated. Unpaired surrogates
+ * are encoded as {@code ?} and malformed UTF-8 is decoded as {@code U+FFFD}.
+ *
+ * <p>An {@link Encoder} and a {@link Decoder} are stateful and not thread-safe; each session
+ * needs its own pair, and decoding must see every encoded message in order.
+ */
+public final class MessageCodec {
+
+    /**
+     * The default maximum number of strings in a session dictionary.
+     */
+    public static final int DEFAULT_DICTIONARY_SIZE = 4096;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private MessageCodec() {}
+
+    /**
+     * Creates an encoder with a dictionary of {@value #DEFAULT_DICTIONARY_SIZE} strings.
+     */
+    public static Encoder encoder() {
+        return new Encoder(DEFAULT_DICTIONARY_SIZE);
+    }
+
+    /**
+     * Creates an encoder with a dictionary of at most {@code dictionarySize} strings. The
+     * decoder of the session must use the same size.
+     *
+     * @throws IllegalArgumentException if {@code dictionarySize} is negative
+     */
+    public static Encoder encoder(int dictionarySize) {
+        return new Encoder(checkDictionarySize(dictionarySize));
+    }
+
+    /**
+     * Creates a decoder with a dictionary of {@value #DEFAULT_DICTIONARY_SIZE} strings.
+     */
+    public static Decoder decoder() {
+        return new Decoder(DEFAULT_DICTIONARY_SIZE);
+    }
+
+    /**
+     * Creates a decoder with a dictionary of at most {@code dictionarySize} strings, which
+     * must match the encoder of the session.
+     *
+     * @throws IllegalArgumentException if {@code dictionarySize} is negative
+     */
+    public static Decoder decoder(int dictionarySize) {
+        return new Decoder(checkDictionarySize(dictionarySize));
+    }
+
+    private static int checkDictionarySize(int dictionarySize) {
+        if (dictionarySize < 0) {
+            throw new IllegalArgumentException("dictionarySize must not be negative: " + dictionarySize);
+        }
+        return dictionarySize;
+    }
+
+    /**
+     * Encodes the messages of one session.
+     */
+    public static final class Encoder {
+        private final int dictionarySize;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> added = new ArrayList<>(2);
+        private long previousMicros;
+
+        private Encoder(int dictionarySize) {
+            this.dictionarySize = dictionarySize;
+        }
+
+        /**
+         * Writes a message at the position of {@code out}, advancing it.
+         *
+         * <p>If {@code out} runs out of space, its position and the session are left as they
+         * were, so the message can be encoded again into a larger buffer.
+         *
+         * @param message the message to encode
+         * @param out     the buffer to write to
+         * @throws BufferOverflowException  if {@code out} does not have enough space left
+         * @throws IllegalArgumentException if the timestamp is too far from the epoch to be
+         *                                  counted in microseconds
+         */
+        public void encode(Message message, ByteBuffer out) {
+            long micros = toMicros(message.timestamp());
+            int start = out.position();
+            added.clear();
+
+            try {
+                putReference(out, message.source());
+                putReference(out, message.username());
+                putVarLong(out, zigzag(micros - previousMicros));
+                putString(out, message.rawMessage());
+            } catch (BufferOverflowException e) {
+                out.position(start);
+                for (String string : added) dictionary.remove(string);
+                throw e;
+            }
+            previousMicros = micros;
+        }
+
+        /**
+         * Forgets the dictionary and timestamp of the session.
+         */
+        public void reset() {
+            dictionary.clear();
+            previousMicros = 0;
+        }
+
+        private void putReference(ByteBuffer out, String value) {
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                putVarInt(out, id);
+                return;
+            }
+
+            putVarInt(out, 0);
+            putString(out, value);
+            if (dictionary.size() < dictionarySize) {
+                dictionary.put(value, dictionary.size() + 1);
+                added.add(value);
+            }
+        }
+
+        private static long toMicros(Instant timestamp) {
+            try {
+                return Math.addExact(Math.multiplyExact(timestamp.getEpochSecond(), MICROS_PER_SECOND),
+                        timestamp.getNano() / 1_000);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Timestamp out of range: " + timestamp, e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the messages of one session.
+     */
+    public static final class Decoder {
+        private final int dictionarySize;
+        private final List<String> dictionary = new ArrayList<>();
+        private char[] chars = new char[64];
+        private long previousMicros;
+
+        private Decoder(int dictionarySize) {
+            this.dictionarySize = dictionarySize;
+        }
+
+        /**
+         * Reads a message at the position of {@code in}, advancing it.
+         *
+         * <p>If the message cannot be read, the position of {@code in} and the session are left
+         * as they were, so decoding can be retried once more input has arrived.
+         *
+         * @param in the buffer to read from
+         * @return the decoded message
+         * @throws BufferUnderflowException if {@code in} ends before the message does
+         * @throws IllegalArgumentException if the input is not a message of this session
+         */
+        public Message decode(ByteBuffer in) {
+            int start = in.position();
+            int entries = dictionary.size();
+            String source;
+            String username;
+            long micros;
+            String rawMessage;
+
+            try {
+                source = getReference(in);
+                username = getReference(in);
+                micros = previousMicros + unzigzag(getVarLong(in));
+                rawMessage = getString(in);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                in.position(start);
+                dictionary.subList(entries, dictionary.size()).clear();
+                throw e;
+            }
+
+            previousMicros = micros;
+            Instant timestamp = Instant.ofEpochSecond(
+                    Math.floorDiv(micros, MICROS_PER_SECOND),
+                    Math.floorMod(micros, MICROS_PER_SECOND) * 1_000);
+            return new Message(source, username, rawMessage, timestamp);
+        }
+
+        /**
+         * Forgets the dictionary and timestamp of the session.
+         */
+        public void reset() {
+            dictionary.clear();
+            previousMicros = 0;
+        }
+
+        private String getReference(ByteBuffer in) {
+            int id = getVarInt(in);
+            if (id > 0) {
+                if (id > dictionary.size()) {
+                    throw new IllegalArgumentException("Unknown dictionary reference " + id);
+                }
+                return dictionary.get(id - 1);
+            }
+
+            String value = getString(in);
+            if (dictionary.size() < dictionarySize) dictionary.add(value);
+            return value;
+        }
+
+        private String getString(ByteBuffer in) {
+            int length = getVarInt(in);
+            if (length > in.remaining()) throw new BufferUnderflowException();
+
+            int start = in.position();
+            in.position(start + length);
+            if (in.hasArray()) {
+                return new String(in.array(), in.arrayOffset() + start, length, StandardCharsets.UTF_8);
+            }
+            return decodeUtf8(in, start, start + length);
+        }
+
+        /**
+         * Decodes UTF-8 from a buffer without a backing array into a reused character buffer.
+         */
+        private String decodeUtf8(ByteBuffer in, int from, int to) {
+            // Never more chars than bytes
+            if (chars.length < to - from) chars = new char[Math.max(to - from, chars.length * 2)];
+
+            int count = 0;
+            int i = from;
+            while (i < to) {
+                int b = in.get(i) & 0xFF;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                    i++;
+                    continue;
+                }
+
+                int length = b > 0xF4 ? 0 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC2 ? 2 : 0;
+                int codePoint = length == 0 || i + length > to ? -1 : b & (0xFF >> (length + 1));
+                for (int k = 1; k < length && codePoint >= 0; k++) {
+                    int next = in.get(i + k);
+                    codePoint = (next & 0xC0) == 0x80 ? (codePoint << 6) | (next & 0x3F) : -1;
+                }
+                if (codePoint < minimumOf(length) || codePoint > Character.MAX_CODE_POINT
+                        || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                    chars[count++] = '\uFFFD';
+                    i++;
+                    continue;
+                }
+
+                count += Character.toChars(codePoint, chars, count);
+                i += length;
+            }
+            return new String(chars, 0, count);
+        }
+
+        private static int minimumOf(int length) {
+            return switch (length) {
+                case 2 -> 0x80;
+                case 3 -> 0x800;
+                case 4 -> 0x10000;
+                default -> Integer.MAX_VALUE;
+            };
+        }
+    }
+
+    /**
+     * Writes a string as a varint byte count followed by UTF-8.
+     */
+    private static void putString(ByteBuffer out, String value) {
+        int n = value.length();
+        putVarInt(out, utf8Length(value));
+
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                int codePoint = Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))
+                        ? Character.toCodePoint(c, value.charAt(++i))
+                        : -1;
+                if (codePoint < 0) {
+                    out.put((byte) '?');
+                } else {
+                    out.put((byte) (0xF0 | codePoint >> 18))
+                            .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                            .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                            .put((byte) (0x80 | codePoint & 0x3F));
+                }
+            } else {
+                out.put((byte) (0xE0 | c >> 12))
+                        .put((byte) (0x80 | c >> 6 & 0x3F))
+                        .put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #putString} writes for the characters of {@code value}.
+     */
+    static int utf8Length(String value) {
+        int n = value.length();
+        int length = n;
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) continue;
+
+            if (c < 0x800) {
+                length += 1;
+            } else if (Character.isSurrogate(c)) {
+                // A pair is four bytes for two chars; an unpaired surrogate becomes '?'
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                }
+            } else {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                // The fifth byte may only carry the top bits of a non-negative int
+                if (shift == 28 && b > 0x07) throw new IllegalArgumentException("Varint out of range");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+/**
+ * A functional interface that rewrites a {@link Message} before it is relayed.
+ *
+ * <p>Where a {@link RelayPredicate} decides whether a message is relayed at all, a
+ * {@code MessageTransformer} lets the message through in a modified form, for example
+ * with offensive words masked. Implementations should return the same instance when
+ * nothing needs to change.
+ */
+@FunctionalInterface
+public interface MessageTransformer {
+
+    /**
+     * A transformer that returns every message unchanged.
+     */
+    MessageTransformer IDENTITY = message -> message;
+
+    /**
+     * Transforms the given message.
+     *
+     * @param message the message to transform; must not be {@code null}
+     * @return the transformed message, or {@code message} itself if unchanged
+     */
+    Message transform(Message message);
+
+    /**
+     * Returns a composed transformer that applies this transformer and then {@code next}.
+     *
+     * @param next the transformer to apply afterwards; must not be {@code null}
+     * @return the composed transformer
+     */
+    default MessageTransformer andThen(MessageTransformer next) {
+        return message -> next.transform(this.transform(message));
+    }
+}
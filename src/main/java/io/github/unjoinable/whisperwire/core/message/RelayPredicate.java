@@ -2,7 +2,10 @@ package io.github.unjoinable.whisperwire.core.message;
 
 import io.github.unjoinable.whisperwire.core.node.DuplexNode;
 
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * A functional interface that determines whether a {@link Message} should be relayed.
@@ -12,7 +15,9 @@ import java.util.function.Predicate;
  *
  * <p>This interface is composable using logical operations such as {@code and},
  * {@code or}, and {@code negate}, enabling complex filtering logic to be built
- * from simple, reusable components.
+ * from simple, reusable components. Compositions keep their structure, so a filter
+ * built from many rules can be flattened with {@link #compile()} into a
+ * {@link CompiledPredicate} that evaluates cheap rules first and short-circuits.
  */
 @FunctionalInterface
 public interface RelayPredicate extends Predicate<Message> {
@@ -30,7 +35,7 @@ public interface RelayPredicate extends Predicate<Message> {
     /**
      * A predicate that only allows messages with non-blank content.
      */
-    RelayPredicate NOT_BLANK = message -> !message.rawMessage().isBlank();
+    RelayPredicate NOT_BLANK = named("not-blank", Cost.CHEAP, message -> !message.rawMessage().isBlank());
 
     /**
      * Tests whether the specified message should be relayed.
@@ -40,6 +45,26 @@ public interface RelayPredicate extends Predicate<Message> {
      */
     boolean test(Message message);
 
+    /**
+     * Returns the relative cost of evaluating this predicate.
+     *
+     * <p>{@link CompiledPredicate} uses the cost to evaluate cheap checks before expensive ones.
+     *
+     * @return the evaluation cost; {@link Cost#NORMAL} unless overridden
+     */
+    default Cost cost() {
+        return Cost.NORMAL;
+    }
+
+    /**
+     * Compiles this predicate into a flat, cost-ordered branch program.
+     *
+     * @return a {@link CompiledPredicate} equivalent to this predicate
+     */
+    default CompiledPredicate compile() {
+        return CompiledPredicate.compile(this, false);
+    }
+
     /**
      * Returns a composed predicate that performs a short-circuiting logical AND
      * of this predicate and another.
@@ -49,7 +74,7 @@ public interface RelayPredicate extends Predicate<Message> {
      * @throws NullPointerException if {@code other} is {@code null}
      */
     default RelayPredicate and(RelayPredicate other) {
-        return message -> this.test(message) && other.test(message);
+        return new CompositePredicate.And(this, other);
     }
 
     /**
@@ -61,7 +86,7 @@ public interface RelayPredicate extends Predicate<Message> {
      * @throws NullPointerException if {@code other} is {@code null}
      */
     default RelayPredicate or(RelayPredicate other) {
-        return message -> this.test(message) || other.test(message);
+        return new CompositePredicate.Or(this, other);
     }
 
     /**
@@ -71,6 +96,90 @@ public interface RelayPredicate extends Predicate<Message> {
      */
     @Override
     default RelayPredicate negate() {
-        return message -> !this.test(message);
+        return new CompositePredicate.Not(this);
+    }
+
+    /**
+     * Labels a predicate with a name and cost, used for ordering and statistics
+     * by {@link CompiledPredicate}.
+     *
+     * @param name      a short, human-readable rule name
+     * @param cost      the relative evaluation cost
+     * @param predicate the predicate to label
+     * @return a predicate behaving exactly like {@code predicate}
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    static RelayPredicate named(String name, Cost cost, RelayPredicate predicate) {
+        return new CompositePredicate.Rule(name, cost, predicate);
+    }
+
+    /**
+     * Returns a predicate that only allows messages whose raw content is at most {@code maxLength} characters.
+     *
+     * @param maxLength the maximum allowed length
+     * @return a {@link Cost#CHEAP} predicate
+     */
+    static RelayPredicate maxLength(int maxLength) {
+        return named("max-length(" + maxLength + ")", Cost.CHEAP,
+                message -> message.rawMessage().length() <= maxLength);
+    }
+
+    /**
+     * Returns a predicate that only allows messages originating from one of the given sources.
+     *
+     * @param sources the allowed {@link Message#source()} identifiers
+     * @return a {@link Cost#CHEAP} predicate
+     * @throws NullPointerException if {@code sources} is {@code null}
+     */
+    static RelayPredicate fromSource(String... sources) {
+        Set<String> allowed = Set.of(sources);
+        return named("from-source" + allowed, Cost.CHEAP, message -> allowed.contains(message.source()));
+    }
+
+    /**
+     * Returns a predicate that only allows messages whose raw content contains a match of the pattern.
+     *
+     * @param pattern the regular expression to search for
+     * @return a {@link Cost#EXPENSIVE} predicate
+     * @throws NullPointerException if {@code pattern} is {@code null}
+     */
+    static RelayPredicate matching(Pattern pattern) {
+        Objects.requireNonNull(pattern, "pattern must not be null");
+        return named("matching(" + pattern + ")", Cost.EXPENSIVE,
+                message -> pattern.matcher(message.rawMessage()).find());
+    }
+
+    /**
+     * The relative cost of evaluating a {@link RelayPredicate}.
+     */
+    enum Cost {
+
+        /**
+         * Constant-time checks such as blank, length or source comparisons.
+         */
+        CHEAP(1),
+
+        /**
+         * The default for predicates that do not declare a cost.
+         */
+        NORMAL(10),
+
+        /**
+         * Checks that scan the content, such as word lists or regular expressions.
+         */
+        EXPENSIVE(100);
+
+        private final int weight;
+
+        Cost(int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * Returns the numeric weight used to order predicates.
+         */
+        public int weight() {
+            return weight;
+        }
     }
 }
\ No newline at end of file
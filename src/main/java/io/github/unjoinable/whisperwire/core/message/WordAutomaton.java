@@ -0,0 +1,224 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compiled Aho-Corasick automaton over case-folded {@code char}s that reports whole-word matches.
+ *
+ * <p>The trie is stored in compressed sparse row form: the outgoing edges of state {@code s}
+ * occupy {@code labels[edgeStart[s] .. edgeStart[s + 1])}, sorted by label, with the matching
+ * target states in {@code targets}. Transitions are resolved with a binary search, and ASCII
+ * transitions out of the root are tabulated since nearly every scan step falls back to it.
+ *
+ * <p>Once compiled the automaton is immutable and safe to share between threads. Scanning does
+ * not allocate unless {@link #mask(String)} finds a match and has to build a new string.
+ */
+final class WordAutomaton {
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final int[] edgeStart;
+    private final char[] labels;
+    private final int[] targets;
+    private final int[] rootAscii;
+    private final int[] fail;
+    private final int[] termLength;
+    private final int[] output;
+    private final int[] nextOutput;
+
+    private WordAutomaton(int[] edgeStart, char[] labels, int[] targets, int[] fail,
+                          int[] termLength, int[] output, int[] nextOutput) {
+        this.edgeStart = edgeStart;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.termLength = termLength;
+        this.output = output;
+        this.nextOutput = nextOutput;
+
+        this.rootAscii = new int[128];
+        for (char c = 0; c < 128; c++) {
+            int target = edge(ROOT, c);
+            rootAscii[c] = target == NONE ? ROOT : target;
+        }
+    }
+
+    /**
+     * Compiles the given terms. Blank terms are ignored and surrounding whitespace is trimmed.
+     *
+     * @param terms the words or phrases to match
+     * @return a new automaton
+     */
+    static WordAutomaton compile(Collection<String> terms) {
+        // Trie construction: one map keyed by (state << 16 | label) instead of a map per state
+        Map<Long, Integer> trie = new HashMap<>();
+        int[] lengths = new int[16];
+        int states = 1;
+
+        for (String term : terms) {
+            String trimmed = term.strip();
+            if (trimmed.isEmpty()) continue;
+
+            int state = ROOT;
+            for (int i = 0; i < trimmed.length(); i++) {
+                long key = ((long) state << 16) | fold(trimmed.charAt(i));
+                Integer next = trie.get(key);
+                if (next == null) {
+                    next = states++;
+                    trie.put(key, next);
+                }
+                state = next;
+            }
+            if (state >= lengths.length) lengths = Arrays.copyOf(lengths, Math.max(state + 1, lengths.length * 2));
+            lengths[state] = trimmed.length();
+        }
+
+        long[] keys = new long[trie.size()];
+        int k = 0;
+        for (long key : trie.keySet()) keys[k++] = key;
+        Arrays.sort(keys);
+
+        int[] edgeStart = new int[states + 1];
+        char[] labels = new char[keys.length];
+        int[] targets = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int source = (int) (keys[i] >>> 16);
+            labels[i] = (char) keys[i];
+            targets[i] = trie.get(keys[i]);
+            edgeStart[source + 1]++;
+        }
+        for (int s = 0; s < states; s++) {
+            edgeStart[s + 1] += edgeStart[s];
+        }
+
+        int[] termLength = Arrays.copyOf(lengths, states);
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        int[] nextOutput = new int[states];
+        WordAutomaton automaton = new WordAutomaton(edgeStart, labels, targets, fail, termLength, output, nextOutput);
+
+        // Failure and output links are filled in place, breadth-first so that every
+        // state's failure target is finished before its children
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = ROOT;
+        while (head < tail) {
+            int state = queue[head++];
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = targets[e];
+                int fallback = ROOT;
+                if (state != ROOT) {
+                    int f = fail[state];
+                    int next;
+                    while ((next = automaton.edge(f, labels[e])) == NONE && f != ROOT) {
+                        f = fail[f];
+                    }
+                    fallback = next == NONE ? ROOT : next;
+                }
+                fail[child] = fallback;
+                nextOutput[child] = output[fallback];
+                output[child] = termLength[child] > 0 ? child : output[fallback];
+                queue[tail++] = child;
+            }
+        }
+
+        return automaton;
+    }
+
+    /**
+     * Returns whether the text contains at least one whole-word match.
+     */
+    boolean matches(CharSequence text) {
+        int length = text.length();
+        int state = ROOT;
+
+        for (int i = 0; i < length; i++) {
+            state = step(state, fold(text.charAt(i)));
+            if (output[state] == ROOT || !isBoundaryAfter(text, i)) continue;
+
+            for (int s = output[state]; s != ROOT; s = nextOutput[s]) {
+                if (isBoundaryBefore(text, i + 1 - termLength[s])) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces every character of every whole-word match with {@code '*'}.
+     *
+     * @return the masked text, or the same instance if nothing matched
+     */
+    String mask(String text) {
+        int length = text.length();
+        int state = ROOT;
+        char @Nullable [] masked = null;
+
+        for (int i = 0; i < length; i++) {
+            state = step(state, fold(text.charAt(i)));
+            if (output[state] == ROOT || !isBoundaryAfter(text, i)) continue;
+
+            for (int s = output[state]; s != ROOT; s = nextOutput[s]) {
+                int start = i + 1 - termLength[s];
+                if (!isBoundaryBefore(text, start)) continue;
+
+                if (masked == null) masked = text.toCharArray();
+                Arrays.fill(masked, start, i + 1, '*');
+            }
+        }
+        return masked == null ? text : new String(masked);
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            if (state == ROOT) {
+                if (c < 128) return rootAscii[c];
+                int target = edge(ROOT, c);
+                return target == NONE ? ROOT : target;
+            }
+
+            int target = edge(state, c);
+            if (target != NONE) return target;
+            state = fail[state];
+        }
+    }
+
+    private int edge(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean isBoundaryBefore(CharSequence text, int start) {
+        return start == 0 || !isWordChar(text.charAt(start - 1));
+    }
+
+    private static boolean isBoundaryAfter(CharSequence text, int end) {
+        return end + 1 == text.length() || !isWordChar(text.charAt(end + 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import jdk.jfr.Recording;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Enables WhisperWire's JFR events in a {@link Recording}.
+ *
+ * <p>Each event only costs a disabled-check while no recording has it enabled. Thresholds
+ * decide which events are committed: only relays, predicate evaluations, sends and REST calls
+ * slower than the threshold are written. The same can be configured without code through a
+ * {@code .jfc} settings file or {@code jfr configure}, e.g.
+ * {@code io.github.unjoinable.whisperwire.Send#threshold=50 ms}.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {}
+
+    /**
+     * Enables every WhisperWire event.
+     *
+     * @param recording     the recording to configure
+     * @param relayThreshold the minimum duration of committed relay and predicate events
+     * @param sendThreshold  the minimum duration of committed send and REST wait events
+     * @return {@code recording}
+     */
+    public static Recording enable(Recording recording, Duration relayThreshold, Duration sendThreshold) {
+        Objects.requireNonNull(recording, "recording must not be null");
+        Objects.requireNonNull(relayThreshold, "relayThreshold must not be null");
+        Objects.requireNonNull(sendThreshold, "sendThreshold must not be null");
+
+        recording.enable(RelayEvent.NAME).withThreshold(relayThreshold);
+        recording.enable(PredicateEvent.NAME).withThreshold(relayThreshold);
+        recording.enable(SendEvent.NAME).withThreshold(sendThreshold);
+        recording.enable(RestWaitEvent.NAME).withThreshold(sendThreshold);
+        return recording;
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds with logarithmic buckets.
+ *
+ * <p>Every power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so a value is
+ * located with a leading-zero count and a shift, and every reported percentile is within
+ * 12.5% of the true value. Values below {@value #SUB_BUCKETS} nanoseconds are counted exactly.
+ * The whole {@code long} range fits in {@value #BUCKETS} buckets, so memory is fixed and
+ * recording never allocates.
+ *
+ * <p>Recording is a single atomic increment plus a {@link LongAdder} update, and is safe from
+ * any number of threads. Snapshots read the buckets without stopping writers, so a snapshot
+ * taken during recording may be off by the values recorded while it was being taken.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos the latency in nanoseconds; negative values are recorded as {@code 0}
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        total.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns a summary of the latencies recorded so far.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) return Snapshot.EMPTY;
+
+        long maximum = max.get();
+        return new Snapshot(
+                count,
+                (double) total.sum() / count,
+                percentile(counts, count, 0.50, maximum),
+                percentile(counts, count, 0.99, maximum),
+                percentile(counts, count, 0.999, maximum),
+                maximum);
+    }
+
+    /**
+     * Clears all recorded latencies. Values recorded concurrently may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * Returns the largest value that falls into the given bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        int shift = exponent - SUB_BITS;
+        long lower = mantissa << shift;
+        return lower + ((1L << shift) - 1);
+    }
+
+    private static long percentile(long[] counts, long count, double quantile, long maximum) {
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBoundOf(i), maximum);
+        }
+        return maximum;
+    }
+
+    /**
+     * A point-in-time summary of a {@link LatencyHistogram}. All latencies are in nanoseconds.
+     *
+     * @param count the number of recorded latencies
+     * @param mean  the mean latency
+     * @param p50   the median latency
+     * @param p99   the 99th percentile latency
+     * @param p999  the 99.9th percentile latency
+     * @param max   the largest recorded latency
+     */
+    public record Snapshot(long count, double mean, long p50, long p99, long p999, long max) {
+
+        /**
+         * The snapshot of a histogram with nothing recorded.
+         */
+        public static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+    }
+}
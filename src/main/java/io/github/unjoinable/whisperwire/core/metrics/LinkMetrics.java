@@ -0,0 +1,50 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one direction of a link.
+ */
+public final class LinkMetrics {
+    private final LongAdder carried = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+
+    LinkMetrics() {}
+
+    /**
+     * Records a message the link's predicate let through.
+     */
+    public void recordCarried() {
+        carried.increment();
+    }
+
+    /**
+     * Records a message the link's predicate blocked.
+     */
+    public void recordBlocked() {
+        blocked.increment();
+    }
+
+    /**
+     * Returns the current values.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(carried.sum(), blocked.sum());
+    }
+
+    /**
+     * Resets both counters.
+     */
+    public void reset() {
+        carried.reset();
+        blocked.reset();
+    }
+
+    /**
+     * A point-in-time view of a link's metrics.
+     *
+     * @param carried the number of messages handed to the target's queue
+     * @param blocked the number of messages the link's predicate rejected
+     */
+    public record Snapshot(long carried, long blocked) {}
+}
@@ -0,0 +1,104 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies for one node.
+ *
+ * <p>The stages are recorded by different components: {@code ingest} and {@code filter} by
+ * {@link io.github.unjoinable.whisperwire.core.node.LinkManager} for messages the node is the
+ * source of, {@code send} by the node's
+ * {@link io.github.unjoinable.whisperwire.core.node.DeliveryQueue}, and {@code format} by
+ * nodes that render messages themselves.
+ */
+public final class NodeMetrics {
+    private final LongAdder ingested = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram filterLatency = new LatencyHistogram();
+    private final LatencyHistogram formatLatency = new LatencyHistogram();
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+
+    NodeMetrics() {}
+
+    /**
+     * Records a message relayed from this node.
+     */
+    public void recordIngest() {
+        ingested.increment();
+    }
+
+    /**
+     * Records how long the global filter stage took for a message from this node.
+     *
+     * @param nanos the time spent, in nanoseconds
+     * @param passed whether the message passed the filter
+     */
+    public void recordFilter(long nanos, boolean passed) {
+        filterLatency.record(nanos);
+        if (!passed) filtered.increment();
+    }
+
+    /**
+     * Records how long rendering a message for this node took.
+     *
+     * @param nanos the time spent, in nanoseconds
+     */
+    public void recordFormat(long nanos) {
+        formatLatency.record(nanos);
+    }
+
+    /**
+     * Records a completed send to this node.
+     *
+     * @param nanos   the time from calling {@code sendMessage} until its future completed
+     * @param success whether the send succeeded
+     */
+    public void recordSend(long nanos, boolean success) {
+        sendLatency.record(nanos);
+        (success ? sent : failed).increment();
+    }
+
+    /**
+     * Returns the current values.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(
+                ingested.sum(), filtered.sum(), sent.sum(), failed.sum(),
+                filterLatency.snapshot(), formatLatency.snapshot(), sendLatency.snapshot());
+    }
+
+    /**
+     * Resets every counter and histogram.
+     */
+    public void reset() {
+        ingested.reset();
+        filtered.reset();
+        sent.reset();
+        failed.reset();
+        filterLatency.reset();
+        formatLatency.reset();
+        sendLatency.reset();
+    }
+
+    /**
+     * A point-in-time view of a node's metrics.
+     *
+     * @param ingested the number of messages relayed from the node
+     * @param filtered the number of those dropped as duplicates or by the global filter
+     * @param sent     the number of messages successfully sent to the node
+     * @param failed   the number of sends to the node that failed
+     * @param filter   the latency of the global filter stage
+     * @param format   the latency of rendering messages for the node
+     * @param send     the latency of sends to the node
+     */
+    public record Snapshot(
+            long ingested,
+            long filtered,
+            long sent,
+            long failed,
+            LatencyHistogram.Snapshot filter,
+            LatencyHistogram.Snapshot format,
+            LatencyHistogram.Snapshot send) {}
+}
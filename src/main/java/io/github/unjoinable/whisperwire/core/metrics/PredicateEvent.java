@@ -0,0 +1,41 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JFR event for one evaluation of a relay predicate, either the global filter or a link's own.
+ */
+@Name(PredicateEvent.NAME)
+@Label("Predicate Evaluation")
+@Category({"WhisperWire", "Relay"})
+@Description("Evaluation of the global filter or a link predicate for one message")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class PredicateEvent extends Event {
+
+    /**
+     * The event name, used to configure it in a recording.
+     */
+    public static final String NAME = "io.github.unjoinable.whisperwire.Predicate";
+
+    @Label("Source")
+    public @Nullable String source;
+
+    @Label("Target")
+    @Description("The link's other node, or empty for the global filter")
+    public @Nullable String target;
+
+    @Label("Message Length")
+    @Description("Length of the message text in characters")
+    public int messageLength;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
@@ -0,0 +1,46 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JFR event for one call to {@code LinkManager.relay}: filtering, transformation and fan-out
+ * to the destination queues, but not the sends themselves, which are {@link SendEvent}s.
+ */
+@Name(RelayEvent.NAME)
+@Label("Relay")
+@Category({"WhisperWire", "Relay"})
+@Description("Filtering and fan-out of one message to the linked nodes' queues")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class RelayEvent extends Event {
+
+    /**
+     * The event name, used to configure it in a recording.
+     */
+    public static final String NAME = "io.github.unjoinable.whisperwire.Relay";
+
+    @Label("Source")
+    public @Nullable String source;
+
+    @Label("Message Length")
+    @Description("Length of the message text in characters")
+    public int messageLength;
+
+    @Label("Links")
+    public int links;
+
+    @Label("Queued")
+    @Description("Number of destination queues the message was offered to")
+    public int queued;
+
+    @Label("Outcome")
+    @Description("relayed, unlinked, duplicate or filtered")
+    public @Nullable String outcome;
+}
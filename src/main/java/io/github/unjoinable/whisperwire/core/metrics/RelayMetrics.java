@@ -0,0 +1,154 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of per-node and per-link relay metrics.
+ *
+ * <p>Metrics are created on first use and live as long as the registry. Counters are striped
+ * {@link java.util.concurrent.atomic.LongAdder}s and latencies go into {@link LatencyHistogram}s,
+ * so recording never blocks and costs a few nanoseconds; components look up their
+ * {@link NodeMetrics} once and keep it. Link metrics are directed: {@code a -> b} counts
+ * messages relayed from {@code a} towards {@code b}.
+ *
+ * <p>{@link #snapshot()} returns an immutable copy of all values, and {@link #reset()} clears
+ * them. The registry can also be exported over JMX with {@link #registerMBean(String)}.
+ */
+public final class RelayMetrics implements RelayMetricsMXBean {
+    private static final Logger log = LoggerFactory.getLogger(RelayMetrics.class);
+    private static final String DOMAIN = "io.github.unjoinable.whisperwire";
+
+    private final Map<String, NodeMetrics> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LinkMetrics>> links = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics of a node, creating them if needed.
+     *
+     * @param nodeId the node ID
+     * @return the node's metrics
+     */
+    public NodeMetrics node(String nodeId) {
+        NodeMetrics metrics = nodes.get(nodeId);
+        if (metrics != null) return metrics;
+
+        Objects.requireNonNull(nodeId, "nodeId must not be null");
+        return nodes.computeIfAbsent(nodeId, _ -> new NodeMetrics());
+    }
+
+    /**
+     * Returns the metrics of messages relayed from one node towards another, creating them if needed.
+     *
+     * @param sourceId the ID of the node messages are relayed from
+     * @param targetId the ID of the node messages are relayed to
+     * @return the link direction's metrics
+     */
+    public LinkMetrics link(String sourceId, String targetId) {
+        Map<String, LinkMetrics> targets = links.get(sourceId);
+        if (targets != null) {
+            LinkMetrics metrics = targets.get(targetId);
+            if (metrics != null) return metrics;
+        }
+
+        Objects.requireNonNull(sourceId, "sourceId must not be null");
+        Objects.requireNonNull(targetId, "targetId must not be null");
+        return links.computeIfAbsent(sourceId, _ -> new ConcurrentHashMap<>())
+                .computeIfAbsent(targetId, _ -> new LinkMetrics());
+    }
+
+    /**
+     * Returns the current values of all metrics.
+     */
+    public Snapshot snapshot() {
+        Map<String, NodeMetrics.Snapshot> nodeSnapshots = new TreeMap<>();
+        nodes.forEach((id, metrics) -> nodeSnapshots.put(id, metrics.snapshot()));
+
+        Map<String, LinkMetrics.Snapshot> linkSnapshots = new TreeMap<>();
+        links.forEach((source, targets) -> targets.forEach((target, metrics) ->
+                linkSnapshots.put(source + "->" + target, metrics.snapshot())));
+
+        return new Snapshot(Collections.unmodifiableMap(nodeSnapshots), Collections.unmodifiableMap(linkSnapshots));
+    }
+
+    /**
+     * Resets every counter and histogram. Metrics objects stay registered.
+     */
+    @Override
+    public void reset() {
+        nodes.values().forEach(NodeMetrics::reset);
+        links.values().forEach(targets -> targets.values().forEach(LinkMetrics::reset));
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Snapshot snapshot = snapshot();
+        Map<String, Long> counters = new TreeMap<>();
+        snapshot.nodes().forEach((id, node) -> {
+            String prefix = "node." + id + ".";
+            counters.put(prefix + "ingested", node.ingested());
+            counters.put(prefix + "filtered", node.filtered());
+            counters.put(prefix + "sent", node.sent());
+            counters.put(prefix + "failed", node.failed());
+        });
+        snapshot.links().forEach((key, link) -> {
+            counters.put("link." + key + ".carried", link.carried());
+            counters.put("link." + key + ".blocked", link.blocked());
+        });
+        return counters;
+    }
+
+    @Override
+    public Map<String, Double> getLatencies() {
+        Map<String, Double> latencies = new TreeMap<>();
+        snapshot().nodes().forEach((id, node) -> {
+            putLatency(latencies, "node." + id + ".filter", node.filter());
+            putLatency(latencies, "node." + id + ".format", node.format());
+            putLatency(latencies, "node." + id + ".send", node.send());
+        });
+        return latencies;
+    }
+
+    /**
+     * Registers this registry with the platform MBean server.
+     *
+     * @param name distinguishes this registry from others in the same JVM
+     * @return {@code true} if the MBean was registered, {@code false} if registration failed
+     */
+    public boolean registerMBean(String name) {
+        Objects.requireNonNull(name, "name must not be null");
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=RelayMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return true;
+        } catch (JMException e) {
+            log.warn("Failed to register relay metrics MBean '{}'", name, e);
+            return false;
+        }
+    }
+
+    private static void putLatency(Map<String, Double> latencies, String prefix, LatencyHistogram.Snapshot latency) {
+        latencies.put(prefix + ".count", (double) latency.count());
+        latencies.put(prefix + ".mean", latency.mean());
+        latencies.put(prefix + ".p50", (double) latency.p50());
+        latencies.put(prefix + ".p99", (double) latency.p99());
+        latencies.put(prefix + ".p999", (double) latency.p999());
+        latencies.put(prefix + ".max", (double) latency.max());
+    }
+
+    /**
+     * A point-in-time view of a {@link RelayMetrics} registry.
+     *
+     * @param nodes the metrics of every node, by node ID
+     * @param links the metrics of every link direction, keyed {@code source->target}
+     */
+    public record Snapshot(Map<String, NodeMetrics.Snapshot> nodes, Map<String, LinkMetrics.Snapshot> links) {}
+}
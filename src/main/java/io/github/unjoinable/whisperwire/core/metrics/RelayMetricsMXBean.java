@@ -0,0 +1,27 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link RelayMetrics}, registered through {@link RelayMetrics#registerMBean(String)}.
+ *
+ * <p>Values are flattened into maps keyed like {@code node.discord-123.sent} or
+ * {@code link.minestom-1->discord-123.blocked}; latencies are in nanoseconds.
+ */
+public interface RelayMetricsMXBean {
+
+    /**
+     * Returns every counter, keyed by metric name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the count, mean, p50, p99, p999 and max of every latency histogram, keyed by metric name.
+     */
+    Map<String, Double> getLatencies();
+
+    /**
+     * Resets every counter and histogram.
+     */
+    void reset();
+}
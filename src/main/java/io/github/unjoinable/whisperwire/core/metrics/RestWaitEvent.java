@@ -0,0 +1,55 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JFR event for one Discord REST call going through the rate-limit scheduler, from submission
+ * until it succeeds or fails.
+ */
+@Name(RestWaitEvent.NAME)
+@Label("Discord REST Wait")
+@Category({"WhisperWire", "Discord"})
+@Description("A Discord REST call from submission to completion, including rate-limit waits")
+@Threshold("20 ms")
+@StackTrace(false)
+public final class RestWaitEvent extends Event {
+
+    /**
+     * The event name, used to configure it in a recording.
+     */
+    public static final String NAME = "io.github.unjoinable.whisperwire.RestWait";
+
+    private static final EventType TYPE = EventType.getEventType(RestWaitEvent.class);
+
+    @Label("Route")
+    public @Nullable String route;
+
+    @Label("Priority")
+    public @Nullable String priority;
+
+    @Label("Queue Time")
+    @Description("How long the call waited for rate-limit tokens before being issued")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueTime;
+
+    @Label("Outcome")
+    @Description("completed, failed, or abandoned when the scheduler closed")
+    public @Nullable String outcome;
+
+    /**
+     * Returns whether any recording has this event enabled. Since the event outlives the
+     * submitting call, callers check this before creating one.
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+}
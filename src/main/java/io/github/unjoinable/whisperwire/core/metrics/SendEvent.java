@@ -0,0 +1,65 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * JFR event for one delivery to a node, from the {@code sendMessage} call until its future
+ * completes, which may be on another thread.
+ */
+@Name(SendEvent.NAME)
+@Label("Send")
+@Category({"WhisperWire", "Delivery"})
+@Description("Delivery of one message to a node, from dispatch until completion")
+@Threshold("20 ms")
+@StackTrace(false)
+public final class SendEvent extends Event {
+
+    /**
+     * The event name, used to configure it in a recording.
+     */
+    public static final String NAME = "io.github.unjoinable.whisperwire.Send";
+
+    private static final EventType TYPE = EventType.getEventType(SendEvent.class);
+
+    @Label("Node")
+    public @Nullable String node;
+
+    @Label("Source")
+    @Description("The node the message originated from")
+    public @Nullable String source;
+
+    @Label("Message Length")
+    @Description("Length of the message text in characters")
+    public int messageLength;
+
+    @Label("Queue Time")
+    @Description("How long the message waited in the delivery queue before dispatch")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueTime;
+
+    @Label("Dispatch Time")
+    @Description("How long the sendMessage call itself took before returning its future")
+    @Timespan(Timespan.NANOSECONDS)
+    public long dispatchTime;
+
+    @Label("Outcome")
+    @Description("delivered or failed")
+    public @Nullable String outcome;
+
+    /**
+     * Returns whether any recording has this event enabled. Since the event outlives the
+     * dispatching call, callers check this before creating one.
+     */
+    public static boolean enabled() {
+        return TYPE.isEnabled();
+    }
+}
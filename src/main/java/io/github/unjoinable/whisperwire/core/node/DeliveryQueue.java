@@ -0,0 +1,339 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.metrics.NodeMetrics;
+import io.github.unjoinable.whisperwire.core.metrics.SendEvent;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, single-consumer outbound queue in front of one destination {@link DuplexNode}.
+ *
+ * <p>Messages are handed to the target in FIFO order by a single drain loop. By default the next
+ * message is only sent once the future returned by the previous {@link DuplexNode#sendMessage(Message)}
+ * has completed, bounding in-flight sends per destination to one; nodes that keep order internally
+ * may raise that bound through {@link DuplexNode#maxInFlight()}. {@link QueuePolicy} bounds how
+ * many messages may wait behind the in-flight ones.
+ *
+ * <p>There is no dedicated consumer thread. The producer that finds the queue idle starts a
+ * drain on the configured {@link Executor}; when a send completes asynchronously, the thread
+ * that completed it hands the next drain back to the executor.
+ *
+ * <p>Sends slower than the configured threshold are reported as JFR {@link SendEvent}s.
+ *
+ * <p>Messages discarded by the overflow policy or by expiry complete their future normally,
+ * consistent with messages blocked by a {@link io.github.unjoinable.whisperwire.core.message.RelayPredicate},
+ * and are reported through {@link #dropped()} and {@link #expired()}.
+ */
+public final class DeliveryQueue {
+    private static final CompletableFuture<Void> DISCARDED = CompletableFuture.completedFuture(null);
+
+    private final DuplexNode target;
+    private final QueuePolicy policy;
+    private final Executor executor;
+    private final LongSupplier ticker;
+    private final long timeToLiveNanos;
+    private final int maxInFlight;
+    private final @Nullable NodeMetrics metrics;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Pending> queue;
+    private boolean draining;
+    private int inFlight;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Constructs a new {@code DeliveryQueue}.
+     *
+     * @param target   the node messages are delivered to
+     * @param policy   the capacity and overflow behavior
+     * @param executor the executor that runs the drain loop
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public DeliveryQueue(DuplexNode target, QueuePolicy policy, Executor executor) {
+        this(target, policy, executor, null);
+    }
+
+    /**
+     * Constructs a new {@code DeliveryQueue} that records send latencies and outcomes.
+     *
+     * @param target   the node messages are delivered to
+     * @param policy   the capacity and overflow behavior
+     * @param executor the executor that runs the drain loop
+     * @param metrics  the target's metrics, or {@code null} to record nothing
+     * @throws NullPointerException if {@code target}, {@code policy} or {@code executor} is {@code null}
+     */
+    public DeliveryQueue(DuplexNode target, QueuePolicy policy, Executor executor, @Nullable NodeMetrics metrics) {
+        this(target, policy, executor, metrics, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new {@code DeliveryQueue} whose messages expire by the given source of
+     * monotonic nanoseconds, so tests can substitute a manual clock.
+     */
+    DeliveryQueue(DuplexNode target, QueuePolicy policy, Executor executor, @Nullable NodeMetrics metrics,
+                  LongSupplier ticker) {
+        this.metrics = metrics;
+        this.target = Objects.requireNonNull(target, "target must not be null");
+        this.policy = Objects.requireNonNull(policy, "policy must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.ticker = Objects.requireNonNull(ticker, "ticker must not be null");
+        this.timeToLiveNanos = policy.timeToLive().toNanos();
+        this.maxInFlight = Math.max(1, target.maxInFlight());
+        this.queue = new ArrayDeque<>(Math.min(policy.capacity(), 64));
+    }
+
+    /**
+     * Enqueues a message for delivery to the target node.
+     *
+     * <p>Depending on the {@link OverflowPolicy}, offering to a full queue evicts the oldest
+     * message, discards this one, or blocks the calling thread until space is available.
+     *
+     * @param message the message to deliver
+     * @return a {@link CompletableFuture} that completes when the message has been delivered,
+     *         dropped, or has expired; completes exceptionally if the target fails to send it
+     * @throws NullPointerException if {@code message} is {@code null}
+     */
+    public CompletableFuture<Void> offer(Message message) {
+        Objects.requireNonNull(message, "message must not be null");
+
+        Pending pending = new Pending(message, ticker.getAsLong(), new CompletableFuture<>());
+        Pending evicted = null;
+        boolean startDrain = false;
+
+        lock.lock();
+        try {
+            while (queue.size() >= policy.capacity()) {
+                if (policy.expires() && queue.peekFirst() != null && isExpired(queue.peekFirst(), pending.enqueuedAt)) {
+                    evicted = queue.pollFirst();
+                    expired.increment();
+                    break;
+                }
+
+                switch (policy.overflow()) {
+                    case DROP_OLDEST -> {
+                        evicted = queue.pollFirst();
+                        dropped.increment();
+                    }
+                    case DROP_NEWEST -> {
+                        dropped.increment();
+                        return DISCARDED;
+                    }
+                    case BLOCK -> {
+                        try {
+                            notFull.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            dropped.increment();
+                            return DISCARDED;
+                        }
+                    }
+                }
+                if (evicted != null) break;
+            }
+
+            queue.addLast(pending);
+            if (!draining && inFlight < maxInFlight) {
+                draining = true;
+                startDrain = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (evicted != null) evicted.future.complete(null);
+        if (startDrain) executor.execute(this::drain);
+
+        return pending.future;
+    }
+
+    /**
+     * Sends queued messages until the queue is empty or the in-flight limit is reached.
+     */
+    private void drain() {
+        while (true) {
+            Pending next;
+
+            lock.lock();
+            try {
+                next = inFlight < maxInFlight ? queue.pollFirst() : null;
+                if (next == null) {
+                    draining = false;
+                    return;
+                }
+                inFlight++;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            if (policy.expires() && isExpired(next, ticker.getAsLong())) {
+                expired.increment();
+                release();
+                next.future.complete(null);
+                continue;
+            }
+
+            @Nullable SendEvent event = SendEvent.enabled() ? new SendEvent() : null;
+            if (event != null) event.begin();
+            long start = metrics != null || event != null ? System.nanoTime() : 0;
+
+            CompletableFuture<Void> sent;
+            try {
+                sent = target.sendMessage(next.message);
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            if (event != null) event.dispatchTime = System.nanoTime() - start;
+
+            if (!sent.isDone()) {
+                sent.whenComplete((_, error) -> {
+                    record(next, start, event, error);
+                    settle(next, error);
+                    if (release()) executor.execute(this::drain);
+                });
+                continue;
+            }
+
+            release();
+            @Nullable Throwable error = failureOf(sent);
+            record(next, start, event, error);
+            settle(next, error);
+        }
+    }
+
+    /**
+     * Frees an in-flight slot.
+     *
+     * @return {@code true} if the caller must start a new drain
+     */
+    private boolean release() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (draining || queue.isEmpty()) return false;
+
+            draining = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(Pending pending, long start, @Nullable SendEvent event, @Nullable Throwable error) {
+        if (metrics != null) metrics.recordSend(System.nanoTime() - start, error == null);
+        if (event == null) return;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.node = target.id();
+            event.source = pending.message.source();
+            event.messageLength = pending.message.rawMessage().length();
+            event.queueTime = start - pending.enqueuedAt;
+            event.outcome = error == null ? "delivered" : "failed";
+            event.commit();
+        }
+    }
+
+    private void settle(Pending pending, @Nullable Throwable error) {
+        if (error == null) {
+            delivered.increment();
+            pending.future.complete(null);
+        } else {
+            failed.increment();
+            pending.future.completeExceptionally(error);
+        }
+    }
+
+    private static @Nullable Throwable failureOf(CompletableFuture<Void> completed) {
+        try {
+            completed.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        } catch (CancellationException e) {
+            return e;
+        }
+    }
+
+    private boolean isExpired(Pending pending, long now) {
+        return now - pending.enqueuedAt > timeToLiveNanos;
+    }
+
+    /**
+     * Returns the node this queue delivers to.
+     */
+    public DuplexNode target() {
+        return target;
+    }
+
+    /**
+     * Returns the policy this queue was created with.
+     */
+    public QueuePolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of messages currently waiting, excluding the one in flight.
+     */
+    public int depth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of messages successfully delivered to the target.
+     */
+    public long delivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * Returns the number of messages the target failed to send.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns the number of messages discarded by the {@link OverflowPolicy}.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of messages discarded because they exceeded the time-to-live.
+     */
+    public long expired() {
+        return expired.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryQueue[target=%s, depth=%d, dropped=%d, expired=%d]"
+                .formatted(target.id(), depth(), dropped(), expired());
+    }
+
+    private record Pending(Message message, long enqueuedAt, CompletableFuture<Void> future) {}
+}
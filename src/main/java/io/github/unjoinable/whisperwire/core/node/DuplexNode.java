@@ -26,6 +26,20 @@ public interface DuplexNode {
      */
     CompletableFuture<Void> sendMessage(Message message);
 
+    /**
+     * Returns how many sends to this node may be outstanding at the same time.
+     *
+     * <p>Callers that deliver in order, such as {@link DeliveryQueue}, wait for a send to
+     * complete before starting the next one unless the node reports a higher limit here.
+     * Nodes that preserve the order of {@link #sendMessage(Message)} calls internally, for
+     * example by batching, can return a larger value to have sends pipelined.
+     *
+     * @return the maximum number of concurrent sends; {@code 1} by default
+     */
+    default int maxInFlight() {
+        return 1;
+    }
+
     /**
      * Returns the unique identifier for this node.
      *
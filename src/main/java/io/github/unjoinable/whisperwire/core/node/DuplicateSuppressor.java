@@ -0,0 +1,130 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recognizes messages that were already relayed within a short time window.
+ *
+ * <p>Each message is reduced to a 64-bit fingerprint of its {@link Message#source()},
+ * {@link Message#username()} and {@link Message#rawMessage()}. Fingerprints are kept in a
+ * fixed-size open-addressing table of two {@code long} arrays, together with the message
+ * timestamp in epoch milliseconds; no objects are allocated per entry. A message is a duplicate
+ * if an entry with the same fingerprint is stamped within {@code window} of it. Entries older
+ * than the window are treated as free slots, and when a probe sequence is full the oldest
+ * entry in it is overwritten, so memory stays constant however much traffic passes through.
+ *
+ * <p>Comparing timestamps against the window, rather than hashing a timestamp bucket into the
+ * fingerprint, also catches double-sends that straddle a bucket boundary.
+ */
+public final class DuplicateSuppressor {
+    private static final int MAX_PROBE = 8;
+    private static final long EMPTY = 0L;
+
+    private final long[] fingerprints;
+    private final long[] stamps;
+    private final int mask;
+    private final long windowMillis;
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Constructs a new {@code DuplicateSuppressor}.
+     *
+     * @param window   how long a message is remembered; must be positive
+     * @param capacity the number of table slots, rounded up to a power of two; must be positive
+     * @throws IllegalArgumentException if {@code window} or {@code capacity} is not positive
+     * @throws NullPointerException     if {@code window} is {@code null}
+     */
+    public DuplicateSuppressor(Duration window, int capacity) {
+        Objects.requireNonNull(window, "window must not be null");
+        if (window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("window must be positive: " + window);
+        }
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.fingerprints = new long[size];
+        this.stamps = new long[size];
+        this.mask = size - 1;
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Checks whether the message duplicates one seen within the window, and remembers it if not.
+     *
+     * @param message the message to check
+     * @return {@code true} if the message is a duplicate and should not be relayed again
+     */
+    public boolean isDuplicate(Message message) {
+        long fingerprint = fingerprint(message);
+        long stamp = message.timestamp().toEpochMilli();
+        int home = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+
+        synchronized (this) {
+            int free = -1;
+            int oldest = home;
+
+            for (int probe = 0; probe < MAX_PROBE; probe++) {
+                int slot = (home + probe) & mask;
+                long existing = fingerprints[slot];
+                boolean live = existing != EMPTY && Math.abs(stamp - stamps[slot]) <= windowMillis;
+
+                if (live && existing == fingerprint) {
+                    suppressed.increment();
+                    return true;
+                }
+                if (!live && free < 0) {
+                    free = slot;
+                }
+                if (stamps[slot] < stamps[oldest]) {
+                    oldest = slot;
+                }
+            }
+
+            int slot = free >= 0 ? free : oldest;
+            fingerprints[slot] = fingerprint;
+            stamps[slot] = stamp;
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of messages recognized as duplicates.
+     */
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Returns the number of slots in the table.
+     */
+    public int capacity() {
+        return fingerprints.length;
+    }
+
+    private static long fingerprint(Message message) {
+        long hash = 0x9E3779B97F4A7C15L;
+        hash = mix(hash ^ message.source().hashCode());
+        hash = mix(hash ^ message.username().hashCode());
+        hash = mix(hash ^ message.rawMessage().hashCode());
+        hash = mix(hash ^ message.rawMessage().length());
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,20 +1,110 @@
 package io.github.unjoinable.whisperwire.core.node;
 
+import io.github.unjoinable.whisperwire.core.journal.MessageJournal;
 import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.message.MessageTransformer;
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate;
+import io.github.unjoinable.whisperwire.core.metrics.LinkMetrics;
+import io.github.unjoinable.whisperwire.core.metrics.NodeMetrics;
+import io.github.unjoinable.whisperwire.core.metrics.PredicateEvent;
+import io.github.unjoinable.whisperwire.core.metrics.RelayEvent;
+import io.github.unjoinable.whisperwire.core.metrics.RelayMetrics;
 
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Manages active {@link DuplexLink}s between {@link DuplexNode}s and facilitates message relaying.
+ *
+ * <p>Links are indexed by node ID in an immutable {@link LinkTopology} snapshot. Writers
+ * ({@link #link}, {@link #unlink}, {@link #reset}) serialize on a private lock and publish a
+ * fresh copy; readers ({@link #relay}, {@link #isLinked}, {@link #activeLinks}) only perform
+ * a volatile read and never block. Lookups cost O(degree) of the node involved rather than
+ * O(total links).
+ *
+ * <p>Relaying runs in several stages. An optional {@link DuplicateSuppressor} first discards
+ * messages already relayed within its time window. A global {@link RelayPredicate} and
+ * {@link MessageTransformer}, configured through the {@link Builder}, are applied once per
+ * message before fan-out, so shared expensive checks are not repeated for every link.
+ * Each {@link DuplexLink}'s own predicate is then evaluated once for that link. A message is
+ * never relayed back to the node named by its {@link Message#source()}, so messages that loop
+ * through several links do not return to their origin.
+ *
+ * <p>If a {@link MessageJournal} is configured, every message that passes the global stages is
+ * appended to it before fan-out. Appending only enqueues the message for the journal's writer
+ * thread, so relaying never waits for the disk. Once the journal is closed, messages are still
+ * relayed and only counted in its {@link MessageJournal#rejected()}.
+ *
+ * <p>Every linked node receives relayed messages through its own bounded {@link DeliveryQueue},
+ * which keeps deliveries to that node in FIFO order with at most
+ * {@link DuplexNode#maxInFlight()} sends in flight. The queue capacity and overflow behavior
+ * are configured through {@link QueuePolicy}.
+ *
+ * <p>Each queue drains on an {@link Executor}, by default a new virtual thread per drain, so
+ * {@link #relay} only enqueues and returns, and a node that blocks in
+ * {@link DuplexNode#sendMessage(Message)} stalls neither the caller nor any other node. Since
+ * a node with the default in-flight limit of one is drained by one task at a time, this amounts
+ * to one virtual thread per in-flight send, and blocking transports can be written as plain
+ * blocking code. The executor can be replaced globally and per node through the {@link Builder}.
+ *
+ * <p>If a {@link RelayMetrics} registry is configured, every stage above is recorded in it;
+ * otherwise relaying takes no timestamps and touches no counters. Slow relays and predicate
+ * evaluations are also reported as JFR {@link RelayEvent}s and {@link PredicateEvent}s.
  */
 public class LinkManager {
-    private final Set<DuplexLink> links = ConcurrentHashMap.newKeySet();
+    private static final CompletableFuture<Void> FILTERED = CompletableFuture.completedFuture(null);
+    private static final Executor VIRTUAL_THREADS =
+            task -> Thread.ofVirtual().name("whisperwire-delivery").start(task);
+
+    private final Object writeLock = new Object();
+    private volatile LinkTopology topology = LinkTopology.EMPTY;
+
+    private final Map<String, DeliveryQueue> queues = new ConcurrentHashMap<>();
+    private final QueuePolicy queuePolicy;
+    private final Executor deliveryExecutor;
+    private final Map<String, Executor> nodeExecutors;
+    private final RelayPredicate filter;
+    private final MessageTransformer transformer;
+    private final @Nullable DuplicateSuppressor duplicates;
+    private final @Nullable RelayMetrics metrics;
+    private final @Nullable MessageJournal journal;
 
     /**
-     * Establishes a bidirectional link between two nodes.
+     * Constructs a {@code LinkManager} using {@link QueuePolicy#DEFAULT}.
+     */
+    public LinkManager() {
+        this(builder());
+    }
+
+    private LinkManager(Builder builder) {
+        this.queuePolicy = builder.queuePolicy;
+        this.deliveryExecutor = builder.executor;
+        this.nodeExecutors = Map.copyOf(builder.nodeExecutors);
+        this.filter = builder.filter == RelayPredicate.ALLOW_ALL ? RelayPredicate.ALLOW_ALL : builder.filter.compile();
+        this.transformer = builder.transformer;
+        this.duplicates = builder.duplicates;
+        this.metrics = builder.metrics;
+        this.journal = builder.journal;
+    }
+
+    /**
+     * Creates a new builder for {@link LinkManager}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Establishes a bidirectional link between two nodes that relays every message.
      *
      * @param a the first node
      * @param b the second node
@@ -22,12 +112,35 @@ public class LinkManager {
      * @throws NullPointerException if either node is {@code null}
      */
     public boolean link(DuplexNode a, DuplexNode b) {
+        return link(a, b, RelayPredicate.ALLOW_ALL);
+    }
+
+    /**
+     * Establishes a bidirectional link between two nodes that only relays messages
+     * accepted by the given predicate.
+     *
+     * @param a         the first node
+     * @param b         the second node
+     * @param predicate the per-link filter, evaluated once per message relayed across this link
+     * @return {@code true} if a new link was established; {@code false} if already linked or invalid
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public boolean link(DuplexNode a, DuplexNode b, RelayPredicate predicate) {
         Objects.requireNonNull(a, "node a must not be null");
         Objects.requireNonNull(b, "node b must not be null");
+        Objects.requireNonNull(predicate, "predicate must not be null");
 
-        if (a.id().equals(b.id()) || isLinked(a, b)) return false;
+        if (a.id().equals(b.id())) return false;
 
-        return links.add(new DuplexLink(a, b));
+        synchronized (writeLock) {
+            if (topology.find(a, b) != null) return false;
+
+            // Queues exist before the link is published, so relay never has to create one
+            queueFor(a);
+            queueFor(b);
+            topology = topology.with(new DuplexLink(a, b, predicate));
+            return true;
+        }
     }
 
     /**
@@ -42,7 +155,15 @@ public class LinkManager {
         Objects.requireNonNull(a, "node a must not be null");
         Objects.requireNonNull(b, "node b must not be null");
 
-        return links.removeIf(link -> link.connects(a, b));
+        synchronized (writeLock) {
+            DuplexLink link = topology.find(a, b);
+            if (link == null) return false;
+
+            topology = topology.without(link);
+            releaseQueueIfUnlinked(a);
+            releaseQueueIfUnlinked(b);
+            return true;
+        }
     }
 
     /**
@@ -57,14 +178,18 @@ public class LinkManager {
         Objects.requireNonNull(a, "node a must not be null");
         Objects.requireNonNull(b, "node b must not be null");
 
-        return links.stream().anyMatch(link -> link.connects(a, b));
+        return topology.find(a, b) != null;
     }
 
     /**
      * Broadcasts a message from the given source to all linked nodes.
      *
-     * <p>Returns a {@link CompletableFuture} that completes when all send operations
-     * to linked nodes have completed.
+     * <p>The message must first not be a recent duplicate and pass the global filter, after
+     * which the global transformer is applied. It is then offered to the {@link DeliveryQueue}
+     * of every linked node whose {@link DuplexLink#predicate()} accepts it, except the node the
+     * message originated from. Returns a
+     * {@link CompletableFuture} that completes when all of those deliveries have completed,
+     * been dropped by the {@link QueuePolicy}, or expired.
      *
      * @param source  the node sending the message
      * @param message the message to relay
@@ -75,11 +200,59 @@ public class LinkManager {
         Objects.requireNonNull(source, "source node must not be null");
         Objects.requireNonNull(message, "message must not be null");
 
-        var futures = links.stream()
-                .filter(link -> link.contains(source))
-                .map(link -> link.oppositeOf(source).sendMessage(message))
-                .toArray(CompletableFuture[]::new);
+        RelayEvent event = new RelayEvent();
+        event.begin();
+
+        List<DuplexLink> links = topology.linksOf(source.id());
+        @Nullable NodeMetrics sourceMetrics = metrics != null ? metrics.node(source.id()) : null;
+        if (sourceMetrics != null) sourceMetrics.recordIngest();
+        if (links.isEmpty()) {
+            commit(event, source, message, 0, 0, "unlinked");
+            return FILTERED;
+        }
+
+        long start = sourceMetrics != null ? System.nanoTime() : 0;
+        boolean duplicate = duplicates != null && duplicates.isDuplicate(message);
+        if (duplicate || !test(filter, source.id(), "", message)) {
+            if (sourceMetrics != null) sourceMetrics.recordFilter(System.nanoTime() - start, false);
+            commit(event, source, message, links.size(), 0, duplicate ? "duplicate" : "filtered");
+            return FILTERED;
+        }
 
+        if (sourceMetrics != null) sourceMetrics.recordFilter(System.nanoTime() - start, true);
+        Message outgoing = transformer.transform(message);
+        if (journal != null) journal.append(outgoing);
+
+        int queued = 0;
+        var futures = new CompletableFuture<?>[links.size()];
+        for (int i = 0; i < futures.length; i++) {
+            DuplexLink link = links.get(i);
+            DuplexNode target = link.oppositeOf(source);
+            if (target.id().equals(outgoing.source())) {
+                futures[i] = FILTERED;
+                continue;
+            }
+
+            boolean accepted = test(link.predicate(), source.id(), target.id(), outgoing);
+            if (metrics != null) {
+                LinkMetrics linkMetrics = metrics.link(source.id(), target.id());
+                if (accepted) {
+                    linkMetrics.recordCarried();
+                } else {
+                    linkMetrics.recordBlocked();
+                }
+            }
+            // Null if the target was unlinked since the topology was read
+            DeliveryQueue queue = accepted ? queues.get(target.id()) : null;
+            if (queue != null) {
+                futures[i] = queue.offer(outgoing);
+                queued++;
+            } else {
+                futures[i] = FILTERED;
+            }
+        }
+
+        commit(event, source, message, links.size(), queued, "relayed");
         return CompletableFuture.allOf(futures);
     }
 
@@ -89,13 +262,172 @@ public class LinkManager {
      * @return an immutable view of all current links
      */
     public Set<DuplexLink> activeLinks() {
-        return Set.copyOf(links);
+        return topology.links();
+    }
+
+    /**
+     * Returns the delivery queue of the given node, if it is currently linked.
+     *
+     * @param node the destination node
+     * @return an {@link Optional} containing the node's {@link DeliveryQueue}, or empty if the node has no links
+     * @throws NullPointerException if {@code node} is {@code null}
+     */
+    public Optional<DeliveryQueue> queueOf(DuplexNode node) {
+        Objects.requireNonNull(node, "node must not be null");
+        return Optional.ofNullable(queues.get(node.id()));
     }
 
     /**
      * Removes all links.
+     *
+     * <p>Messages already queued are still delivered.
      */
     public void reset() {
-        links.clear();
+        synchronized (writeLock) {
+            topology = LinkTopology.EMPTY;
+            queues.clear();
+        }
+    }
+
+    /**
+     * Evaluates a predicate, recording a {@link PredicateEvent} if it is slow enough.
+     */
+    private static boolean test(RelayPredicate predicate, String sourceId, String targetId, Message message) {
+        PredicateEvent event = new PredicateEvent();
+        event.begin();
+        boolean accepted = predicate.test(message);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.source = sourceId;
+            event.target = targetId;
+            event.messageLength = message.rawMessage().length();
+            event.accepted = accepted;
+            event.commit();
+        }
+        return accepted;
+    }
+
+    private static void commit(RelayEvent event, DuplexNode source, Message message, int links, int queued, String outcome) {
+        event.end();
+        if (!event.shouldCommit()) return;
+
+        event.source = source.id();
+        event.messageLength = message.rawMessage().length();
+        event.links = links;
+        event.queued = queued;
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    /**
+     * Creates the queue of a node that is being linked. Queues are only created and released
+     * under {@link #writeLock}; {@link #relay} only looks them up, so it cannot resurrect the
+     * queue of a node unlinked concurrently.
+     */
+    private void queueFor(DuplexNode node) {
+        Executor executor = nodeExecutors.getOrDefault(node.id(), deliveryExecutor);
+        queues.computeIfAbsent(node.id(), _ ->
+                new DeliveryQueue(node, queuePolicy, executor, metrics != null ? metrics.node(node.id()) : null));
+    }
+
+    private void releaseQueueIfUnlinked(DuplexNode node) {
+        if (topology.linksOf(node.id()).isEmpty()) {
+            queues.remove(node.id());
+        }
+    }
+
+    /**
+     * Builder for {@link LinkManager}.
+     */
+    public static class Builder {
+        private QueuePolicy queuePolicy = QueuePolicy.DEFAULT;
+        private RelayPredicate filter = RelayPredicate.ALLOW_ALL;
+        private MessageTransformer transformer = MessageTransformer.IDENTITY;
+        private @Nullable DuplicateSuppressor duplicates;
+        private @Nullable RelayMetrics metrics;
+        private @Nullable MessageJournal journal;
+        private Executor executor = VIRTUAL_THREADS;
+        private final Map<String, Executor> nodeExecutors = new HashMap<>();
+
+        /**
+         * Sets the policy used for every destination node's {@link DeliveryQueue}.
+         */
+        public Builder queuePolicy(QueuePolicy queuePolicy) {
+            this.queuePolicy = Objects.requireNonNull(queuePolicy, "queuePolicy must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the global filter, evaluated once per relayed message before fan-out.
+         *
+         * <p>The filter is {@linkplain RelayPredicate#compile() compiled} when the manager is built.
+         */
+        public Builder filter(RelayPredicate filter) {
+            this.filter = Objects.requireNonNull(filter, "filter must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the global transformer, applied once per relayed message after the global filter.
+         */
+        public Builder transformer(MessageTransformer transformer) {
+            this.transformer = Objects.requireNonNull(transformer, "transformer must not be null");
+            return this;
+        }
+
+        /**
+         * Enables duplicate suppression: messages already relayed within the suppressor's
+         * window are dropped before any filtering.
+         */
+        public Builder suppressDuplicates(DuplicateSuppressor duplicates) {
+            this.duplicates = Objects.requireNonNull(duplicates, "duplicates must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the executor every {@link DeliveryQueue} drains on, unless overridden for a node.
+         * Defaults to starting a new virtual thread per drain.
+         *
+         * <p>{@code Runnable::run} delivers on the thread calling {@link #relay}, as long as
+         * sends complete synchronously.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the executor deliveries to one node drain on, e.g. a dedicated platform thread
+         * for a transport that must not run on virtual threads.
+         */
+        public Builder executor(DuplexNode node, Executor executor) {
+            Objects.requireNonNull(node, "node must not be null");
+            nodeExecutors.put(node.id(), Objects.requireNonNull(executor, "executor must not be null"));
+            return this;
+        }
+
+        /**
+         * Enables metrics: per-node ingest, filter and send, and per-link carried and blocked
+         * counts are recorded into {@code metrics}.
+         */
+        public Builder metrics(RelayMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+            return this;
+        }
+
+        /**
+         * Enables journaling: every message that passes duplicate suppression, the global
+         * filter and the global transformer is appended to {@code journal}. The journal is
+         * not closed by the manager.
+         */
+        public Builder journal(MessageJournal journal) {
+            this.journal = Objects.requireNonNull(journal, "journal must not be null");
+            return this;
+        }
+
+        public LinkManager build() {
+            return new LinkManager(this);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the link graph, indexed by node ID.
+ *
+ * <p>Each node ID maps to the list of {@link DuplexLink}s it participates in, so lookups
+ * cost O(degree) instead of O(total links). Mutations never modify an existing snapshot;
+ * {@link #with(DuplexLink)} and {@link #without(DuplexLink)} return a new copy that
+ * can be published atomically to lock-free readers. The backing collections are never
+ * mutated once a snapshot has been constructed.
+ */
+final class LinkTopology {
+    static final LinkTopology EMPTY = new LinkTopology(Map.of(), Set.of());
+
+    private final Map<String, List<DuplexLink>> adjacency;
+    private final Set<DuplexLink> links;
+
+    private LinkTopology(Map<String, List<DuplexLink>> adjacency, Set<DuplexLink> links) {
+        this.adjacency = adjacency;
+        this.links = links;
+    }
+
+    /**
+     * Returns the links attached to the given node.
+     *
+     * @param nodeId the node ID
+     * @return an immutable list of links, empty if the node is not linked
+     */
+    List<DuplexLink> linksOf(String nodeId) {
+        return adjacency.getOrDefault(nodeId, List.of());
+    }
+
+    /**
+     * Finds the link connecting the two nodes, regardless of order.
+     *
+     * @return the link, or {@code null} if the nodes are not linked
+     */
+    @Nullable DuplexLink find(DuplexNode a, DuplexNode b) {
+        for (DuplexLink link : linksOf(a.id())) {
+            if (link.connects(a, b)) return link;
+        }
+        return null;
+    }
+
+    /**
+     * Returns all links in this snapshot.
+     *
+     * @return an immutable set of links
+     */
+    Set<DuplexLink> links() {
+        return links;
+    }
+
+    /**
+     * Returns a new snapshot that additionally contains the given link.
+     */
+    LinkTopology with(DuplexLink link) {
+        Map<String, List<DuplexLink>> copy = new HashMap<>(adjacency);
+        copy.put(link.nodeA().id(), append(copy.get(link.nodeA().id()), link));
+        copy.put(link.nodeB().id(), append(copy.get(link.nodeB().id()), link));
+
+        Set<DuplexLink> newLinks = new HashSet<>(links);
+        newLinks.add(link);
+        return new LinkTopology(Collections.unmodifiableMap(copy), Collections.unmodifiableSet(newLinks));
+    }
+
+    /**
+     * Returns a new snapshot without the given link.
+     */
+    LinkTopology without(DuplexLink link) {
+        Map<String, List<DuplexLink>> copy = new HashMap<>(adjacency);
+        detach(copy, link.nodeA().id(), link);
+        detach(copy, link.nodeB().id(), link);
+
+        Set<DuplexLink> newLinks = new HashSet<>(links);
+        newLinks.remove(link);
+        return new LinkTopology(Collections.unmodifiableMap(copy), Collections.unmodifiableSet(newLinks));
+    }
+
+    private static List<DuplexLink> append(@Nullable List<DuplexLink> existing, DuplexLink link) {
+        if (existing == null) return List.of(link);
+
+        List<DuplexLink> list = new ArrayList<>(existing.size() + 1);
+        list.addAll(existing);
+        list.add(link);
+        return List.copyOf(list);
+    }
+
+    private static void detach(Map<String, List<DuplexLink>> adjacency, String nodeId, DuplexLink link) {
+        List<DuplexLink> existing = adjacency.get(nodeId);
+        if (existing == null) return;
+
+        List<DuplexLink> list = new ArrayList<>(existing);
+        list.remove(link);
+
+        if (list.isEmpty()) {
+            adjacency.remove(nodeId);
+        } else {
+            adjacency.put(nodeId, List.copyOf(list));
+        }
+    }
+}
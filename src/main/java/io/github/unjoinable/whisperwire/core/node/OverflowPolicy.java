@@ -0,0 +1,22 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+/**
+ * Determines what a {@link DeliveryQueue} does when a message is offered while the queue is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Evicts the oldest queued message to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discards the newly offered message and keeps the queue unchanged.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Blocks the producing thread until space becomes available.
+     */
+    BLOCK
+}
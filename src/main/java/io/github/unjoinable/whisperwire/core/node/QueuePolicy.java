@@ -0,0 +1,84 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Configuration for the per-destination {@link DeliveryQueue}s created by a {@link LinkManager}.
+ *
+ * <p>The capacity bounds how many messages may wait for a single destination node, and the
+ * {@link OverflowPolicy} decides what happens once that bound is reached. Independently of the
+ * overflow policy, a non-zero time-to-live discards messages that have waited in the queue for
+ * longer than the given duration, so stale chat is never delivered after a slow period.
+ *
+ * @param capacity   the maximum number of queued messages per destination; must be positive
+ * @param overflow   the behavior when the queue is full
+ * @param timeToLive the maximum time a message may wait before being dropped;
+ *                   {@link Duration#ZERO} disables expiry
+ */
+public record QueuePolicy(
+        int capacity,
+        OverflowPolicy overflow,
+        Duration timeToLive) {
+
+    /**
+     * The default policy: 1024 messages per destination, evicting the oldest, without expiry.
+     */
+    public static final QueuePolicy DEFAULT = new QueuePolicy(1024, OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+
+    /**
+     * Validates the policy.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is not positive or {@code timeToLive} is negative
+     * @throws NullPointerException     if {@code overflow} or {@code timeToLive} is {@code null}
+     */
+    public QueuePolicy {
+        Objects.requireNonNull(overflow, "overflow must not be null");
+        Objects.requireNonNull(timeToLive, "timeToLive must not be null");
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (timeToLive.isNegative()) {
+            throw new IllegalArgumentException("timeToLive must not be negative: " + timeToLive);
+        }
+    }
+
+    /**
+     * Creates a policy that evicts the oldest queued message when full.
+     */
+    public static QueuePolicy dropOldest(int capacity) {
+        return new QueuePolicy(capacity, OverflowPolicy.DROP_OLDEST, Duration.ZERO);
+    }
+
+    /**
+     * Creates a policy that discards newly offered messages when full.
+     */
+    public static QueuePolicy dropNewest(int capacity) {
+        return new QueuePolicy(capacity, OverflowPolicy.DROP_NEWEST, Duration.ZERO);
+    }
+
+    /**
+     * Creates a policy that blocks the producer until space is available.
+     */
+    public static QueuePolicy block(int capacity) {
+        return new QueuePolicy(capacity, OverflowPolicy.BLOCK, Duration.ZERO);
+    }
+
+    /**
+     * Returns a copy of this policy that drops messages older than the given duration.
+     *
+     * @param timeToLive the maximum queueing time; {@link Duration#ZERO} disables expiry
+     * @return a new {@code QueuePolicy}
+     */
+    public QueuePolicy withTimeToLive(Duration timeToLive) {
+        return new QueuePolicy(capacity, overflow, timeToLive);
+    }
+
+    /**
+     * Returns whether queued messages expire.
+     */
+    public boolean expires() {
+        return !timeToLive.isZero();
+    }
+}
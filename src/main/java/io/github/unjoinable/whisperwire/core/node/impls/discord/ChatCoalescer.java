@@ -0,0 +1,195 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Batches chat lines that arrive within a short window into as few Discord messages as possible.
+ *
+ * <p>The first line submitted after an idle period schedules a flush {@code window} later; every
+ * line submitted until then joins the same batch. On flush, the lines are packed in order into
+ * messages of at most {@link #MAX_MESSAGE_LENGTH} characters, joined by newlines. A single line
+ * longer than the limit is split across several messages. Every message of a batch is sent at
+ * the highest {@link Priority} of the lines in it.
+ *
+ * <p>Messages are handed to the sender strictly one after another, so batches are never
+ * reordered. The future returned for each line completes when the message containing its end
+ * has been acknowledged, or exceptionally if that send failed.
+ */
+public final class ChatCoalescer {
+
+    /**
+     * The maximum length of a Discord message.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private static final ScheduledExecutorService SHARED_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("whisperwire-coalescer").daemon().factory());
+
+    private final BiFunction<String, Priority, CompletableFuture<?>> sender;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final int maxLength;
+
+    private final Object lock = new Object();
+    private List<Line> pending = new ArrayList<>();
+    private Priority priority = Priority.LOW;
+    private boolean flushScheduled;
+    private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+    /**
+     * Constructs a coalescer using a shared daemon scheduler and the Discord message limit.
+     *
+     * @param sender sends one joined message at the given priority and completes when Discord
+     *               acknowledges it
+     * @param window how long to gather lines before sending
+     */
+    public ChatCoalescer(BiFunction<String, Priority, CompletableFuture<?>> sender, Duration window) {
+        this(sender, window, SHARED_SCHEDULER, MAX_MESSAGE_LENGTH);
+    }
+
+    /**
+     * Constructs a coalescer.
+     *
+     * @param sender    sends one joined message at the given priority and completes when it
+     *                  is acknowledged
+     * @param window    how long to gather lines before sending; must not be negative
+     * @param scheduler the scheduler used to trigger flushes
+     * @param maxLength the maximum length of a joined message; must be positive
+     * @throws NullPointerException     if any reference argument is {@code null}
+     * @throws IllegalArgumentException if {@code window} is negative or {@code maxLength} is not positive
+     */
+    public ChatCoalescer(BiFunction<String, Priority, CompletableFuture<?>> sender, Duration window,
+                         ScheduledExecutorService scheduler, int maxLength) {
+        this.sender = Objects.requireNonNull(sender, "sender must not be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+        Objects.requireNonNull(window, "window must not be null");
+
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative: " + window);
+        }
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+        }
+        this.windowNanos = window.toNanos();
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Adds a line to the current batch at {@link Priority#LOW}.
+     *
+     * @param line the formatted chat line
+     * @return a {@link CompletableFuture} that completes when the batch containing the line is acknowledged
+     * @throws NullPointerException if {@code line} is {@code null}
+     */
+    public CompletableFuture<Void> submit(String line) {
+        return submit(line, Priority.LOW);
+    }
+
+    /**
+     * Adds a line to the current batch, raising the batch to {@code priority} if it is higher.
+     *
+     * @param line     the formatted chat line
+     * @param priority the priority of the line
+     * @return a {@link CompletableFuture} that completes when the batch containing the line is acknowledged
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public CompletableFuture<Void> submit(String line, Priority priority) {
+        Objects.requireNonNull(line, "line must not be null");
+        Objects.requireNonNull(priority, "priority must not be null");
+
+        Line entry = new Line(line, new CompletableFuture<>());
+        synchronized (lock) {
+            pending.add(entry);
+            if (priority.compareTo(this.priority) < 0) this.priority = priority;
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        return entry.future;
+    }
+
+    /**
+     * Sends everything gathered so far without waiting for the window to elapse.
+     */
+    public void flush() {
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+
+            List<Line> batch = pending;
+            Priority level = priority;
+            pending = new ArrayList<>();
+            priority = Priority.LOW;
+
+            for (Chunk chunk : pack(batch)) {
+                tail = tail.handle((_, _) -> null)
+                        .thenCompose(_ -> sender.apply(chunk.text, level))
+                        .whenComplete((_, error) -> chunk.settle(error));
+            }
+        }
+    }
+
+    /**
+     * Packs lines into chunks of at most {@code maxLength} characters, preserving order.
+     */
+    private List<Chunk> pack(List<Line> lines) {
+        List<Chunk> chunks = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        List<Line> completing = new ArrayList<>();
+
+        for (Line line : lines) {
+            String remaining = line.text;
+
+            if (!text.isEmpty() && text.length() + 1 + remaining.length() > maxLength) {
+                chunks.add(new Chunk(text.toString(), completing));
+                text.setLength(0);
+                completing = new ArrayList<>();
+            }
+
+            while (remaining.length() > maxLength) {
+                int cut = maxLength;
+                if (Character.isHighSurrogate(remaining.charAt(cut - 1))) cut--;
+                chunks.add(new Chunk(remaining.substring(0, cut), List.of()));
+                remaining = remaining.substring(cut);
+            }
+
+            if (!text.isEmpty()) text.append('\n');
+            text.append(remaining);
+            completing.add(line);
+        }
+
+        if (!completing.isEmpty()) {
+            chunks.add(new Chunk(text.toString(), completing));
+        }
+        return chunks;
+    }
+
+    private record Line(String text, CompletableFuture<Void> future) {}
+
+    /**
+     * One outgoing Discord message and the lines that end in it.
+     */
+    private record Chunk(String text, List<Line> completing) {
+        void settle(@Nullable Throwable error) {
+            for (Line line : completing) {
+                if (error == null) {
+                    line.future.complete(null);
+                } else {
+                    line.future.completeExceptionally(error);
+                }
+            }
+        }
+    }
+}
@@ -1,22 +1,62 @@
 package io.github.unjoinable.whisperwire.core.node.impls.discord;
 
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
 import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.metrics.NodeMetrics;
+import io.github.unjoinable.whisperwire.core.metrics.RelayMetrics;
 import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
 import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import net.dv8tion.jda.api.entities.Message.MentionType;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.jspecify.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.EnumSet;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * A {@link DuplexNode} implementation
  * that sends messages to a Discord {@link TextChannel} using JDA.
  *
- * <p>This node formats messages in a simple Discord-friendly format and posts
- * them to the configured text channel.
+ * <p>This node formats messages with a {@link ChatTemplate}, by default
+ * {@code **[{username}]** {message}}, and posts them to the configured text channel.
+ *
+ * <p>When built with {@link Builder#coalesce(Duration)}, chat lines arriving within the
+ * given window are joined into as few channel messages as possible by a {@link ChatCoalescer},
+ * which keeps busy channels well below Discord's per-channel rate limit.
+ *
+ * <p>When built with {@link Builder#scheduler(RateLimitScheduler)}, every post goes through the
+ * shared scheduler on a per-channel route, at the priority assigned by
+ * {@link Builder#priority(Function)}. {@link Priority#HIGH} messages skip coalescing so they
+ * are not held back by the batching window.
  */
 public class DiscordDuplexNode extends AbstractDuplexNode {
+
+    /**
+     * The prefix of the identifier of every node backed by a Discord channel, and therefore of
+     * the {@link Message#source()} of messages that originate in Discord.
+     */
+    public static final String ID_PREFIX = "discord-";
+
+    /**
+     * The template messages are formatted with unless {@link Builder#format} sets another.
+     */
+    public static final ChatTemplate DEFAULT_FORMAT = ChatTemplate.compile("**[{username}]** {message}");
+
+    private static final int COALESCED_IN_FLIGHT = 256;
+    private static final Set<MentionType> NO_MENTIONS = EnumSet.noneOf(MentionType.class);
+
     private final TextChannel channel;
+    private final ChatTemplate format;
+    private final @Nullable ChatCoalescer coalescer;
+    private final @Nullable RateLimitScheduler scheduler;
+    private final Function<Message, Priority> priority;
+    private final String route;
+    private final @Nullable NodeMetrics metrics;
 
     /**
      * Constructs a new {@code DiscordDuplexNode} for a specific text channel.
@@ -24,15 +64,39 @@ public class DiscordDuplexNode extends AbstractDuplexNode {
      * @param channel the Discord {@link TextChannel} to send messages to; must not be {@code null}
      */
     public DiscordDuplexNode(TextChannel channel) {
-        super("discord-" + Objects.requireNonNull(channel, "channel must not be null").getId());
-        this.channel = channel;
+        this(builder(channel));
+    }
+
+    private DiscordDuplexNode(Builder builder) {
+        super(ID_PREFIX + builder.channel.getId());
+        this.channel = builder.channel;
+        this.format = builder.format;
+        this.scheduler = builder.scheduler;
+        this.priority = builder.priority;
+        this.metrics = builder.metrics != null ? builder.metrics.node(id()) : null;
+        this.route = "channel-" + channel.getId();
+        this.coalescer = builder.coalesceWindow == null
+                ? null
+                : new ChatCoalescer(this::post, builder.coalesceWindow);
+    }
+
+    /**
+     * Creates a new builder for a node posting to the given channel.
+     *
+     * @param channel the Discord {@link TextChannel} to send messages to; must not be {@code null}
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(TextChannel channel) {
+        return new Builder(channel);
     }
 
     /**
      * Sends a message to the Discord channel.
      *
      * <p>If the message is blank, it is silently ignored.
-     * Otherwise, the message is formatted as: {@code **[username]** message}
+     * Otherwise, the username and text of messages from outside Discord are sanitized by
+     * {@link DiscordEscaper}, and the message is formatted with the node's {@link ChatTemplate}.
+     * Messages are posted with all mentions disabled.
      *
      * @param message the message to send; must not be {@code null}
      * @return a {@link CompletableFuture} that completes when the message is sent
@@ -45,11 +109,37 @@ public class DiscordDuplexNode extends AbstractDuplexNode {
             return CompletableFuture.completedFuture(null);
         }
 
-        String formatted = "**[" + message.username() + "]** " + message.rawMessage();
+        long start = metrics != null ? System.nanoTime() : 0;
+        String formatted = format.render(DiscordEscaper.sanitize(message));
+        if (metrics != null) metrics.recordFormat(System.nanoTime() - start);
+        Priority level = priority.apply(message);
 
-        return channel.sendMessage(formatted)
-                .submit()
-                .thenAccept(_ -> {}); // We don't care about the Message object here
+        if (coalescer != null && level != Priority.HIGH) {
+            return coalescer.submit(formatted, level);
+        }
+        return post(formatted, level).thenAccept(_ -> {}); // We don't care about the Message object here
+    }
+
+    /**
+     * Returns a higher limit when coalescing, so that queued lines reach the coalescer while
+     * earlier batches are still waiting for their window or acknowledgement.
+     */
+    @Override
+    public int maxInFlight() {
+        return coalescer == null ? 1 : COALESCED_IN_FLIGHT;
+    }
+
+    private CompletableFuture<net.dv8tion.jda.api.entities.Message> post(String content, Priority level) {
+        if (scheduler == null) {
+            return submit(content);
+        }
+        return scheduler.submit(route, level, () -> submit(content));
+    }
+
+    private CompletableFuture<net.dv8tion.jda.api.entities.Message> submit(String content) {
+        return channel.sendMessage(content)
+                .setAllowedMentions(NO_MENTIONS)
+                .submit();
     }
 
     @Override
@@ -63,4 +153,67 @@ public class DiscordDuplexNode extends AbstractDuplexNode {
     public int hashCode() {
         return Objects.hash(super.hashCode(), channel);
     }
-}
\ No newline at end of file
+
+    /**
+     * Builder for {@link DiscordDuplexNode}.
+     */
+    public static class Builder {
+        private final TextChannel channel;
+        private ChatTemplate format = DEFAULT_FORMAT;
+        private @Nullable Duration coalesceWindow;
+        private @Nullable RateLimitScheduler scheduler;
+        private Function<Message, Priority> priority = _ -> Priority.LOW;
+        private @Nullable RelayMetrics metrics;
+
+        private Builder(TextChannel channel) {
+            this.channel = Objects.requireNonNull(channel, "channel must not be null");
+        }
+
+        /**
+         * Sets the template messages are formatted with, e.g. the configured
+         * {@code chat_format}. Defaults to {@code **[{username}]** {message}}.
+         */
+        public Builder format(ChatTemplate format) {
+            this.format = Objects.requireNonNull(format, "format must not be null");
+            return this;
+        }
+
+        /**
+         * Enables coalescing: lines arriving within {@code window} are joined into as few
+         * channel messages as possible, up to Discord's 2,000-character limit each.
+         */
+        public Builder coalesce(Duration window) {
+            this.coalesceWindow = Objects.requireNonNull(window, "window must not be null");
+            return this;
+        }
+
+        /**
+         * Routes every post through the given scheduler. A scheduler is normally shared by all
+         * nodes of a bot so the global budget is respected.
+         */
+        public Builder scheduler(RateLimitScheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+            return this;
+        }
+
+        /**
+         * Sets how messages are prioritized by the scheduler. Defaults to {@link Priority#LOW}.
+         */
+        public Builder priority(Function<Message, Priority> priority) {
+            this.priority = Objects.requireNonNull(priority, "priority must not be null");
+            return this;
+        }
+
+        /**
+         * Records how long formatting takes into the node's entry in {@code metrics}.
+         */
+        public Builder metrics(RelayMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+            return this;
+        }
+
+        public DiscordDuplexNode build() {
+            return new DiscordDuplexNode(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Makes text from outside Discord safe to post in a Discord message.
+ *
+ * <p>In a single scan of the input, this:
+ * <ul>
+ *     <li>escapes markdown ({@code \ * _ ~ | `} and {@code [}, and {@code > # -} at the start
+ *     of a line) with a backslash, except inside {@code http(s)://} links where escapes would
+ *     break the URL;</li>
+ *     <li>neutralizes {@code @everyone} and {@code @here} with a zero-width space, and escapes
+ *     the {@code <} of {@code <@user>}, {@code <@&role>}, {@code <#channel>} and
+ *     {@code </command>} syntax;</li>
+ *     <li>strips Minecraft legacy formatting codes ({@code §} and the character after it);</li>
+ *     <li>defuses {@code discord.gg/} and {@code discord.com/invite/} invite links.</li>
+ * </ul>
+ *
+ * <p>Nothing is allocated for text that needs no changes; the input string itself is returned.
+ */
+public final class DiscordEscaper {
+    private static final char ZERO_WIDTH_SPACE = '\u200B';
+    private static final char SECTION_SIGN = '\u00A7';
+    private static final String DISCORD = "discord";
+    private static final String[] INVITE_HOSTS = {"discord.gg/", "discord.com/invite/", "discordapp.com/invite/"};
+
+    private DiscordEscaper() {}
+
+    /**
+     * Escapes the username and text of a message that did not originate in Discord.
+     *
+     * @param message the message to sanitize
+     * @return the sanitized message, or {@code message} itself if it came from Discord or
+     *         needed no changes
+     */
+    public static Message sanitize(Message message) {
+        if (message.source().startsWith(DiscordDuplexNode.ID_PREFIX)) return message;
+
+        String username = escape(message.username());
+        String rawMessage = escape(message.rawMessage());
+        if (username == message.username() && rawMessage == message.rawMessage()) return message;
+
+        return new Message(message.source(), username, rawMessage, message.timestamp());
+    }
+
+    /**
+     * Escapes the given text.
+     *
+     * @param text the text to escape
+     * @return the escaped text, or {@code text} itself if nothing needed escaping
+     */
+    public static String escape(String text) {
+        @Nullable StringBuilder out = null;
+        boolean lineStart = true;
+        int n = text.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = text.charAt(i);
+
+            if (c == SECTION_SIGN) {
+                out = copy(out, text, i);
+                i += 2;
+                continue;
+            }
+
+            if ((c == 'h' || c == 'H') && startsWithUrl(text, i)) {
+                int end = i;
+                while (end < n && !Character.isWhitespace(text.charAt(end))) end++;
+
+                for (int j = i; j < end; j++) {
+                    if (isInviteAt(text, j)) {
+                        out = copy(out, text, i);
+                        out.append(text, i, j + DISCORD.length()).append(ZERO_WIDTH_SPACE);
+                        i = j + DISCORD.length();
+                    }
+                }
+                if (out != null) out.append(text, i, end);
+                i = end;
+                lineStart = false;
+                continue;
+            }
+
+            if (isInviteAt(text, i)) {
+                out = copy(out, text, i).append(text, i, i + DISCORD.length()).append(ZERO_WIDTH_SPACE);
+                i += DISCORD.length();
+                lineStart = false;
+                continue;
+            }
+
+            if (c == '@' && (text.startsWith("everyone", i + 1) || text.startsWith("here", i + 1))) {
+                out = copy(out, text, i).append('@').append(ZERO_WIDTH_SPACE);
+                i++;
+                lineStart = false;
+                continue;
+            }
+
+            if (needsBackslash(text, i, c, lineStart)) {
+                out = copy(out, text, i).append('\\');
+            }
+            if (out != null) out.append(c);
+
+            if (c == '\n') {
+                lineStart = true;
+            } else if (c != ' ' && c != '\t') {
+                lineStart = false;
+            }
+            i++;
+        }
+
+        return out == null ? text : out.toString();
+    }
+
+    private static boolean needsBackslash(String text, int at, char c, boolean lineStart) {
+        return switch (c) {
+            case '\\', '*', '_', '~', '|', '`', '[' -> true;
+            case '>', '#', '-' -> lineStart;
+            case '<' -> {
+                char next = at + 1 < text.length() ? text.charAt(at + 1) : 0;
+                yield next == '@' || next == '#' || next == '/';
+            }
+            default -> false;
+        };
+    }
+
+    /**
+     * Returns the builder, creating it with everything before {@code upTo} on first use.
+     */
+    private static StringBuilder copy(@Nullable StringBuilder out, String text, int upTo) {
+        if (out != null) return out;
+        return new StringBuilder(text.length() + 16).append(text, 0, upTo);
+    }
+
+    private static boolean startsWithUrl(String text, int at) {
+        return text.regionMatches(true, at, "https://", 0, 8) || text.regionMatches(true, at, "http://", 0, 7);
+    }
+
+    private static boolean isInviteAt(String text, int at) {
+        char c = text.charAt(at);
+        if (c != 'd' && c != 'D') return false;
+
+        for (String host : INVITE_HOSTS) {
+            if (text.regionMatches(true, at, host, 0, host.length())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,426 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.metrics.RestWaitEvent;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Schedules Discord REST calls so they stay within Discord's rate limits.
+ *
+ * <p>Every call belongs to a route, typically one per channel, and each route has a token
+ * bucket with the budget Discord documents for it. A second bucket models the global limit
+ * shared by all routes. A call is only issued when both buckets have a token left; otherwise
+ * it waits in the route's queue until the earlier of the buckets resets.
+ *
+ * <p>JDA reads Discord's rate-limit headers and retries {@code 429} responses in its own
+ * rate limiter, which sits beneath this scheduler and hides both from it. This scheduler
+ * therefore does not try to mirror the server's buckets. It keeps calls under the configured
+ * budgets, so JDA's queue stays empty and the order calls are issued in is decided here, by
+ * priority, rather than by JDA.
+ *
+ * <p>Queued calls are ordered by {@link Priority} and then by submission, so a
+ * {@link Priority#HIGH} call overtakes ordinary chat waiting on the same route. Calls of
+ * equal priority on a route are issued in submission order.
+ *
+ * <p>All scheduling state is confined to a single dispatcher thread; {@link #submit} may be
+ * called from any thread.
+ */
+public final class RateLimitScheduler implements AutoCloseable {
+    private static final Comparator<Task<?>> ORDER = Comparator
+            .comparingInt((Task<?> task) -> task.priority.ordinal())
+            .thenComparingLong(task -> task.sequence);
+
+    private final ScheduledExecutorService executor;
+    private final boolean ownsExecutor;
+    private final LongSupplier ticker;
+    private final int routeLimit;
+    private final long routeWindowNanos;
+    private final Bucket global;
+
+    // Confined to the dispatcher thread
+    private final Map<String, Route> routes = new HashMap<>();
+    private long sequence;
+    private long wakeAt = Long.MAX_VALUE;
+    private @Nullable ScheduledFuture<?> wakeup;
+
+    private volatile boolean closed;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder[] dispatched = adders();
+    private final LongAdder[] waitNanos = adders();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private RateLimitScheduler(Builder builder) {
+        this.ownsExecutor = builder.executor == null;
+        this.executor = builder.executor != null
+                ? builder.executor
+                : Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("whisperwire-discord-ratelimit").daemon().factory());
+        this.ticker = builder.ticker;
+        this.routeLimit = builder.routeLimit;
+        this.routeWindowNanos = builder.routeWindow.toNanos();
+        this.global = new Bucket(builder.globalLimit, builder.globalWindow.toNanos());
+    }
+
+    /**
+     * Creates a new builder with Discord's documented defaults: 5 messages per 5 seconds per
+     * channel and 50 requests per second globally.
+     *
+     * @return a new {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Queues a REST call.
+     *
+     * @param route    the rate-limit route, e.g. one per channel
+     * @param priority the priority of the call
+     * @param call     issues the request; invoked once, on the dispatcher thread
+     * @param <T>      the result type
+     * @return a {@link CompletableFuture} completing like the future returned by {@code call}
+     * @throws NullPointerException  if any argument is {@code null}
+     * @throws IllegalStateException if the scheduler has been closed
+     */
+    public <T> CompletableFuture<T> submit(String route, Priority priority,
+                                           Supplier<? extends CompletableFuture<? extends T>> call) {
+        Objects.requireNonNull(route, "route must not be null");
+        Objects.requireNonNull(priority, "priority must not be null");
+        Objects.requireNonNull(call, "call must not be null");
+
+        if (closed) {
+            throw new IllegalStateException("RateLimitScheduler is closed");
+        }
+
+        Task<T> task = new Task<>(route, priority, call, ticker.getAsLong());
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                if (closed) {
+                    abandon(task);
+                    return;
+                }
+                task.sequence = sequence++;
+                routes.computeIfAbsent(route, _ -> new Route(route, new Bucket(routeLimit, routeWindowNanos)))
+                        .tasks.add(task);
+                dispatch();
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw new IllegalStateException("RateLimitScheduler is closed", e);
+        }
+        return task.future;
+    }
+
+    /**
+     * Issues every queued call whose buckets have tokens, best first, and arranges to be
+     * woken when the next blocked bucket resets.
+     */
+    private void dispatch() {
+        long now = ticker.getAsLong();
+
+        while (true) {
+            Route best = null;
+            long readyAt = Long.MAX_VALUE;
+
+            for (Route route : routes.values()) {
+                Task<?> head = route.tasks.peek();
+                if (head == null) continue;
+
+                if (!route.bucket.ready(now)) {
+                    readyAt = Math.min(readyAt, route.bucket.readyAt());
+                } else if (best == null || ORDER.compare(head, Objects.requireNonNull(best.tasks.peek())) < 0) {
+                    best = route;
+                }
+            }
+
+            if (best == null) {
+                scheduleWakeup(readyAt, now);
+                return;
+            }
+            if (!global.ready(now)) {
+                scheduleWakeup(global.readyAt(), now);
+                return;
+            }
+
+            global.acquire();
+            best.bucket.acquire();
+            start(Objects.requireNonNull(best.tasks.poll()), now);
+        }
+    }
+
+    private <T> void start(Task<T> task, long now) {
+        long waited = now - task.enqueuedAt;
+        if (task.event != null) task.event.queueTime = waited;
+        dispatched[task.priority.ordinal()].increment();
+        waitNanos[task.priority.ordinal()].add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        CompletableFuture<? extends T> response;
+        try {
+            response = task.call.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((result, error) -> {
+            pending.decrementAndGet();
+            task.commit(error == null ? "completed" : "failed");
+            if (error != null) {
+                task.future.completeExceptionally(error);
+            } else {
+                task.future.complete(result);
+            }
+        });
+    }
+
+    private void scheduleWakeup(long at, long now) {
+        if (at == Long.MAX_VALUE || (wakeup != null && wakeAt <= at)) return;
+
+        if (wakeup != null) wakeup.cancel(false);
+        wakeAt = at;
+        wakeup = executor.schedule(() -> {
+            wakeup = null;
+            wakeAt = Long.MAX_VALUE;
+            dispatch();
+        }, Math.max(0, at - now), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of calls that are queued or in flight.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Returns the number of calls issued.
+     */
+    public long dispatched() {
+        long total = 0;
+        for (LongAdder adder : dispatched) total += adder.sum();
+        return total;
+    }
+
+    /**
+     * Returns the average time calls of the given priority spent queued before being issued.
+     *
+     * @param priority the priority to report on
+     * @return the average queue wait, or {@link Duration#ZERO} if no call was issued yet
+     */
+    public Duration averageWait(Priority priority) {
+        long count = dispatched[priority.ordinal()].sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos[priority.ordinal()].sum() / count);
+    }
+
+    /**
+     * Returns the longest time any call spent queued before being issued.
+     */
+    public Duration maxWait() {
+        return Duration.ofNanos(maxWaitNanos.get());
+    }
+
+    /**
+     * Closes this scheduler. Calls that are still queued complete exceptionally with an
+     * {@link IllegalStateException} without being issued, while calls already issued complete
+     * as usual. The dispatcher thread is shut down if this scheduler created it.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            executor.execute(() -> {
+                if (wakeup != null) wakeup.cancel(false);
+                wakeup = null;
+                for (Route route : routes.values()) {
+                    Task<?> task;
+                    while ((task = route.tasks.poll()) != null) abandon(task);
+                }
+                routes.clear();
+                if (ownsExecutor) executor.shutdown();
+            });
+        } catch (RejectedExecutionException e) {
+            // The executor was shut down by its owner, taking the queued calls with it
+        }
+    }
+
+    private void abandon(Task<?> task) {
+        pending.decrementAndGet();
+        task.commit("abandoned");
+        task.future.completeExceptionally(new IllegalStateException("RateLimitScheduler is closed"));
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Priority.values().length];
+        for (int i = 0; i < adders.length; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+
+    /**
+     * The urgency of a call. Higher priorities are issued first when a bucket is contended.
+     */
+    public enum Priority {
+        /** Staff alerts and other messages that must not wait behind chat. */
+        HIGH,
+        /** Regular traffic such as join and leave summaries. */
+        NORMAL,
+        /** Bulk chat that may be delayed; the default for relayed messages. */
+        LOW
+    }
+
+    private record Route(String name, Bucket bucket, PriorityQueue<Task<?>> tasks) {
+        Route(String name, Bucket bucket) {
+            this(name, bucket, new PriorityQueue<>(ORDER));
+        }
+    }
+
+    /**
+     * A fixed-window token bucket. Only accessed on the dispatcher thread.
+     */
+    private static final class Bucket {
+        private final int limit;
+        private final long windowNanos;
+        private int remaining;
+        private long resetAt;
+        private boolean started;
+
+        Bucket(int limit, long windowNanos) {
+            this.limit = limit;
+            this.windowNanos = windowNanos;
+        }
+
+        boolean ready(long now) {
+            if (!started || now - resetAt >= 0) {
+                started = true;
+                remaining = limit;
+                resetAt = now + windowNanos;
+            }
+            return remaining > 0;
+        }
+
+        long readyAt() {
+            return resetAt;
+        }
+
+        void acquire() {
+            remaining--;
+        }
+    }
+
+    private static final class Task<T> {
+        private final String route;
+        private final Priority priority;
+        private final Supplier<? extends CompletableFuture<? extends T>> call;
+        private final long enqueuedAt;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final @Nullable RestWaitEvent event;
+        private long sequence;
+
+        Task(String route, Priority priority, Supplier<? extends CompletableFuture<? extends T>> call, long enqueuedAt) {
+            this.route = route;
+            this.priority = priority;
+            this.call = call;
+            this.enqueuedAt = enqueuedAt;
+            this.event = RestWaitEvent.enabled() ? new RestWaitEvent() : null;
+            if (event != null) event.begin();
+        }
+
+        void commit(String outcome) {
+            if (event == null) return;
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.route = route;
+                event.priority = priority.name();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link RateLimitScheduler}.
+     */
+    public static class Builder {
+        private int routeLimit = 5;
+        private Duration routeWindow = Duration.ofSeconds(5);
+        private int globalLimit = 50;
+        private Duration globalWindow = Duration.ofSeconds(1);
+        private @Nullable ScheduledExecutorService executor;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {}
+
+        /**
+         * Sets the budget of every route.
+         */
+        public Builder routeLimit(int requests, Duration window) {
+            checkLimit(requests, window);
+            this.routeLimit = requests;
+            this.routeWindow = window;
+            return this;
+        }
+
+        /**
+         * Sets the budget shared by all routes.
+         */
+        public Builder globalLimit(int requests, Duration window) {
+            checkLimit(requests, window);
+            this.globalLimit = requests;
+            this.globalWindow = window;
+            return this;
+        }
+
+        /**
+         * Sets the executor the dispatcher runs on. It must run tasks one at a time, such as
+         * one created by {@link Executors#newSingleThreadScheduledExecutor()}, and is not shut
+         * down by {@link RateLimitScheduler#close()}.
+         */
+        public Builder executor(ScheduledExecutorService executor) {
+            this.executor = Objects.requireNonNull(executor, "executor must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the source of monotonic nanoseconds buckets are timed with. Defaults to
+         * {@link System#nanoTime()}; tests substitute a manual clock together with a
+         * matching {@link #executor(ScheduledExecutorService)}.
+         */
+        public Builder ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker, "ticker must not be null");
+            return this;
+        }
+
+        public RateLimitScheduler build() {
+            return new RateLimitScheduler(this);
+        }
+
+        private static void checkLimit(int requests, Duration window) {
+            Objects.requireNonNull(window, "window must not be null");
+            if (requests <= 0) {
+                throw new IllegalArgumentException("requests must be positive: " + requests);
+            }
+            if (window.isZero() || window.isNegative()) {
+                throw new IllegalArgumentException("window must be positive: " + window);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.config.configs.WebhookConfig;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import net.dv8tion.jda.api.entities.Message.MentionType;
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.jspecify.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A {@link DuplexNode} implementation that posts messages to a Discord {@link TextChannel}
+ * through a webhook, so each player's messages appear under their own name and avatar.
+ *
+ * <p>Names and avatars are rendered from the {@link WebhookConfig} by {@link WebhookProfiles}.
+ * The channel's webhook is looked up, or created, once and then shared by every node posting
+ * to that channel.
+ *
+ * <p>Webhook executions are rate limited separately from the bot's own channel messages.
+ * When a {@link RateLimitScheduler} is set, posts use a {@code webhook-<channel id>} route
+ * rather than the bot's {@code channel-<channel id>} route, so relayed chat does not compete
+ * with messages the bot itself posts in the channel.
+ *
+ * <p>The node shares its identifier with a {@link DiscordDuplexNode} for the same channel, so
+ * messages that originated in the channel are not relayed back into it; use one or the other.
+ */
+public class WebhookDuplexNode extends AbstractDuplexNode {
+
+    /**
+     * The name of the webhook this node creates and reuses.
+     */
+    public static final String WEBHOOK_NAME = "WhisperWire";
+
+    private static final int DEFAULT_AVATAR_CACHE = 1024;
+    private static final Map<String, CompletableFuture<Webhook>> WEBHOOKS = new ConcurrentHashMap<>();
+
+    private final TextChannel channel;
+    private final WebhookProfiles profiles;
+    private final @Nullable RateLimitScheduler scheduler;
+    private final Function<Message, Priority> priority;
+    private final String route;
+
+    private WebhookDuplexNode(Builder builder) {
+        super(DiscordDuplexNode.ID_PREFIX + builder.channel.getId());
+        this.channel = builder.channel;
+        this.profiles = new WebhookProfiles(builder.config, builder.uuidResolver, builder.avatarCacheSize);
+        this.scheduler = builder.scheduler;
+        this.priority = builder.priority;
+        this.route = "webhook-" + channel.getId();
+    }
+
+    /**
+     * Creates a new builder for a node posting to the given channel.
+     *
+     * @param channel the Discord {@link TextChannel} to post to; must not be {@code null}
+     * @param config  the webhook formatting configuration; must not be {@code null}
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(TextChannel channel, WebhookConfig config) {
+        return new Builder(channel, config);
+    }
+
+    /**
+     * Posts a message to the channel under the sender's name and avatar.
+     *
+     * <p>If the message is blank, it is silently ignored. Text from outside Discord is
+     * sanitized by {@link DiscordEscaper}, and mentions are disabled.
+     *
+     * @param message the message to send; must not be {@code null}
+     * @return a {@link CompletableFuture} that completes when Discord accepts the message
+     */
+    @Override
+    public CompletableFuture<Void> sendMessage(Message message) {
+        Objects.requireNonNull(message, "message must not be null");
+
+        if (message.rawMessage().isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String username = profiles.username(message);
+        String avatarUrl = profiles.avatarUrl(message);
+        Message sanitized = DiscordEscaper.sanitize(message);
+
+        return webhook().thenCompose(webhook -> {
+            if (scheduler == null) {
+                return execute(webhook, sanitized, username, avatarUrl);
+            }
+            return scheduler.submit(route, priority.apply(message),
+                    () -> execute(webhook, sanitized, username, avatarUrl));
+        }).thenAccept(_ -> {});
+    }
+
+    private static CompletableFuture<net.dv8tion.jda.api.entities.Message> execute(
+            Webhook webhook, Message message, String username, String avatarUrl) {
+        return webhook.sendMessage(message.rawMessage())
+                .setUsername(username)
+                .setAvatarUrl(avatarUrl)
+                .setAllowedMentions(EnumSet.noneOf(MentionType.class))
+                .submit();
+    }
+
+    /**
+     * Returns the channel's shared webhook, retrieving or creating it on first use. A failed
+     * lookup is forgotten so the next message tries again.
+     */
+    private CompletableFuture<Webhook> webhook() {
+        String key = channel.getId();
+        CompletableFuture<Webhook> webhook = WEBHOOKS.computeIfAbsent(key, _ -> channel.retrieveWebhooks().submit()
+                .thenCompose(existing -> existing.stream()
+                        .filter(candidate -> WEBHOOK_NAME.equals(candidate.getName()) && candidate.getToken() != null)
+                        .findFirst()
+                        .map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> channel.createWebhook(WEBHOOK_NAME).submit())));
+
+        webhook.whenComplete((_, error) -> {
+            if (error != null) WEBHOOKS.remove(key, webhook);
+        });
+        return webhook;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof WebhookDuplexNode that)) return false;
+        if (!super.equals(o)) return false;
+        return Objects.equals(channel, that.channel);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), channel);
+    }
+
+    /**
+     * Builder for {@link WebhookDuplexNode}.
+     */
+    public static class Builder {
+        private final TextChannel channel;
+        private final WebhookConfig config;
+        private Function<String, UUID> uuidResolver = WebhookProfiles::offlineUuid;
+        private int avatarCacheSize = DEFAULT_AVATAR_CACHE;
+        private @Nullable RateLimitScheduler scheduler;
+        private Function<Message, Priority> priority = _ -> Priority.LOW;
+
+        private Builder(TextChannel channel, WebhookConfig config) {
+            this.channel = Objects.requireNonNull(channel, "channel must not be null");
+            this.config = Objects.requireNonNull(config, "config must not be null");
+        }
+
+        /**
+         * Sets how player names are mapped to the UUID used in avatar URLs. Defaults to the
+         * offline-mode UUID, see {@link WebhookProfiles#offlineUuid(String)}.
+         */
+        public Builder uuidResolver(Function<String, UUID> uuidResolver) {
+            this.uuidResolver = Objects.requireNonNull(uuidResolver, "uuidResolver must not be null");
+            return this;
+        }
+
+        /**
+         * Sets how many rendered avatar URLs are cached.
+         */
+        public Builder avatarCacheSize(int avatarCacheSize) {
+            if (avatarCacheSize <= 0) {
+                throw new IllegalArgumentException("avatarCacheSize must be positive: " + avatarCacheSize);
+            }
+            this.avatarCacheSize = avatarCacheSize;
+            return this;
+        }
+
+        /**
+         * Routes every post through the given scheduler on the channel's webhook route.
+         */
+        public Builder scheduler(RateLimitScheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+            return this;
+        }
+
+        /**
+         * Sets how messages are prioritized by the scheduler. Defaults to {@link Priority#LOW}.
+         */
+        public Builder priority(Function<Message, Priority> priority) {
+            this.priority = Objects.requireNonNull(priority, "priority must not be null");
+            return this;
+        }
+
+        public WebhookDuplexNode build() {
+            return new WebhookDuplexNode(this);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.config.configs.WebhookConfig;
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate.Field;
+import io.github.unjoinable.whisperwire.core.message.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the display name and avatar a webhook message is posted under.
+ *
+ * <p>The {@link WebhookConfig#usernameFormat()} is compiled into a {@link ChatTemplate}, so it
+ * may contain {@code {username}}, {@code {message}} and {@code {source}}, and the
+ * {@link WebhookConfig#avatarUrl()} may contain {@code {uuid}}.
+ * Rendered avatar URLs, and rendered usernames if the format only depends on the player name,
+ * are kept in bounded least-recently-used caches keyed by player name, so an active player's
+ * profile is built once rather than on every message.
+ *
+ * <p>Discord rejects webhook messages whose username contains {@code clyde} or
+ * {@code discord} in any case, so those substrings are removed from rendered usernames.
+ */
+public final class WebhookProfiles {
+
+    /**
+     * The longest username Discord accepts for a webhook message.
+     */
+    public static final int MAX_USERNAME_LENGTH = 80;
+
+    /**
+     * The username posted under when nothing is left of the rendered one.
+     */
+    public static final String FALLBACK_USERNAME = "Player";
+
+    private static final Pattern FORBIDDEN = Pattern.compile("clyde|discord", Pattern.CASE_INSENSITIVE);
+
+    private final ChatTemplate usernameFormat;
+    private final boolean cacheUsernames;
+    private final String avatarFormat;
+    private final Function<String, UUID> uuidResolver;
+    private final Map<String, String> usernames;
+    private final Map<String, String> avatars;
+
+    /**
+     * Constructs a new {@code WebhookProfiles}.
+     *
+     * @param config       the webhook formatting configuration
+     * @param uuidResolver maps a player name to the UUID used in avatar URLs
+     * @param capacity     the maximum number of cached usernames and avatar URLs each; must be positive
+     * @throws NullPointerException     if {@code config} or {@code uuidResolver} is {@code null}
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public WebhookProfiles(WebhookConfig config, Function<String, UUID> uuidResolver, int capacity) {
+        Objects.requireNonNull(config, "config must not be null");
+        this.uuidResolver = Objects.requireNonNull(uuidResolver, "uuidResolver must not be null");
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.usernameFormat = ChatTemplate.compile(config.usernameFormat());
+        this.cacheUsernames = usernameFormat.segments().stream()
+                .allMatch(segment -> !(segment instanceof Field field) || field == Field.USERNAME);
+        this.avatarFormat = config.avatarUrl();
+        this.usernames = lru(capacity);
+        this.avatars = lru(capacity);
+    }
+
+    private static Map<String, String> lru(int capacity) {
+        return new LinkedHashMap<>(Math.min(capacity, 256), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the UUID an offline-mode server assigns to the given player name.
+     *
+     * @param username the player name
+     * @return the offline-mode UUID
+     */
+    public static UUID offlineUuid(String username) {
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + username).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the name to post the message under, without the substrings Discord forbids and
+     * truncated to {@link #MAX_USERNAME_LENGTH} without splitting a surrogate pair.
+     *
+     * @param message the message being posted
+     * @return the rendered username, or {@link #FALLBACK_USERNAME} if it would be blank
+     */
+    public String username(Message message) {
+        if (!cacheUsernames) return render(message);
+        synchronized (usernames) {
+            return usernames.computeIfAbsent(message.username(), _ -> render(message));
+        }
+    }
+
+    private String render(Message message) {
+        String name = stripForbidden(usernameFormat.render(message));
+        if (name.isEmpty()) return FALLBACK_USERNAME;
+        if (name.length() <= MAX_USERNAME_LENGTH) return name;
+
+        int cut = MAX_USERNAME_LENGTH;
+        if (Character.isHighSurrogate(name.charAt(cut - 1))) cut--;
+        return name.substring(0, cut);
+    }
+
+    /**
+     * Removes every occurrence of a substring Discord forbids in webhook usernames, including
+     * ones formed by an earlier removal, and surrounding whitespace.
+     */
+    static String stripForbidden(String name) {
+        String stripped = name;
+        Matcher matcher = FORBIDDEN.matcher(stripped);
+        while (matcher.find()) {
+            stripped = matcher.replaceAll("");
+            matcher = FORBIDDEN.matcher(stripped);
+        }
+        return stripped.strip();
+    }
+
+    /**
+     * Returns the avatar URL to post the message with.
+     *
+     * @param message the message being posted
+     * @return the rendered avatar URL
+     */
+    public String avatarUrl(Message message) {
+        synchronized (avatars) {
+            return avatars.computeIfAbsent(message.username(),
+                    name -> avatarFormat.replace("{uuid}", uuidResolver.apply(name).toString()));
+        }
+    }
+
+    /**
+     * Returns the number of cached avatar URLs.
+     */
+    public int cachedAvatars() {
+        synchronized (avatars) {
+            return avatars.size();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate.Field;
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate.Literal;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static net.kyori.adventure.text.Component.text;
+
+/**
+ * Renders a {@link ChatTemplate} straight into an Adventure {@link Component} tree.
+ *
+ * <p>Literal segments are turned into components once, when the template is created, and
+ * shared by every rendered message. Per message, only the field values are wrapped, and the
+ * message body goes through a configurable renderer so it can be styled separately.
+ */
+public final class ComponentTemplate {
+    private final ChatTemplate template;
+    private final @Nullable Component prefix;
+    private final Function<Message, Component> body;
+    private final Object[] parts;
+
+    private ComponentTemplate(ChatTemplate template, @Nullable Component prefix, Function<Message, Component> body) {
+        this.template = template;
+        this.prefix = prefix;
+        this.body = body;
+
+        List<ChatTemplate.Segment> segments = template.segments();
+        this.parts = new Object[segments.size()];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = switch (segments.get(i)) {
+                case Literal(String text) -> text(text);
+                case Field field -> field;
+            };
+        }
+    }
+
+    /**
+     * Creates a component template rendering the message body as plain text.
+     *
+     * @param template the compiled chat template
+     * @return a new {@code ComponentTemplate}
+     * @throws NullPointerException if {@code template} is {@code null}
+     */
+    public static ComponentTemplate of(ChatTemplate template) {
+        Objects.requireNonNull(template, "template must not be null");
+        return new ComponentTemplate(template, null, message -> text(message.rawMessage()));
+    }
+
+    /**
+     * Returns a copy that renders {@code prefix} before the template.
+     *
+     * @param prefix the shared prefix component
+     * @return a new {@code ComponentTemplate}
+     */
+    public ComponentTemplate withPrefix(Component prefix) {
+        return new ComponentTemplate(template, Objects.requireNonNull(prefix, "prefix must not be null"), body);
+    }
+
+    /**
+     * Returns a copy that renders the {@code {message}} field with {@code body}.
+     *
+     * @param body converts the message body into a component, e.g. {@link DiscordMarkdown#render}
+     * @return a new {@code ComponentTemplate}
+     */
+    public ComponentTemplate withBody(Function<Message, Component> body) {
+        return new ComponentTemplate(template, prefix, Objects.requireNonNull(body, "body must not be null"));
+    }
+
+    /**
+     * Renders the template for a message.
+     *
+     * @param message the message to render
+     * @return the rendered component
+     */
+    public Component render(Message message) {
+        TextComponent.Builder out = Component.text();
+        if (prefix != null) out.append(prefix);
+
+        for (Object part : parts) {
+            switch (part) {
+                case Field.MESSAGE -> out.append(body.apply(message));
+                case Field field -> out.append(text(field.valueOf(message)));
+                case Component literal -> out.append(literal);
+                default -> throw new IllegalStateException("Unexpected template part: " + part);
+            }
+        }
+        return out.build();
+    }
+
+    /**
+     * Returns the underlying chat template.
+     */
+    public ChatTemplate template() {
+        return template;
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.DiscordDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.MarkdownParser.Span;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static net.kyori.adventure.text.Component.text;
+
+/**
+ * Converts Discord markdown into styled Adventure {@link Component}s.
+ *
+ * <p>Bold, italics, underline, strikethrough, spoilers and code spans are supported; see
+ * {@link MarkdownParser} for the parsing rules. Spoilers are obfuscated and reveal their text
+ * on hover. Messages are relayed from Discord with mentions already shown as names, so they
+ * need no handling here.
+ *
+ * <p>The {@link Style} for every combination of formats is built once and shared. Converted
+ * results are kept in a small least-recently-used cache, so content that repeats, such as bot
+ * announcements, is only parsed once.
+ */
+public final class DiscordMarkdown {
+    private static final Style[] STYLES = buildStyles();
+
+    private final Map<String, Component> cache;
+
+    /**
+     * Constructs a new {@code DiscordMarkdown}.
+     *
+     * @param cacheSize the maximum number of cached conversions; must be positive
+     * @throws IllegalArgumentException if {@code cacheSize} is not positive
+     */
+    public DiscordMarkdown(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+        }
+        this.cache = new LinkedHashMap<>(Math.min(cacheSize, 256), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Component> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Converts a message body if the message came from Discord, or returns it as plain text.
+     *
+     * @param message the message to render
+     * @return the rendered body
+     */
+    public Component render(Message message) {
+        return message.source().startsWith(DiscordDuplexNode.ID_PREFIX)
+                ? convert(message.rawMessage())
+                : text(message.rawMessage());
+    }
+
+    /**
+     * Converts Discord markdown into a component.
+     *
+     * @param markdown the markdown text
+     * @return the styled component
+     */
+    public Component convert(String markdown) {
+        Objects.requireNonNull(markdown, "markdown must not be null");
+        if (!MarkdownParser.mayContainMarkdown(markdown)) return text(markdown);
+
+        synchronized (cache) {
+            Component cached = cache.get(markdown);
+            if (cached != null) return cached;
+        }
+
+        Component converted = build(MarkdownParser.parse(markdown));
+        synchronized (cache) {
+            cache.put(markdown, converted);
+        }
+        return converted;
+    }
+
+    private Component build(List<Span> spans) {
+        if (spans.size() == 1) return component(spans.getFirst());
+
+        TextComponent.Builder out = Component.text();
+        for (Span span : spans) {
+            out.append(component(span));
+        }
+        return out.build();
+    }
+
+    private Component component(Span span) {
+        Component component = text(span.text(), STYLES[span.style()]);
+        if ((span.style() & MarkdownParser.SPOILER) != 0) {
+            component = component.hoverEvent(HoverEvent.showText(text(span.text())));
+        }
+        return component;
+    }
+
+    private static Style[] buildStyles() {
+        Style[] styles = new Style[MarkdownParser.CODE << 1];
+        for (int bits = 0; bits < styles.length; bits++) {
+            Style.Builder style = Style.style();
+            if ((bits & MarkdownParser.BOLD) != 0) style.decoration(TextDecoration.BOLD, true);
+            if ((bits & MarkdownParser.ITALIC) != 0) style.decoration(TextDecoration.ITALIC, true);
+            if ((bits & MarkdownParser.UNDERLINE) != 0) style.decoration(TextDecoration.UNDERLINED, true);
+            if ((bits & MarkdownParser.STRIKE) != 0) style.decoration(TextDecoration.STRIKETHROUGH, true);
+            if ((bits & MarkdownParser.SPOILER) != 0) style.decoration(TextDecoration.OBFUSCATED, true);
+            if ((bits & MarkdownParser.CODE) != 0) style.color(NamedTextColor.GRAY);
+            styles[bits] = style.build();
+        }
+        return styles;
+    }
+}
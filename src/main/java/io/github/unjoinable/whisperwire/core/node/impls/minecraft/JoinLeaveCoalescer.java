@@ -0,0 +1,149 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collapses bursts of joins and leaves into summary lines.
+ *
+ * <p>The first join or leave after an idle period schedules a flush {@code window} later, and
+ * every join or leave until then is added to the same batch. On flush, joins and leaves are
+ * reported separately: if fewer than {@code threshold} players joined, each join gets its own
+ * line, otherwise a single line such as {@code 12 players joined: a, b, c, …} is emitted.
+ * Leaves are handled the same way. This keeps a server restart, where every player reconnects
+ * at once, from turning into one Discord message per player.
+ */
+public final class JoinLeaveCoalescer {
+
+    /**
+     * The maximum number of names listed in a summary line.
+     */
+    public static final int MAX_LISTED_NAMES = 10;
+
+    private static final ScheduledExecutorService SHARED_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("whisperwire-join-leave").daemon().factory());
+
+    private final Consumer<String> sink;
+    private final long windowNanos;
+    private final int threshold;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<String> joined = new ArrayList<>();
+    private List<String> left = new ArrayList<>();
+    private boolean flushScheduled;
+
+    /**
+     * Constructs a coalescer using a shared daemon scheduler.
+     *
+     * @param sink      receives each line to announce
+     * @param window    how long to gather joins and leaves before announcing them
+     * @param threshold how many joins or leaves in one window are summarized in a single line
+     */
+    public JoinLeaveCoalescer(Consumer<String> sink, Duration window, int threshold) {
+        this(sink, window, threshold, SHARED_SCHEDULER);
+    }
+
+    /**
+     * Constructs a coalescer.
+     *
+     * @param sink      receives each line to announce
+     * @param window    how long to gather joins and leaves before announcing them; must not be negative
+     * @param threshold how many joins or leaves in one window are summarized in a single line; must be positive
+     * @param scheduler the scheduler used to trigger flushes
+     * @throws NullPointerException     if any reference argument is {@code null}
+     * @throws IllegalArgumentException if {@code window} is negative or {@code threshold} is not positive
+     */
+    public JoinLeaveCoalescer(Consumer<String> sink, Duration window, int threshold, ScheduledExecutorService scheduler) {
+        this.sink = Objects.requireNonNull(sink, "sink must not be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+        Objects.requireNonNull(window, "window must not be null");
+
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("window must not be negative: " + window);
+        }
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        this.windowNanos = window.toNanos();
+        this.threshold = threshold;
+    }
+
+    /**
+     * Records that a player joined.
+     *
+     * @param username the player's name
+     */
+    public void joined(String username) {
+        Objects.requireNonNull(username, "username must not be null");
+        synchronized (lock) {
+            joined.add(username);
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Records that a player left.
+     *
+     * @param username the player's name
+     */
+    public void left(String username) {
+        Objects.requireNonNull(username, "username must not be null");
+        synchronized (lock) {
+            left.add(username);
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Announces everything gathered so far without waiting for the window to elapse.
+     */
+    public void flush() {
+        List<String> joinedBatch;
+        List<String> leftBatch;
+        synchronized (lock) {
+            flushScheduled = false;
+            joinedBatch = joined;
+            leftBatch = left;
+            joined = new ArrayList<>();
+            left = new ArrayList<>();
+        }
+
+        announce(joinedBatch, "joined");
+        announce(leftBatch, "left");
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void announce(List<String> names, String verb) {
+        if (names.isEmpty()) return;
+
+        if (names.size() < threshold) {
+            for (String name : names) {
+                sink.accept(name + " " + verb + " the game");
+            }
+            return;
+        }
+
+        StringBuilder line = new StringBuilder()
+                .append(names.size()).append(" players ").append(verb).append(": ");
+        int listed = Math.min(names.size(), MAX_LISTED_NAMES);
+        for (int i = 0; i < listed; i++) {
+            if (i > 0) line.append(", ");
+            line.append(names.get(i));
+        }
+        if (listed < names.size()) line.append(", …");
+        sink.accept(line.toString());
+    }
+}
@@ -0,0 +1,218 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits Discord markdown into runs of text that share the same styling.
+ *
+ * <p>Parsing is a single left-to-right pass. Delimiters are tokenized as they are met and
+ * paired with a per-kind table of open delimiters; since each kind can only be open once,
+ * matching costs a constant amount of work per token and there is no backtracking. A closing
+ * delimiter also discards every delimiter opened inside it that is still unclosed, so styles
+ * always nest properly. Unpaired delimiters are emitted as literal text, as Discord does.
+ * A {@code ***} run is split into bold and italic so that whichever was opened last is closed
+ * first, which makes {@code ***bold italic***} work.
+ *
+ * <p>Supported syntax: {@code **bold**}, {@code *italic*}, {@code _italic_},
+ * {@code __underline__}, {@code ~~strike~~}, {@code ||spoiler||}, {@code `code`} and
+ * backslash escapes. Mentions are expected to have been resolved to display names already.
+ */
+final class MarkdownParser {
+    static final int BOLD = 1;
+    static final int ITALIC = 1 << 1;
+    static final int UNDERLINE = 1 << 2;
+    static final int STRIKE = 1 << 3;
+    static final int SPOILER = 1 << 4;
+    static final int CODE = 1 << 5;
+
+    // Delimiter kinds and the style each one applies
+    private static final int K_BOLD = 0;
+    private static final int K_ITALIC_STAR = 1;
+    private static final int K_ITALIC_UNDERSCORE = 2;
+    private static final int K_UNDERLINE = 3;
+    private static final int K_STRIKE = 4;
+    private static final int K_SPOILER = 5;
+    private static final int[] STYLE_OF = {BOLD, ITALIC, ITALIC, UNDERLINE, STRIKE, SPOILER};
+    private static final String[] DELIMITER = {"**", "*", "_", "__", "~~", "||"};
+
+    private static final int TEXT = -1;
+    private static final int CODE_SPAN = -2;
+
+    private MarkdownParser() {}
+
+    /**
+     * A run of text with a combination of the style bits above.
+     */
+    record Span(String text, int style) {}
+
+    /**
+     * Returns whether the text contains any character that may start markdown.
+     */
+    static boolean mayContainMarkdown(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            switch (input.charAt(i)) {
+                case '*', '_', '~', '|', '`', '\\' -> {
+                    return true;
+                }
+                default -> {}
+            }
+        }
+        return false;
+    }
+
+    static List<Span> parse(String input) {
+        List<Token> tokens = tokenize(input);
+        List<Span> spans = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int active = 0;
+
+        for (Token token : tokens) {
+            int style = styleOf(active);
+            switch (token.kind) {
+                case TEXT -> text.append(token.text);
+                case CODE_SPAN -> {
+                    flush(spans, text, style);
+                    spans.add(new Span(token.text, style | CODE));
+                }
+                default -> {
+                    if (token.partner < 0) {
+                        text.append(token.text);
+                    } else {
+                        flush(spans, text, style);
+                        active ^= 1 << token.kind;
+                    }
+                }
+            }
+        }
+
+        flush(spans, text, styleOf(active));
+        return spans;
+    }
+
+    private static List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int[] openAt = new int[DELIMITER.length];
+        Arrays.fill(openAt, -1);
+        boolean moreBackticks = true;
+
+        int i = 0;
+        int n = input.length();
+        while (i < n) {
+            char c = input.charAt(i);
+            char next = i + 1 < n ? input.charAt(i + 1) : 0;
+
+            if (c == '\\' && isMarkdownChar(next)) {
+                text.append(next);
+                i += 2;
+                continue;
+            }
+
+            if (c == '`' && moreBackticks) {
+                int close = input.indexOf('`', i + 1);
+                if (close < 0) {
+                    moreBackticks = false;
+                } else if (close > i + 1) {
+                    flushText(tokens, text);
+                    tokens.add(new Token(CODE_SPAN, input.substring(i + 1, close)));
+                    i = close + 1;
+                    continue;
+                }
+            }
+
+            int kind = switch (c) {
+                case '*' -> next != '*' ? K_ITALIC_STAR
+                        : i + 2 < n && input.charAt(i + 2) == '*' && openAt[K_ITALIC_STAR] > openAt[K_BOLD]
+                        ? K_ITALIC_STAR
+                        : K_BOLD;
+                case '_' -> next == '_' ? K_UNDERLINE : K_ITALIC_UNDERSCORE;
+                case '~' -> next == '~' ? K_STRIKE : -1;
+                case '|' -> next == '|' ? K_SPOILER : -1;
+                default -> -1;
+            };
+
+            if (kind < 0) {
+                text.append(c);
+                i++;
+                continue;
+            }
+
+            int length = DELIMITER[kind].length();
+            flushText(tokens, text);
+            Token token = new Token(kind, DELIMITER[kind]);
+            int open = openAt[kind];
+
+            if (open >= 0 && open != tokens.size() - 1 && canClose(input, i, length, kind)) {
+                Token opening = tokens.get(open);
+                opening.partner = tokens.size();
+                token.partner = open;
+                openAt[kind] = -1;
+
+                // Anything opened inside and still unclosed can no longer be paired
+                for (int k = 0; k < openAt.length; k++) {
+                    if (openAt[k] > open) openAt[k] = -1;
+                }
+            } else if (open < 0 && canOpen(input, i, kind)) {
+                openAt[kind] = tokens.size();
+            }
+
+            tokens.add(token);
+            i += length;
+        }
+
+        flushText(tokens, text);
+        return tokens;
+    }
+
+    /**
+     * Underscore italics only apply at word boundaries, so {@code snake_case_names} stay as is.
+     */
+    private static boolean canOpen(String input, int at, int kind) {
+        return kind != K_ITALIC_UNDERSCORE || at == 0 || !Character.isLetterOrDigit(input.charAt(at - 1));
+    }
+
+    private static boolean canClose(String input, int at, int length, int kind) {
+        int after = at + length;
+        return kind != K_ITALIC_UNDERSCORE || after >= input.length() || !Character.isLetterOrDigit(input.charAt(after));
+    }
+
+    private static boolean isMarkdownChar(char c) {
+        return switch (c) {
+            case '*', '_', '~', '|', '`', '<', '>', '\\', '@' -> true;
+            default -> false;
+        };
+    }
+
+    private static int styleOf(int active) {
+        int style = 0;
+        for (int kind = 0; kind < STYLE_OF.length; kind++) {
+            if ((active & (1 << kind)) != 0) style |= STYLE_OF[kind];
+        }
+        return style;
+    }
+
+    private static void flushText(List<Token> tokens, StringBuilder text) {
+        if (text.isEmpty()) return;
+        tokens.add(new Token(TEXT, text.toString()));
+        text.setLength(0);
+    }
+
+    private static void flush(List<Span> spans, StringBuilder text, int style) {
+        if (text.isEmpty()) return;
+        spans.add(new Span(text.toString(), style));
+        text.setLength(0);
+    }
+
+    private static final class Token {
+        private final int kind;
+        private final String text;
+        private int partner = -1;
+
+        Token(int kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
 
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
 import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.metrics.NodeMetrics;
+import io.github.unjoinable.whisperwire.core.metrics.RelayMetrics;
 import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
 import net.kyori.adventure.text.Component;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.adventure.audience.PacketGroupingAudience;
 import net.minestom.server.entity.Player;
+import net.minestom.server.network.packet.server.play.SystemChatPacket;
+import net.minestom.server.timer.Scheduler;
+import org.jspecify.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
 import static net.kyori.adventure.text.Component.text;
@@ -18,23 +29,73 @@ import static net.kyori.adventure.text.format.NamedTextColor.BLUE;
  * A {@link io.github.unjoinable.whisperwire.core.node.DuplexNode} implementation
  * for Minestom that broadcasts external messages (e.g., from Discord)
  * to all connected in-game players.
+ *
+ * <p>Each message is broadcast as a single grouped {@link SystemChatPacket}: the packet is
+ * encoded once and the same bytes are written to every player connection, instead of
+ * serializing the chat component separately for each player.
+ *
+ * <p>Messages are not sent from the caller's thread. They are queued without locking and
+ * flushed in one batch on the next server tick through Minestom's {@link Scheduler}, with the
+ * player list fetched once per batch. At most {@code maxPerTick} messages are flushed per tick;
+ * the rest carry over to the following ticks. Each message's future completes when the tick
+ * that broadcasts it has done so.
+ *
+ * <p>Messages are formatted with a {@link ComponentTemplate}, by default a blue
+ * {@code [Discord]} prefix followed by {@code {username}: {message}}, with Discord markdown
+ * in the body converted by {@link DiscordMarkdown}.
  */
 public class MinestomDuplexNode extends AbstractDuplexNode {
     private static final Component DISCORD_PREFIX = text("[Discord] ", BLUE);
+
+    /**
+     * The template messages are rendered with unless {@link Builder#format} sets another.
+     */
+    public static final ComponentTemplate DEFAULT_FORMAT = ComponentTemplate
+            .of(ChatTemplate.compile("{username}: {message}"))
+            .withPrefix(DISCORD_PREFIX)
+            .withBody(new DiscordMarkdown(id -> id, 256)::render);
+
+    private static final int DEFAULT_MAX_PER_TICK = 64;
+
     private final Supplier<Collection<Player>> playerSupplier;
+    private final @Nullable Scheduler scheduler;
+    private final int maxPerTick;
+    private final ComponentTemplate format;
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final @Nullable NodeMetrics metrics;
 
     /**
-     * Constructs a new {@code MinestomDuplexNode}.
+     * Constructs a new {@code MinestomDuplexNode} flushing on the server's scheduler.
+     * The scheduler is looked up on the first send, so the server must be initialized by then.
      *
      * @param playerSupplier a supplier that provides the current online players
      */
     public MinestomDuplexNode(Supplier<Collection<Player>> playerSupplier) {
+        this(builder(playerSupplier));
+    }
+
+    private MinestomDuplexNode(Builder builder) {
         super("minestom-" + UUID.randomUUID().toString().substring(0, 8));
-        this.playerSupplier = Objects.requireNonNull(playerSupplier);
+        this.playerSupplier = builder.playerSupplier;
+        this.scheduler = builder.scheduler;
+        this.maxPerTick = builder.maxPerTick;
+        this.format = builder.format;
+        this.metrics = builder.metrics != null ? builder.metrics.node(id()) : null;
+    }
+
+    /**
+     * Creates a new builder for a node broadcasting to the given players.
+     *
+     * @param playerSupplier a supplier that provides the current online players
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(Supplier<Collection<Player>> playerSupplier) {
+        return new Builder(playerSupplier);
     }
 
     /**
-     * Asynchronously broadcasts a message to all online players.
+     * Queues a message for broadcast to all online players on the next tick.
      *
      * @param message the message to send; must not be {@code null}
      * @return a {@link CompletableFuture} that completes after the message is broadcast
@@ -43,12 +104,54 @@ public class MinestomDuplexNode extends AbstractDuplexNode {
     public CompletableFuture<Void> sendMessage(Message message) {
         Objects.requireNonNull(message, "message must not be null");
 
-        return CompletableFuture.runAsync(() -> {
-            Component formatted = DISCORD_PREFIX.append(
-                    text(message.username() + ": " + message.rawMessage())
-            );
-            playerSupplier.get().forEach(player -> player.sendMessage(formatted));
-        });
+        Pending entry = new Pending(message, new CompletableFuture<>());
+        pending.add(entry);
+        scheduleFlush();
+        return entry.future;
+    }
+
+    /**
+     * Lets up to one tick's worth of messages be outstanding, since they are flushed in order.
+     */
+    @Override
+    public int maxInFlight() {
+        return maxPerTick;
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            Scheduler target = scheduler != null ? scheduler : MinecraftServer.getSchedulerManager();
+            target.scheduleNextTick(this::flush);
+        }
+    }
+
+    /**
+     * Broadcasts up to {@code maxPerTick} queued messages. Runs on the tick thread.
+     */
+    private void flush() {
+        flushScheduled.set(false);
+
+        Collection<Player> players = playerSupplier.get();
+        @Nullable PacketGroupingAudience audience = players.isEmpty() ? null : PacketGroupingAudience.of(players);
+
+        for (int i = 0; i < maxPerTick; i++) {
+            Pending next = pending.poll();
+            if (next == null) break;
+
+            try {
+                if (audience != null) {
+                    long start = metrics != null ? System.nanoTime() : 0;
+                    Component component = format.render(next.message);
+                    if (metrics != null) metrics.recordFormat(System.nanoTime() - start);
+                    audience.sendGroupedPacket(new SystemChatPacket(component, false));
+                }
+                next.future.complete(null);
+            } catch (RuntimeException e) {
+                next.future.completeExceptionally(e);
+            }
+        }
+
+        if (!pending.isEmpty()) scheduleFlush();
     }
 
     @Override
@@ -62,4 +165,62 @@ public class MinestomDuplexNode extends AbstractDuplexNode {
     public int hashCode() {
         return Objects.hash(super.hashCode(), playerSupplier);
     }
-}
\ No newline at end of file
+
+    private record Pending(Message message, CompletableFuture<Void> future) {}
+
+    /**
+     * Builder for {@link MinestomDuplexNode}.
+     */
+    public static class Builder {
+        private final Supplier<Collection<Player>> playerSupplier;
+        private @Nullable Scheduler scheduler;
+        private int maxPerTick = DEFAULT_MAX_PER_TICK;
+        private ComponentTemplate format = DEFAULT_FORMAT;
+        private @Nullable RelayMetrics metrics;
+
+        private Builder(Supplier<Collection<Player>> playerSupplier) {
+            this.playerSupplier = Objects.requireNonNull(playerSupplier, "playerSupplier must not be null");
+        }
+
+        /**
+         * Sets the scheduler whose ticks messages are flushed on. Defaults to the server's,
+         * looked up on the first send.
+         */
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = Objects.requireNonNull(scheduler, "scheduler must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of messages broadcast per tick. Defaults to 64.
+         */
+        public Builder maxPerTick(int maxPerTick) {
+            if (maxPerTick <= 0) {
+                throw new IllegalArgumentException("maxPerTick must be positive: " + maxPerTick);
+            }
+            this.maxPerTick = maxPerTick;
+            return this;
+        }
+
+        /**
+         * Sets the template messages are rendered with, e.g. from the configured
+         * {@code discord_to_mc_format}.
+         */
+        public Builder format(ComponentTemplate format) {
+            this.format = Objects.requireNonNull(format, "format must not be null");
+            return this;
+        }
+
+        /**
+         * Records how long rendering takes into the node's entry in {@code metrics}.
+         */
+        public Builder metrics(RelayMetrics metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics must not be null");
+            return this;
+        }
+
+        public MinestomDuplexNode build() {
+            return new MinestomDuplexNode(this);
+        }
+    }
+}
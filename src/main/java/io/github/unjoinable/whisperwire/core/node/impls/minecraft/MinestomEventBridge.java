@@ -0,0 +1,127 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.config.configs.MinecraftConfig;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.event.Event;
+import net.minestom.server.event.EventNode;
+import net.minestom.server.event.player.PlayerChatEvent;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
+import net.minestom.server.event.player.PlayerSpawnEvent;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+
+/**
+ * Turns Minestom player chat, joins and leaves into {@link Message}s relayed through a
+ * {@link LinkManager}.
+ *
+ * <p>All listeners live in a dedicated {@link EventNode}, which {@link #register()} attaches to
+ * the server's global event handler, or {@link #register(EventNode)} to another node. Chat is only relayed if
+ * {@link MinecraftConfig#enableChatBridge()} is set, and joins and leaves only if
+ * {@link MinecraftConfig#showJoinLeave()} is set. Joins and leaves are passed through a
+ * {@link JoinLeaveCoalescer} using the configured window and summary threshold, and are
+ * relayed with {@value #SERVER_USERNAME} as the username.
+ *
+ * <p>Messages are relayed as coming from {@code source}, typically the server's
+ * {@link MinestomDuplexNode}, so they are never echoed back into the game.
+ */
+public final class MinestomEventBridge {
+    private static final Logger log = LoggerFactory.getLogger(MinestomEventBridge.class);
+
+    /**
+     * The username join and leave announcements are relayed with.
+     */
+    public static final String SERVER_USERNAME = "Server";
+
+    private final LinkManager linkManager;
+    private final DuplexNode source;
+    private final EventNode<Event> eventNode = EventNode.all("whisperwire");
+    private final @Nullable JoinLeaveCoalescer joinLeave;
+    private @Nullable EventNode<Event> parent;
+
+    /**
+     * Constructs a new bridge.
+     *
+     * @param linkManager the link manager to relay into
+     * @param source      the node the relayed messages come from
+     * @param config      the Minecraft configuration
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public MinestomEventBridge(LinkManager linkManager, DuplexNode source, MinecraftConfig config) {
+        this.linkManager = Objects.requireNonNull(linkManager, "linkManager must not be null");
+        this.source = Objects.requireNonNull(source, "source must not be null");
+        Objects.requireNonNull(config, "config must not be null");
+
+        if (config.enableChatBridge()) {
+            eventNode.addListener(PlayerChatEvent.class, event ->
+                    relay(Message.of(source.id(), event.getPlayer().getUsername(), event.getRawMessage())));
+        }
+
+        if (config.showJoinLeave()) {
+            JoinLeaveCoalescer coalescer = new JoinLeaveCoalescer(
+                    line -> relay(Message.of(source.id(), SERVER_USERNAME, line)),
+                    config.joinLeaveWindow(),
+                    config.joinLeaveSummaryThreshold());
+            eventNode.addListener(PlayerSpawnEvent.class, event -> {
+                if (event.isFirstSpawn()) coalescer.joined(event.getPlayer().getUsername());
+            });
+            eventNode.addListener(PlayerDisconnectEvent.class, event -> coalescer.left(event.getPlayer().getUsername()));
+            this.joinLeave = coalescer;
+        } else {
+            this.joinLeave = null;
+        }
+    }
+
+    /**
+     * Attaches the bridge's listeners to the server's global event handler.
+     */
+    public void register() {
+        register(MinecraftServer.getGlobalEventHandler());
+    }
+
+    /**
+     * Attaches the bridge's listeners to the given event node.
+     *
+     * @param parent the node to attach to
+     * @throws IllegalStateException if the bridge is already registered
+     */
+    public synchronized void register(EventNode<Event> parent) {
+        Objects.requireNonNull(parent, "parent must not be null");
+        if (this.parent != null) throw new IllegalStateException("MinestomEventBridge is already registered");
+        parent.addChild(eventNode);
+        this.parent = parent;
+    }
+
+    /**
+     * Detaches the bridge's listeners from the node they were registered on and announces any
+     * joins and leaves still being gathered.
+     */
+    public synchronized void unregister() {
+        if (parent != null) {
+            parent.removeChild(eventNode);
+            parent = null;
+        }
+        if (joinLeave != null) joinLeave.flush();
+    }
+
+    /**
+     * Returns the event node holding the bridge's listeners, to attach it somewhere other
+     * than the global event handler.
+     */
+    public EventNode<Event> eventNode() {
+        return eventNode;
+    }
+
+    private void relay(Message message) {
+        linkManager.relay(source, message).whenComplete((_, error) -> {
+            if (error != null) {
+                log.warn("Failed to relay message from {}", source.id(), error);
+            }
+        });
+    }
+}
@@ -0,0 +1,289 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.message.MessageCodec;
+import io.github.unjoinable.whisperwire.core.node.impls.socket.BridgeSession.Outbound;
+import org.jspecify.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One connection of a {@link SocketBridge}, confined to the bridge's selector thread.
+ *
+ * <p>Writes are batched: every flush fills the write buffer with as many frames as fit,
+ * pending acknowledgement first, and hands them to the socket in one call. If the socket does
+ * not take everything, the connection waits for it to become writable before encoding more,
+ * so a slow peer holds messages in its session rather than in socket buffers. Reads likewise
+ * handle every complete frame received. Received messages are acknowledged with a single
+ * cumulative {@link Frame#ACK} once they have been relayed, and reading stops while a window's
+ * worth of them are still waiting to be, so a backed-up relay pushes back on the peer.
+ *
+ * <p>Both sides open with a {@link Frame#CHALLENGE} carrying a random nonce. The connecting
+ * side answers the listener's with its {@link Frame#HELLO}, the listener replies with its own,
+ * and each HELLO is authenticated against the nonce of its receiver, so a recorded one cannot
+ * be replayed. Messages are only written once the HELLOs have been exchanged, which settles
+ * what the peer already has. Until then the connection only holds buffers large enough for
+ * the handshake, so sockets that never complete it cost little.
+ */
+final class BridgeConnection {
+    /** The size of the buffers used until the handshake completes. */
+    private static final int HANDSHAKE_BUFFER_SIZE = 4096;
+    private static final int BUFFER_SIZE = Frame.LENGTH_SIZE + Frame.MAX_SIZE;
+
+    private final SocketBridge bridge;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final byte[] nonce;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(HANDSHAKE_BUFFER_SIZE);
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(HANDSHAKE_BUFFER_SIZE);
+    private final MessageCodec.Encoder encoder = MessageCodec.encoder();
+    private final MessageCodec.Decoder decoder = MessageCodec.decoder();
+
+    private @Nullable BridgeSession session;
+    private byte @Nullable [] peerNonce;
+    private boolean established;
+    private boolean ackDue;
+    private @Nullable Outbound carry;
+
+    /**
+     * Creates a connection.
+     *
+     * @param session the session of the peer, if known in advance because we connected to it
+     */
+    BridgeConnection(SocketBridge bridge, SocketChannel channel, SelectionKey key, @Nullable BridgeSession session) {
+        this.bridge = bridge;
+        this.channel = channel;
+        this.key = key;
+        this.session = session;
+        this.nonce = bridge.nonce();
+    }
+
+    SocketChannel channel() {
+        return channel;
+    }
+
+    @Nullable BridgeSession session() {
+        return session;
+    }
+
+    /**
+     * Returns whether both {@link Frame#HELLO}s have been exchanged.
+     */
+    boolean established() {
+        return established;
+    }
+
+    /**
+     * Returns the nonce the peer's {@link Frame#HELLO} must be authenticated against.
+     */
+    byte[] nonce() {
+        return nonce;
+    }
+
+    /**
+     * Queues our {@link Frame#CHALLENGE}. It is written by the next {@link #flush()}.
+     */
+    void sendChallenge() {
+        Frame.putChallenge(writeBuffer, nonce);
+    }
+
+    /**
+     * Queues our {@link Frame#HELLO}, authenticated against the peer's nonce. It is written by
+     * the next {@link #flush()}.
+     *
+     * @throws IOException if the peer has not sent its {@link Frame#CHALLENGE}
+     */
+    void sendHello(BridgeSession peer) throws IOException {
+        byte[] challenge = peerNonce;
+        if (challenge == null) throw new IOException("HELLO before CHALLENGE");
+        Frame.putHello(writeBuffer, bridge.name(), bridge.sessionId(), peer.peerSessionId, peer.relayed,
+                bridge.mac(bridge.name(), bridge.sessionId(), challenge));
+    }
+
+    /**
+     * Acknowledges {@link BridgeSession#relayed} with the next {@link #flush()}.
+     */
+    void acknowledgeRelayed() {
+        ackDue = true;
+    }
+
+    /**
+     * Reads and handles every complete frame available, then flushes.
+     *
+     * @throws IOException if the connection was closed or the peer broke the protocol
+     */
+    void read() throws IOException {
+        if (channel.read(readBuffer) < 0) throw new EOFException("Connection closed by peer");
+
+        readBuffer.flip();
+        try {
+            while (readBuffer.remaining() >= Frame.LENGTH_SIZE) {
+                int length = readBuffer.getInt(readBuffer.position());
+                int max = established ? Frame.MAX_SIZE : HANDSHAKE_BUFFER_SIZE - Frame.LENGTH_SIZE;
+                if (length < 1 || length > max) throw new IOException("Invalid frame length " + length);
+                if (readBuffer.remaining() < Frame.LENGTH_SIZE + length) break;
+
+                ByteBuffer frame = readBuffer.slice(readBuffer.position() + Frame.LENGTH_SIZE, length);
+                readBuffer.position(readBuffer.position() + Frame.LENGTH_SIZE + length);
+                handle(frame);
+            }
+        } finally {
+            readBuffer.compact();
+        }
+        if (established && readBuffer.capacity() < BUFFER_SIZE) {
+            readBuffer = grow(readBuffer, ByteBuffer.allocate(BUFFER_SIZE));
+        }
+        flush();
+    }
+
+    private void handle(ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        if (type == Frame.CHALLENGE) {
+            if (peerNonce != null) throw new IOException("Duplicate CHALLENGE");
+            peerNonce = Frame.getNonce(frame);
+            BridgeSession peer = session;
+            if (peer != null) sendHello(peer); // We connected, so our HELLO goes first
+            return;
+        }
+        if (type == Frame.HELLO) {
+            if (established) throw new IOException("Duplicate HELLO");
+            if (peerNonce == null) throw new IOException("HELLO before CHALLENGE");
+            String name = Frame.getName(frame);
+            long peerSessionId = Frame.getLong(frame);
+            long ourSessionId = Frame.getLong(frame);
+            long lastRelayed = Frame.getLong(frame);
+            byte[] mac = Frame.getMac(frame);
+            session = bridge.handshake(this, session, name, peerSessionId, ourSessionId, lastRelayed, mac);
+            established = true;
+            writeBuffer = grow(writeBuffer, ByteBuffer.allocateDirect(BUFFER_SIZE));
+            return;
+        }
+
+        BridgeSession peer = session;
+        if (!established || peer == null) throw new IOException("Frame of type " + type + " before handshake");
+
+        switch (type) {
+            case Frame.MESSAGE -> {
+                long sequence = Frame.getLong(frame);
+                Message message;
+                try {
+                    // Decoded even when already received, to keep the codec session in step
+                    message = decoder.decode(frame);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    throw new IOException("Malformed message frame", e);
+                }
+                if (sequence > peer.lastReceived) {
+                    peer.lastReceived = sequence;
+                    bridge.deliver(peer, sequence, message);
+                } else {
+                    ackDue = true; // Resent after a reconnect, so the peer may be missing an ACK
+                }
+            }
+            case Frame.ACK -> peer.acknowledge(Frame.getLong(frame));
+            default -> throw new IOException("Unknown frame type " + type);
+        }
+    }
+
+    /**
+     * Writes as much as the socket takes, refilling the write buffer until there is nothing
+     * left to send or the socket is full.
+     *
+     * @throws IOException if writing fails
+     */
+    void flush() throws IOException {
+        // Still waiting for OP_CONNECT, which must not be replaced by the interest set below
+        if (!channel.isConnected()) return;
+
+        while (true) {
+            fill();
+            if (writeBuffer.position() == 0) {
+                key.interestOps(readInterest());
+                return;
+            }
+
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            boolean drained = !writeBuffer.hasRemaining();
+            writeBuffer.compact();
+
+            if (!drained) {
+                // Resumed when the socket becomes writable
+                key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns {@link SelectionKey#OP_READ} unless a window's worth of received messages are
+     * waiting to be relayed. Reading resumes with the flush that acknowledges their relay.
+     */
+    private int readInterest() {
+        BridgeSession peer = session;
+        return peer != null && peer.backlog.get() >= bridge.window() ? 0 : SelectionKey.OP_READ;
+    }
+
+    /**
+     * Encodes the pending acknowledgement and as many messages as fit into the write buffer.
+     */
+    private void fill() {
+        BridgeSession peer = session;
+        if (!established || peer == null) return;
+
+        if (ackDue && writeBuffer.remaining() >= Frame.ACK_SIZE) {
+            Frame.putAck(writeBuffer, peer.relayed);
+            ackDue = false;
+        }
+
+        while (true) {
+            Outbound next = carry != null ? carry : peer.next(bridge.window());
+            carry = null;
+            if (next == null) return;
+            if (next.acked.isDone()) continue;
+
+            int start = writeBuffer.position();
+            try {
+                Frame.begin(writeBuffer, Frame.MESSAGE);
+                writeBuffer.putLong(next.sequence);
+                encoder.encode(next.message, writeBuffer);
+                Frame.end(writeBuffer, start);
+            } catch (BufferOverflowException e) {
+                writeBuffer.position(start);
+                if (start == 0) {
+                    peer.reject(next, new IllegalArgumentException("Message exceeds the maximum frame size"));
+                    continue;
+                }
+                carry = next;
+                return;
+            } catch (IllegalArgumentException e) {
+                writeBuffer.position(start);
+                peer.reject(next, e);
+            }
+        }
+    }
+
+    /**
+     * Copies the contents of a buffer in write mode into a larger one.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, ByteBuffer into) {
+        return into.put(buffer.flip());
+    }
+
+    /**
+     * Closes the channel. The session, if any, is kept for the next connection.
+     */
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of the exchange with one peer, which outlives the connections to it.
+ *
+ * <p>Outgoing messages are numbered when they are first written and kept until the peer
+ * acknowledges them, so that after a reconnect everything the peer has not confirmed is sent
+ * again. Incoming sequence numbers are tracked so that messages received twice because of such
+ * a resend are delivered once.
+ *
+ * <p>Received messages are queued on {@link #inbound} and relayed in order by a task off the
+ * selector thread. {@link #relayed} only advances once a message's relay has returned, i.e. its
+ * offers were accepted by every delivery queue, and that is what the peer is acknowledged.
+ *
+ * <p>Apart from {@link #pending}, {@link #flushScheduled}, {@link #established} and the inbound
+ * state shared with the relaying task, all state is confined to the bridge's selector thread.
+ */
+final class BridgeSession {
+    final String peerName;
+    final ConcurrentLinkedQueue<Outbound> pending = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean flushScheduled = new AtomicBoolean();
+    volatile boolean established;
+
+    final ConcurrentLinkedQueue<Inbound> inbound = new ConcurrentLinkedQueue<>();
+    final AtomicInteger backlog = new AtomicInteger();
+    final AtomicBoolean draining = new AtomicBoolean();
+    final AtomicBoolean relayedScheduled = new AtomicBoolean();
+    volatile @Nullable Inbound lastRelayed;
+
+    private final Deque<Outbound> unacked = new ArrayDeque<>();
+    private final Deque<Outbound> resend = new ArrayDeque<>();
+    private long nextSequence = 1;
+
+    long peerSessionId;
+    long lastReceived;
+    long relayed;
+    int generation;
+    @Nullable BridgeConnection connection;
+    Duration reconnectDelay = Duration.ZERO;
+
+    BridgeSession(String peerName) {
+        this.peerName = peerName;
+    }
+
+    /**
+     * Returns the next message to write: first anything to be resent, then a pending message,
+     * which is numbered and kept until acknowledged. Returns {@code null} if there is nothing
+     * to write or {@code window} messages are already unacknowledged.
+     */
+    @Nullable Outbound next(int window) {
+        Outbound outbound;
+        while ((outbound = resend.pollFirst()) != null) {
+            if (!outbound.acked.isDone()) return outbound;
+        }
+
+        if (unacked.size() >= window) return null;
+        outbound = pending.poll();
+        if (outbound == null) return null;
+
+        outbound.sequence = nextSequence++;
+        unacked.addLast(outbound);
+        return outbound;
+    }
+
+    /**
+     * Completes every message up to and including {@code sequence}.
+     */
+    void acknowledge(long sequence) {
+        while (!unacked.isEmpty() && unacked.peekFirst().sequence <= sequence) {
+            unacked.pollFirst().acked.complete(null);
+        }
+    }
+
+    /**
+     * Schedules every unacknowledged message to be written again, for a new connection.
+     */
+    void prepareResend() {
+        resend.clear();
+        resend.addAll(unacked);
+    }
+
+    /**
+     * Fails a message that can never be written, e.g. because it is too large for a frame.
+     */
+    void reject(Outbound outbound, Throwable cause) {
+        unacked.remove(outbound);
+        outbound.acked.completeExceptionally(cause);
+    }
+
+    /**
+     * Fails every message not yet acknowledged.
+     */
+    void fail(Throwable cause) {
+        for (Outbound outbound : unacked) outbound.acked.completeExceptionally(cause);
+        Outbound outbound;
+        while ((outbound = pending.poll()) != null) outbound.acked.completeExceptionally(cause);
+        unacked.clear();
+        resend.clear();
+    }
+
+    int unacknowledged() {
+        return unacked.size();
+    }
+
+    /**
+     * Starts numbering incoming messages from the start again, for a new instance of the peer.
+     * Messages of the previous instance still being relayed no longer advance {@link #relayed}.
+     */
+    void restartInbound(long peerSessionId) {
+        this.peerSessionId = peerSessionId;
+        lastReceived = 0;
+        relayed = 0;
+        generation++;
+    }
+
+    /**
+     * A message received from the peer, waiting to be relayed.
+     *
+     * @param generation the {@link #generation} it was received in
+     */
+    record Inbound(int generation, long sequence, Message message) {}
+
+    /**
+     * A message on its way to the peer.
+     */
+    static final class Outbound {
+        final Message message;
+        final CompletableFuture<Void> acked = new CompletableFuture<>();
+        long sequence;
+
+        Outbound(Message message) {
+            this.message = message;
+        }
+    }
+}
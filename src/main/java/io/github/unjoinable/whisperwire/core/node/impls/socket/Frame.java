@@ -0,0 +1,133 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The wire format of a {@link SocketBridge} connection.
+ *
+ * <p>Every frame is an {@code int} length, counting the bytes after it, followed by a type
+ * byte and the body. Numbers are big-endian.
+ * <ul>
+ *     <li>{@link #CHALLENGE}: a random nonce of {@link #NONCE_SIZE} bytes, which the
+ *     receiver's HELLO is authenticated against. Both sides send one when a connection
+ *     opens.</li>
+ *     <li>{@link #HELLO}: the sender's name as a {@code short} byte count and UTF-8, the
+ *     sender's session ID, the session ID of the receiver it last heard from, and the last
+ *     message sequence number it relayed from that session, the latter three as
+ *     {@code long}s, followed by an authentication code as a {@code short} byte count and the
+ *     bytes, empty if the sender has no secret. The connecting side sends one in answer to the
+ *     listener's CHALLENGE, and the listener replies with its own.</li>
+ *     <li>{@link #MESSAGE}: the sequence number as a {@code long}, followed by the message in
+ *     the connection's {@link io.github.unjoinable.whisperwire.core.message.MessageCodec}
+ *     session.</li>
+ *     <li>{@link #ACK}: the highest sequence number relayed so far, as a {@code long}.</li>
+ * </ul>
+ */
+final class Frame {
+    static final byte HELLO = 1;
+    static final byte MESSAGE = 2;
+    static final byte ACK = 3;
+    static final byte CHALLENGE = 4;
+
+    /** The size of the length before every frame. */
+    static final int LENGTH_SIZE = Integer.BYTES;
+    /** The largest frame accepted, excluding its length. */
+    static final int MAX_SIZE = 1 << 20;
+    /** The size of an {@link #ACK} frame, including its length. */
+    static final int ACK_SIZE = LENGTH_SIZE + 1 + Long.BYTES;
+    /** The size of the nonce of a {@link #CHALLENGE}. */
+    static final int NONCE_SIZE = 16;
+
+    private Frame() {}
+
+    /**
+     * Starts a frame of the given type, leaving room for its length.
+     *
+     * @return the position of the frame, to be passed to {@link #end}
+     */
+    static int begin(ByteBuffer out, byte type) {
+        int start = out.position();
+        out.putInt(0).put(type);
+        return start;
+    }
+
+    /**
+     * Fills in the length of the frame started at {@code start}.
+     */
+    static void end(ByteBuffer out, int start) {
+        out.putInt(start, out.position() - start - LENGTH_SIZE);
+    }
+
+    static void putHello(ByteBuffer out, String name, long sessionId, long peerSessionId, long lastRelayed, byte[] mac) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int start = begin(out, HELLO);
+        out.putShort((short) bytes.length).put(bytes)
+                .putLong(sessionId)
+                .putLong(peerSessionId)
+                .putLong(lastRelayed)
+                .putShort((short) mac.length).put(mac);
+        end(out, start);
+    }
+
+    static void putChallenge(ByteBuffer out, byte[] nonce) {
+        int start = begin(out, CHALLENGE);
+        out.put(nonce);
+        end(out, start);
+    }
+
+    static void putAck(ByteBuffer out, long sequence) {
+        int start = begin(out, ACK);
+        out.putLong(sequence);
+        end(out, start);
+    }
+
+    /**
+     * Reads the name of a {@link #HELLO} body.
+     */
+    static String getName(ByteBuffer in) throws IOException {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length == 0 || length > in.remaining()) throw new IOException("Invalid peer name length " + length);
+
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the nonce of a {@link #CHALLENGE} body.
+     */
+    static byte[] getNonce(ByteBuffer in) throws IOException {
+        if (in.remaining() != NONCE_SIZE) throw new IOException("Invalid nonce length " + in.remaining());
+
+        byte[] nonce = new byte[NONCE_SIZE];
+        in.get(nonce);
+        return nonce;
+    }
+
+    /**
+     * Reads the authentication code at the end of a {@link #HELLO} body.
+     */
+    static byte[] getMac(ByteBuffer in) throws IOException {
+        if (in.remaining() < Short.BYTES) throw new IOException("Truncated frame");
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length > in.remaining()) throw new IOException("Invalid authentication code length " + length);
+
+        byte[] mac = new byte[length];
+        in.get(mac);
+        return mac;
+    }
+
+    /**
+     * Reads a {@code long}, reporting a truncated frame as an {@link IOException}.
+     */
+    static long getLong(ByteBuffer in) throws IOException {
+        try {
+            return in.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated frame", e);
+        }
+    }
+}
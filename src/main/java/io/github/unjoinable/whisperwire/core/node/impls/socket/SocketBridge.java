@@ -0,0 +1,763 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.impls.socket.BridgeSession.Inbound;
+import io.github.unjoinable.whisperwire.core.node.impls.socket.BridgeSession.Outbound;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Links the {@link LinkManager}s of separate processes over TCP or Unix domain sockets.
+ *
+ * <p>Every peer of a bridge is represented locally by a {@link SocketDuplexNode}: messages
+ * sent to it are written to the peer, and messages received from the peer are relayed by this
+ * bridge's {@link LinkManager} with that node as their source. Peers are either connected to
+ * with {@link #connect}, in which case the bridge reconnects after every failure with
+ * exponential backoff, or connect to a socket opened with {@link #listen}, in which case
+ * {@link Builder#onPeer(Consumer)} is notified the first time they do.
+ *
+ * <p>All connections are served by a single thread with a non-blocking {@link Selector}.
+ * Messages are written as length-prefixed {@link Frame}s, as many per socket write as fit
+ * in a 1 MiB buffer, and encoded with a {@link io.github.unjoinable.whisperwire.core.message.MessageCodec}
+ * session per connection.
+ *
+ * <p>Messages received from a peer are relayed in order by a virtual thread per peer, never
+ * on the selector thread, so a relay blocked by a full
+ * {@link io.github.unjoinable.whisperwire.core.node.DeliveryQueue} only holds up that peer.
+ * While a window's worth of a peer's messages wait to be relayed, its connection is not read.
+ *
+ * <p>Delivery to a peer is acknowledged: the future returned by
+ * {@link SocketDuplexNode#sendMessage} completes once the peer has relayed the message, that
+ * is, once every delivery queue it was offered to has accepted it. At most
+ * {@link Builder#window(int)} messages per peer are unacknowledged at a time, which is
+ * also the node's {@link SocketDuplexNode#maxInFlight()}, so a slow peer backs up into its
+ * {@link io.github.unjoinable.whisperwire.core.node.DeliveryQueue} rather than into memory.
+ * Unacknowledged messages survive reconnects: when a connection opens, both sides state the
+ * last sequence number they received, and everything after it is sent again. Each bridge
+ * instance has a random session ID, so a peer that restarted starts over rather than having
+ * its new messages taken for duplicates.
+ *
+ * <p>With a {@link Builder#secret(String) secret}, every HELLO carries an HMAC-SHA256 of the
+ * sender's name and session ID and of a random nonce the receiver chose for the connection,
+ * and peers whose code does not match are disconnected. Both sides must share the secret.
+ * Since the nonce is fresh for every connection, a recorded HELLO cannot be replayed. The
+ * secret keeps out bridges that do not know it, but traffic is not encrypted, so it does not
+ * protect against anyone able to read or alter the connection. Without a secret, the bridge
+ * only listens on loopback addresses and Unix domain sockets.
+ *
+ * <p>A connection that has not completed its handshake within
+ * {@link Builder#handshakeTimeout(Duration)} is closed, and until it completes it only holds
+ * small buffers, so idle or stray sockets cost little.
+ */
+public final class SocketBridge implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SocketBridge.class);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    /** The default maximum number of unacknowledged messages per peer. */
+    public static final int DEFAULT_WINDOW = 256;
+    /** The default delay before the first reconnect attempt, one second. */
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(1);
+    /** The default time a connection has to complete its handshake, ten seconds. */
+    public static final Duration DEFAULT_HANDSHAKE_TIMEOUT = Duration.ofSeconds(10);
+    /** The maximum length of a bridge name in UTF-8 bytes. */
+    public static final int MAX_NAME_LENGTH = 255;
+
+    private final String name;
+    private final LinkManager linkManager;
+    private final int window;
+    private final Duration reconnectDelay;
+    private final Duration handshakeTimeout;
+    private final Consumer<SocketDuplexNode> onPeer;
+    private final @Nullable SecretKeySpec secret;
+    private final long sessionId;
+
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final List<ServerSocketChannel> servers = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Selector selector;
+    private final Thread thread;
+    private final ExecutorService relays = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    // Confined to the selector thread
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(Comparator.comparingLong(Timer::deadline));
+    private final SecureRandom random = new SecureRandom();
+
+    private SocketBridge(Builder builder) throws IOException {
+        this.name = builder.name;
+        this.linkManager = builder.linkManager;
+        this.window = builder.window;
+        this.reconnectDelay = builder.reconnectDelay;
+        this.handshakeTimeout = builder.handshakeTimeout;
+        this.onPeer = builder.onPeer;
+        this.secret = builder.secret;
+
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0); // Zero stands for "no session" in a HELLO
+        this.sessionId = id;
+
+        this.selector = Selector.open();
+        this.thread = Thread.ofPlatform()
+                .name("whisperwire-bridge")
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Creates a new builder for a bridge.
+     *
+     * @param name the name this bridge introduces itself to peers with; must be unique among them
+     * @param linkManager the manager that relays messages received from peers
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(String name, LinkManager linkManager) {
+        return new Builder(name, linkManager);
+    }
+
+    /**
+     * Accepts peers on the given address, e.g. a {@link InetSocketAddress} or a
+     * {@link UnixDomainSocketAddress}.
+     *
+     * @param address the address to bind; port 0 picks a free port
+     * @return the address actually bound
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalStateException if the bridge has been closed, or has no secret and
+     *         {@code address} is a TCP address other than a loopback one
+     */
+    public SocketAddress listen(SocketAddress address) throws IOException {
+        Objects.requireNonNull(address, "address must not be null");
+        ensureOpen();
+        if (secret == null && address instanceof InetSocketAddress inet
+                && (inet.getAddress() == null || !inet.getAddress().isLoopbackAddress())) {
+            throw new IllegalStateException("A secret is required to listen on " + address);
+        }
+
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            server.configureBlocking(false);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        SocketAddress bound = server.getLocalAddress();
+        servers.add(server);
+
+        execute(() -> {
+            try {
+                server.register(selector, SelectionKey.OP_ACCEPT);
+                log.info("Bridge {} listening on {}", name, bound);
+            } catch (IOException e) {
+                log.error("Failed to listen on {}", bound, e);
+            }
+        });
+        return bound;
+    }
+
+    /**
+     * Connects to the bridge of a peer, reconnecting whenever the connection is lost.
+     *
+     * <p>The node is returned immediately; messages sent to it before the connection is
+     * established are held until it is.
+     *
+     * @param peerName the name the peer bridge was built with
+     * @param address the address the peer listens on
+     * @return the node representing the peer
+     * @throws IllegalArgumentException if this bridge already has a peer named {@code peerName}
+     * @throws IllegalStateException if the bridge has been closed
+     */
+    public SocketDuplexNode connect(String peerName, SocketAddress address) {
+        Objects.requireNonNull(peerName, "peerName must not be null");
+        Objects.requireNonNull(address, "address must not be null");
+        ensureOpen();
+
+        Peer peer = new Peer(this, peerName, address);
+        if (peers.putIfAbsent(peerName, peer) != null) {
+            throw new IllegalArgumentException("Already bridged to " + peerName);
+        }
+        execute(() -> open(peer));
+        return peer.node;
+    }
+
+    /**
+     * Returns the nodes of every peer connected to or from, whether currently connected or not.
+     */
+    public List<SocketDuplexNode> peers() {
+        return peers.values().stream().map(peer -> peer.node).toList();
+    }
+
+    /**
+     * Returns the name this bridge introduces itself with.
+     */
+    public String name() {
+        return name;
+    }
+
+    long sessionId() {
+        return sessionId;
+    }
+
+    int window() {
+        return window;
+    }
+
+    /**
+     * Returns a random nonce for a {@link Frame#CHALLENGE}. Called on the selector thread.
+     */
+    byte[] nonce() {
+        byte[] nonce = new byte[Frame.NONCE_SIZE];
+        random.nextBytes(nonce);
+        return nonce;
+    }
+
+    /**
+     * Returns the authentication code of a HELLO from {@code name} with {@code sessionId} to a
+     * receiver that challenged with {@code nonce}, or an empty array if the bridge has no secret.
+     */
+    byte[] mac(String name, long sessionId, byte[] nonce) {
+        if (secret == null) return new byte[0];
+        try {
+            Mac mac = Mac.getInstance(secret.getAlgorithm());
+            mac.init(secret);
+            mac.update(name.getBytes(StandardCharsets.UTF_8));
+            for (int shift = 56; shift >= 0; shift -= 8) mac.update((byte) (sessionId >>> shift));
+            mac.update(nonce);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /**
+     * Queues a message for a peer and schedules a flush of its connection, unless one is
+     * already scheduled, so that messages sent in quick succession are written together.
+     */
+    CompletableFuture<Void> send(BridgeSession session, Message message) {
+        if (closed) return CompletableFuture.failedFuture(new IllegalStateException("Bridge is closed"));
+
+        Outbound outbound = new Outbound(message);
+        session.pending.offer(outbound);
+        if (closed && session.pending.remove(outbound)) {
+            outbound.acked.completeExceptionally(new IllegalStateException("Bridge is closed"));
+        } else if (session.flushScheduled.compareAndSet(false, true)) {
+            execute(() -> {
+                session.flushScheduled.set(false);
+                BridgeConnection connection = session.connection;
+                if (connection != null) flush(connection);
+            });
+        }
+        return outbound.acked;
+    }
+
+    /**
+     * Settles the state of a connection once the peer's {@link Frame#HELLO} arrived.
+     *
+     * @param connection the connection the HELLO arrived on
+     * @param session the session of the connection, or {@code null} if it was accepted
+     * @param peerName the name of the peer
+     * @param peerSessionId the session ID of the peer
+     * @param ourSessionId the session ID of this bridge as last seen by the peer
+     * @param lastRelayed the last sequence number the peer relayed from {@code ourSessionId}
+     * @param mac the authentication code of the HELLO
+     * @return the session of the connection
+     * @throws IOException if the peer is not the one expected or failed authentication
+     */
+    BridgeSession handshake(BridgeConnection connection, @Nullable BridgeSession session, String peerName,
+                            long peerSessionId, long ourSessionId, long lastRelayed, byte[] mac) throws IOException {
+        if (secret != null && !MessageDigest.isEqual(mac, mac(peerName, peerSessionId, connection.nonce()))) {
+            throw new IOException("Peer " + peerName + " failed authentication");
+        }
+
+        boolean accepted = session == null;
+        Peer announced = null;
+        if (session == null) {
+            Peer peer = peers.get(peerName);
+            if (peer == null) {
+                peer = new Peer(this, peerName, null);
+                peers.put(peerName, peer);
+                announced = peer;
+            } else if (peer.address != null) {
+                throw new IOException("Peer " + peerName + " is already connected to by this bridge");
+            }
+
+            session = peer.session;
+            BridgeConnection previous = session.connection;
+            if (previous != null && previous != connection) previous.close(); // Superseded by the peer
+        } else if (!session.peerName.equals(peerName)) {
+            throw new IOException("Expected peer " + session.peerName + " but reached " + peerName);
+        }
+
+        if (session.peerSessionId != peerSessionId) {
+            // A new instance of the peer, which numbers its messages from the start again
+            session.restartInbound(peerSessionId);
+        }
+        if (ourSessionId == sessionId) session.acknowledge(lastRelayed);
+        session.prepareResend();
+        session.connection = connection;
+        session.reconnectDelay = Duration.ZERO;
+        session.established = true;
+        if (accepted) connection.sendHello(session); // The connecting side sent its HELLO first
+
+        log.info("Bridge {} connected to {}, resending {} messages", name, peerName, session.unacknowledged());
+        if (announced != null) {
+            try {
+                onPeer.accept(announced.node);
+            } catch (RuntimeException e) {
+                log.error("Error handling new peer {}", peerName, e);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Queues a message received from a peer to be relayed off the selector thread, starting a
+     * relaying task for the peer unless one is running.
+     */
+    void deliver(BridgeSession session, long sequence, Message message) {
+        session.inbound.offer(new Inbound(session.generation, sequence, message));
+        session.backlog.incrementAndGet();
+        if (session.draining.compareAndSet(false, true)) {
+            relays.execute(() -> drain(session));
+        }
+    }
+
+    private void drain(BridgeSession session) {
+        Peer peer = peers.get(session.peerName);
+        do {
+            Inbound next;
+            while ((next = session.inbound.poll()) != null) {
+                if (peer != null) relay(peer, next.message());
+                session.lastRelayed = next;
+                session.backlog.decrementAndGet();
+                if (session.relayedScheduled.compareAndSet(false, true)) {
+                    execute(() -> relayed(session));
+                }
+            }
+            session.draining.set(false);
+            // A message added after the last poll but before the flag was cleared is ours to drain
+        } while (!session.inbound.isEmpty() && session.draining.compareAndSet(false, true));
+    }
+
+    private void relay(Peer peer, Message message) {
+        try {
+            linkManager.relay(peer.node, message).exceptionally(error -> {
+                log.warn("Failed to relay message from {}", peer.node.id(), error);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Error relaying message from {}", peer.node.id(), e);
+        }
+    }
+
+    /**
+     * Acknowledges the messages of a peer relayed so far, and resumes reading from it if it
+     * was paused. Runs on the selector thread.
+     */
+    private void relayed(BridgeSession session) {
+        session.relayedScheduled.set(false);
+        Inbound last = session.lastRelayed;
+        boolean advanced = last != null && last.generation() == session.generation && last.sequence() > session.relayed;
+        if (advanced) session.relayed = last.sequence();
+
+        BridgeConnection connection = session.connection;
+        if (connection != null) {
+            if (advanced) connection.acknowledgeRelayed();
+            flush(connection);
+        }
+    }
+
+    /**
+     * Drops every connection, as a network failure would. Peers connected to are reconnected.
+     */
+    void dropConnections() {
+        execute(() -> {
+            for (Peer peer : peers.values()) {
+                BridgeConnection connection = peer.session.connection;
+                if (connection != null) disconnect(connection, new IOException("Connection dropped"));
+            }
+        });
+    }
+
+    /**
+     * Fails every message not yet acknowledged by its peer, closes every socket and stops the
+     * selector thread.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        selector.wakeup();
+        if (Thread.currentThread() == thread) return;
+
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Bridge is closed");
+    }
+
+    private void execute(Runnable task) {
+        tasks.offer(task);
+        if (Thread.currentThread() != thread && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void schedule(Duration delay, Runnable task) {
+        timers.add(new Timer(System.nanoTime() + delay.toNanos(), task));
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                wakeupPending.set(false);
+                Runnable task;
+                while ((task = tasks.poll()) != null) task.run();
+
+                selector.select(this::handle, runTimers());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Bridge {} stopped", name, e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Runs every timer that is due.
+     *
+     * @return the milliseconds until the next timer is due, or 0 if there is none
+     */
+    private long runTimers() {
+        Timer timer;
+        while ((timer = timers.peek()) != null) {
+            long remaining = timer.deadline() - System.nanoTime();
+            if (remaining > 0) return Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+            timers.poll().task().run();
+        }
+        return 0;
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.channel() instanceof ServerSocketChannel server) {
+            accept(server);
+            return;
+        }
+
+        BridgeConnection connection = (BridgeConnection) key.attachment();
+        try {
+            if (key.isConnectable()) {
+                if (connection.channel().finishConnect()) connected(connection);
+                return;
+            }
+            if (key.isReadable()) connection.read();
+            if (key.isValid() && key.isWritable()) connection.flush();
+        } catch (IOException e) {
+            disconnect(connection, e);
+        }
+    }
+
+    private void accept(ServerSocketChannel server) {
+        try {
+            boolean tcp = server.getLocalAddress() instanceof InetSocketAddress;
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                configure(channel, tcp);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                BridgeConnection connection = new BridgeConnection(this, channel, key, null);
+                key.attach(connection);
+                connection.sendChallenge();
+                expectHandshake(connection);
+                flush(connection);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to accept a peer of bridge {}", name, e);
+        }
+    }
+
+    private void open(Peer peer) {
+        if (closed) return;
+
+        SocketAddress address = Objects.requireNonNull(peer.address);
+        SocketChannel channel = null;
+        try {
+            channel = address instanceof UnixDomainSocketAddress
+                    ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                    : SocketChannel.open();
+            configure(channel, !(address instanceof UnixDomainSocketAddress));
+            SelectionKey key = channel.register(selector, 0);
+            BridgeConnection connection = new BridgeConnection(this, channel, key, peer.session);
+            key.attach(connection);
+            peer.session.connection = connection;
+
+            if (channel.connect(address)) {
+                connected(connection);
+            } else {
+                key.interestOps(SelectionKey.OP_CONNECT);
+            }
+        } catch (IOException e) {
+            if (peer.session.connection != null) {
+                disconnect(peer.session.connection, e);
+                return;
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException _) {
+                    // Already failed
+                }
+            }
+            reconnect(peer, e);
+        }
+    }
+
+    private void connected(BridgeConnection connection) throws IOException {
+        connection.sendChallenge();
+        expectHandshake(connection);
+        connection.flush();
+    }
+
+    /**
+     * Disconnects the connection unless its handshake completes within the handshake timeout.
+     */
+    private void expectHandshake(BridgeConnection connection) {
+        schedule(handshakeTimeout, () -> {
+            if (!connection.established() && connection.channel().isOpen()) {
+                disconnect(connection, new IOException("No handshake within " + handshakeTimeout));
+            }
+        });
+    }
+
+    private void configure(SocketChannel channel, boolean tcp) throws IOException {
+        channel.configureBlocking(false);
+        // Writes are already batched, so waiting for more data only adds latency
+        if (tcp) channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    private void flush(BridgeConnection connection) {
+        try {
+            connection.flush();
+        } catch (IOException e) {
+            disconnect(connection, e);
+        }
+    }
+
+    private void disconnect(BridgeConnection connection, Exception cause) {
+        connection.close();
+        BridgeSession session = connection.session();
+        if (session == null || session.connection != connection) return;
+
+        session.connection = null;
+        session.established = false;
+        if (closed) return;
+
+        log.warn("Bridge {} lost connection to {}: {}", name, session.peerName, cause.toString());
+        Peer peer = peers.get(session.peerName);
+        if (peer != null && peer.address != null) reconnect(peer, cause);
+    }
+
+    private void reconnect(Peer peer, Exception cause) {
+        BridgeSession session = peer.session;
+        Duration max = reconnectDelay.compareTo(MAX_RECONNECT_DELAY) > 0 ? reconnectDelay : MAX_RECONNECT_DELAY;
+        Duration delay = session.reconnectDelay.isZero() ? reconnectDelay : session.reconnectDelay.multipliedBy(2);
+        if (delay.compareTo(max) > 0) delay = max;
+        session.reconnectDelay = delay;
+
+        log.debug("Reconnecting to {} in {} after {}", session.peerName, delay, cause.toString());
+        schedule(delay, () -> open(peer));
+    }
+
+    private void shutdown() {
+        relays.shutdownNow();
+        IllegalStateException cause = new IllegalStateException("Bridge is closed");
+        for (Peer peer : peers.values()) {
+            BridgeConnection connection = peer.session.connection;
+            if (connection != null) connection.close();
+            peer.session.connection = null;
+            peer.session.established = false;
+            peer.session.fail(cause);
+        }
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException _) {
+                // Closing anyway
+            }
+        }
+        for (ServerSocketChannel server : servers) {
+            try {
+                SocketAddress address = server.getLocalAddress();
+                server.close();
+                if (address instanceof UnixDomainSocketAddress unix) Files.deleteIfExists(unix.getPath());
+            } catch (IOException e) {
+                log.warn("Failed to close {}", server, e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Failed to close selector of bridge {}", name, e);
+        }
+        log.info("Bridge {} closed", name);
+    }
+
+    /**
+     * A peer of the bridge.
+     *
+     * @param address the address of the peer if it is connected to, {@code null} if it connects to us
+     */
+    private static final class Peer {
+        final BridgeSession session;
+        final SocketDuplexNode node;
+        final @Nullable SocketAddress address;
+
+        Peer(SocketBridge bridge, String name, @Nullable SocketAddress address) {
+            this.session = new BridgeSession(name);
+            this.node = new SocketDuplexNode(bridge, session);
+            this.address = address;
+        }
+    }
+
+    private record Timer(long deadline, Runnable task) {}
+
+    /**
+     * Builder for {@link SocketBridge}.
+     */
+    public static class Builder {
+        private final String name;
+        private final LinkManager linkManager;
+        private int window = DEFAULT_WINDOW;
+        private Duration reconnectDelay = DEFAULT_RECONNECT_DELAY;
+        private Duration handshakeTimeout = DEFAULT_HANDSHAKE_TIMEOUT;
+        private Consumer<SocketDuplexNode> onPeer = _ -> {};
+        private @Nullable SecretKeySpec secret;
+
+        private Builder(String name, LinkManager linkManager) {
+            this.name = Objects.requireNonNull(name, "name must not be null");
+            this.linkManager = Objects.requireNonNull(linkManager, "linkManager must not be null");
+            if (name.isBlank()) throw new IllegalArgumentException("name must not be blank");
+            if (name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("name must be at most " + MAX_NAME_LENGTH + " bytes: " + name);
+            }
+        }
+
+        /**
+         * Sets the maximum number of messages per peer written but not yet acknowledged.
+         * Defaults to 256.
+         */
+        public Builder window(int window) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("window must be positive: " + window);
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the delay before reconnecting to a peer, doubled after every failed attempt up to
+         * 30 seconds. Defaults to one second.
+         */
+        public Builder reconnectDelay(Duration reconnectDelay) {
+            Objects.requireNonNull(reconnectDelay, "reconnectDelay must not be null");
+            if (reconnectDelay.isZero() || reconnectDelay.isNegative()) {
+                throw new IllegalArgumentException("reconnectDelay must be positive: " + reconnectDelay);
+            }
+            this.reconnectDelay = reconnectDelay;
+            return this;
+        }
+
+        /**
+         * Sets how long a connection may take to complete its handshake before it is closed.
+         * Defaults to ten seconds.
+         */
+        public Builder handshakeTimeout(Duration handshakeTimeout) {
+            Objects.requireNonNull(handshakeTimeout, "handshakeTimeout must not be null");
+            if (handshakeTimeout.isZero() || handshakeTimeout.isNegative()) {
+                throw new IllegalArgumentException("handshakeTimeout must be positive: " + handshakeTimeout);
+            }
+            this.handshakeTimeout = handshakeTimeout;
+            return this;
+        }
+
+        /**
+         * Sets what is done with the node of a peer that connects to this bridge for the first
+         * time, typically linking it. Called on the selector thread, before any message of the
+         * peer is relayed.
+         */
+        public Builder onPeer(Consumer<SocketDuplexNode> onPeer) {
+            this.onPeer = Objects.requireNonNull(onPeer, "onPeer must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the secret shared with every peer, which authenticates their HELLOs and allows
+         * listening on addresses other than loopback ones.
+         */
+        public Builder secret(String secret) {
+            Objects.requireNonNull(secret, "secret must not be null");
+            if (secret.isEmpty()) throw new IllegalArgumentException("secret must not be empty");
+            this.secret = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+            return this;
+        }
+
+        /**
+         * Builds the bridge and starts its selector thread.
+         *
+         * @throws IOException if the selector cannot be opened
+         */
+        public SocketBridge build() throws IOException {
+            return new SocketBridge(this);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link DuplexNode} implementation that represents a peer of a {@link SocketBridge}, i.e.
+ * the {@link io.github.unjoinable.whisperwire.core.node.LinkManager} of another process.
+ *
+ * <p>Nodes are created by the bridge, by {@link SocketBridge#connect} or when a peer connects
+ * to it. Messages sent to a node while its peer is disconnected are held and written once it
+ * reconnects.
+ */
+public final class SocketDuplexNode extends AbstractDuplexNode {
+
+    /**
+     * The prefix of the identifier of every node representing a bridge peer, followed by the
+     * name of the peer.
+     */
+    public static final String ID_PREFIX = "bridge-";
+
+    private final SocketBridge bridge;
+    private final BridgeSession session;
+
+    SocketDuplexNode(SocketBridge bridge, BridgeSession session) {
+        super(ID_PREFIX + session.peerName);
+        this.bridge = bridge;
+        this.session = session;
+    }
+
+    /**
+     * Sends a message to the peer.
+     *
+     * @param message the message to send; must not be {@code null}
+     * @return a {@link CompletableFuture} that completes when the peer acknowledged the message,
+     *         or completes exceptionally if the bridge is closed first
+     */
+    @Override
+    public CompletableFuture<Void> sendMessage(Message message) {
+        Objects.requireNonNull(message, "message must not be null");
+        return bridge.send(session, message);
+    }
+
+    /**
+     * Returns the bridge's window, so that the delivery queue keeps it full.
+     */
+    @Override
+    public int maxInFlight() {
+        return bridge.window();
+    }
+
+    /**
+     * Returns the name of the peer.
+     */
+    public String peerName() {
+        return session.peerName;
+    }
+
+    /**
+     * Returns whether the peer is currently connected and past the handshake.
+     */
+    public boolean isConnected() {
+        return session.established;
+    }
+}
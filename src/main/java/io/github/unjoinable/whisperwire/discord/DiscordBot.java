@@ -61,6 +61,21 @@ public class DiscordBot {
         }
     }
 
+    /**
+     * Registers an event listener, such as a {@link DiscordInboundListener}, with the running bot.
+     *
+     * @param listener the listener to register; must not be {@code null}
+     * @throws NullPointerException  if {@code listener} is {@code null}
+     * @throws IllegalStateException if the bot has not been started
+     */
+    public void addListener(Object listener) {
+        Objects.requireNonNull(listener, "listener must not be null");
+        if (jda == null) {
+            throw new IllegalStateException("Discord bot has not been started");
+        }
+        jda.addEventListener(listener);
+    }
+
     /**
      * Shuts down the Discord bot if it was previously started.
      */
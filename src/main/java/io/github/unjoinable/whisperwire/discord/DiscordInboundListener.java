@@ -0,0 +1,222 @@
+package io.github.unjoinable.whisperwire.discord;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.session.ShutdownEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Relays messages posted in configured Discord channels into a {@link LinkManager}.
+ *
+ * <p>Each configured channel is mapped to the {@link DuplexNode} that represents it. Events
+ * from other channels, and messages written by bots, webhooks (including WhisperWire's own)
+ * or Discord itself, are rejected with a single map lookup and a few flag checks before any
+ * {@link Message} is created.
+ *
+ * <p>Accepted messages are put on a lock-free queue and relayed by a single drain task on
+ * the configured executor, so the JDA event thread never waits on filtering or delivery, and
+ * messages are relayed in the order Discord delivered them.
+ *
+ * <p>Message content is taken as displayed in Discord, so user, role and channel mentions
+ * arrive as readable names rather than raw IDs.
+ *
+ * <p>If no executor is configured, the listener creates its own and shuts it down when it is
+ * {@link #close() closed} or when JDA shuts down. Messages received after that, or once a
+ * configured executor rejects the drain task, are dropped with a warning.
+ */
+public class DiscordInboundListener extends ListenerAdapter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(DiscordInboundListener.class);
+
+    private final LinkManager linkManager;
+    private final SnowflakeMap<DuplexNode> routes;
+    private final Executor executor;
+    private final @Nullable ExecutorService ownedExecutor;
+    private final ConcurrentLinkedQueue<Inbound> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private DiscordInboundListener(Builder builder) {
+        this.linkManager = builder.linkManager;
+        this.routes = new SnowflakeMap<>(builder.routes);
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.ownedExecutor = null;
+        } else {
+            ExecutorService owned = Executors.newVirtualThreadPerTaskExecutor();
+            this.executor = owned;
+            this.ownedExecutor = owned;
+        }
+    }
+
+    /**
+     * Creates a new builder relaying into the given link manager.
+     *
+     * @param linkManager the link manager to relay into; must not be {@code null}
+     * @return a new {@link Builder}
+     */
+    public static Builder builder(LinkManager linkManager) {
+        return new Builder(linkManager);
+    }
+
+    @Override
+    public void onMessageReceived(MessageReceivedEvent event) {
+        DuplexNode node = routes.get(event.getChannel().getIdLong());
+        if (node == null) return;
+
+        if (closed) {
+            log.warn("Dropping message from {}: the listener is closed", node.id());
+            return;
+        }
+
+        User author = event.getAuthor();
+        if (author.isBot() || author.isSystem() || event.isWebhookMessage()) return;
+
+        String content = event.getMessage().getContentDisplay();
+        if (content.isBlank()) return;
+
+        Member member = event.getMember();
+        String username = member != null ? member.getEffectiveName() : author.getEffectiveName();
+        Message message = new Message(node.id(), username, content, event.getMessage().getTimeCreated().toInstant());
+
+        inbox.add(new Inbound(node, message));
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Nothing is draining, so everything queued would otherwise stay queued forever
+                int dropped = 0;
+                while (inbox.poll() != null) dropped++;
+                draining.set(false);
+                log.warn("Dropping {} message(s) from {}: the relay executor rejected them", dropped, node.id(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onShutdown(ShutdownEvent event) {
+        close();
+    }
+
+    /**
+     * Stops accepting messages and shuts down the executor the listener created, if any,
+     * letting queued messages finish relaying. A configured executor is left to its owner.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownedExecutor != null) ownedExecutor.shutdown();
+    }
+
+    /**
+     * Returns the number of configured channels.
+     */
+    public int channelCount() {
+        return routes.size();
+    }
+
+    private void drain() {
+        do {
+            Inbound next;
+            while ((next = inbox.poll()) != null) {
+                relay(next);
+            }
+            draining.set(false);
+            // A message added after the last poll but before the flag was cleared is ours to drain
+        } while (!inbox.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void relay(Inbound inbound) {
+        try {
+            linkManager.relay(inbound.node(), inbound.message()).whenComplete((_, error) -> {
+                if (error != null) {
+                    log.warn("Failed to relay message from {}", inbound.node().id(), error);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Error relaying message from {}", inbound.node().id(), e);
+        }
+    }
+
+    private record Inbound(DuplexNode node, Message message) {}
+
+    /**
+     * Builder for {@link DiscordInboundListener}.
+     */
+    public static class Builder {
+        private final LinkManager linkManager;
+        private final SnowflakeMap<DuplexNode> routes = new SnowflakeMap<>();
+        private @Nullable Executor executor;
+
+        private Builder(LinkManager linkManager) {
+            this.linkManager = Objects.requireNonNull(linkManager, "linkManager must not be null");
+        }
+
+        /**
+         * Relays messages from a channel as coming from {@code node}.
+         *
+         * @param channelId the channel snowflake, as found in {@code DiscordConfig.channels()}
+         * @param node      the node representing the channel
+         * @return this builder
+         * @throws IllegalArgumentException if {@code channelId} is not a valid snowflake
+         */
+        public Builder route(String channelId, DuplexNode node) {
+            Objects.requireNonNull(channelId, "channelId must not be null");
+
+            long snowflake;
+            try {
+                snowflake = Long.parseUnsignedLong(channelId.strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Discord channel ID: " + channelId, e);
+            }
+            return route(snowflake, node);
+        }
+
+        /**
+         * Relays messages from a channel as coming from {@code node}.
+         *
+         * @param channelId the channel snowflake
+         * @param node      the node representing the channel
+         * @return this builder
+         * @throws IllegalArgumentException if {@code channelId} is {@code 0}
+         */
+        public Builder route(long channelId, DuplexNode node) {
+            routes.put(channelId, Objects.requireNonNull(node, "node must not be null"));
+            return this;
+        }
+
+        /**
+         * Sets the executor that relays accepted messages. Defaults to a virtual thread per
+         * drain, owned and shut down by the listener.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor must not be null");
+            return this;
+        }
+
+        /**
+         * Builds the listener with a copy of the routes added so far, so routes added later
+         * do not affect it.
+         */
+        public DiscordInboundListener build() {
+            return new DiscordInboundListener(this);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.unjoinable.whisperwire.discord;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An open-addressing hash map from Discord snowflake IDs to values.
+ *
+ * <p>Keys are stored in a primitive {@code long[]} and probed linearly, so a lookup neither
+ * boxes the ID nor follows any pointers until the matching value is found. Snowflakes are
+ * never zero, which is used to mark empty slots.
+ *
+ * <p>This map is not thread-safe. It is meant to be filled once and then only read, after
+ * being safely published, for example through a {@code final} field.
+ *
+ * @param <V> the value type
+ */
+final class SnowflakeMap<V> {
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private @Nullable Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Constructs an empty map.
+     */
+    SnowflakeMap() {
+        this.keys = new long[MIN_CAPACITY];
+        this.values = new Object[MIN_CAPACITY];
+        this.mask = MIN_CAPACITY - 1;
+    }
+
+    /**
+     * Constructs a map with the same entries as {@code other}, independent of it.
+     */
+    SnowflakeMap(SnowflakeMap<V> other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.size = other.size;
+        this.mask = other.mask;
+    }
+
+    /**
+     * Associates a value with a snowflake, replacing any previous value.
+     *
+     * @param key   the snowflake; must not be {@code 0}
+     * @param value the value; must not be {@code null}
+     * @return the previous value, or {@code null} if there was none
+     * @throws IllegalArgumentException if {@code key} is {@code 0}
+     */
+    @Nullable V put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("snowflake must not be 0");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        V previous = valueAt(slot);
+        values[slot] = value;
+        return previous;
+    }
+
+    /**
+     * Returns the value for a snowflake.
+     *
+     * @param key the snowflake
+     * @return the value, or {@code null} if the snowflake is not mapped
+     */
+    @Nullable V get(long key) {
+        if (key == EMPTY) return null;
+        return valueAt(slotOf(key));
+    }
+
+    /**
+     * Returns whether a snowflake is mapped.
+     */
+    boolean containsKey(long key) {
+        return key != EMPTY && keys[slotOf(key)] == key;
+    }
+
+    /**
+     * Returns the number of mapped snowflakes.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or the empty slot where it would be inserted.
+     */
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        @Nullable Object[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slotOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Snowflakes are mostly timestamp in their high bits, and their low bits are often
+     * alike, so they are mixed before being masked to a slot.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
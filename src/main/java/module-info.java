@@ -2,12 +2,16 @@ import org.jspecify.annotations.NullMarked;
 
 @NullMarked
 module WhisperWire.main {
+    exports io.github.unjoinable.whisperwire.core.journal;
     exports io.github.unjoinable.whisperwire.core.message;
     exports io.github.unjoinable.whisperwire.core.node;
+    exports io.github.unjoinable.whisperwire.core.metrics;
     requires org.tomlj;
     requires org.jspecify;
     requires net.dv8tion.jda;
     requires org.slf4j;
+    requires java.management;
+    requires jdk.jfr;
     requires net.minestom.server;
     requires org.jetbrains.annotations;
     requires net.kyori.adventure;
@@ -0,0 +1,47 @@
+package io.github.unjoinable.whisperwire.config;
+
+import io.github.unjoinable.whisperwire.core.message.BannedWordFilter;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BannedWordsReaderTest {
+    @TempDir Path tempDir;
+
+    @Test
+    void testLoad_FileBecomesFilter() throws IOException {
+        Path file = tempDir.resolve("banned_words.toml");
+        Files.writeString(file, """
+        banned_words = ["creeper", "griefing spree"]
+        """);
+
+        List<String> words = new BannedWordsReader(file).load();
+        assertEquals(List.of("creeper", "griefing spree"), words);
+
+        BannedWordFilter filter = BannedWordFilter.of(words);
+        assertFalse(filter.test(new Message("discord-1", "Alex", "a Creeper blew up", Instant.now())));
+        assertTrue(filter.test(new Message("discord-1", "Alex", "creepers are fine", Instant.now())));
+    }
+
+    @Test
+    void testLoad_MissingFileFallsBackToBundledList() {
+        List<String> words = new BannedWordsReader(tempDir.resolve("missing.toml")).load();
+        assertFalse(words.isEmpty());
+    }
+
+    @Test
+    void testLoad_InvalidFileThrows() throws IOException {
+        Path file = tempDir.resolve("banned_words.toml");
+        Files.writeString(file, "words = []");
+
+        assertThrows(IllegalStateException.class, () -> new BannedWordsReader(file).load());
+    }
+}
@@ -73,13 +73,16 @@ class ConfigReaderTest {
         assertTrue(mc.enableChatBridge());
         assertEquals("<{username}> {message}", mc.chatFormat());
         assertEquals("[D] {username}: {message}", mc.discordToMcFormat());
+        assertEquals(mc.discordToMcFormat(), mc.discordToMcTemplate().format());
         assertTrue(mc.showJoinLeave());
+        assertEquals(MinecraftConfig.DEFAULT_JOIN_LEAVE_WINDOW, mc.joinLeaveWindow());
 
         // Webhook Config
         WebhookConfig webhook = context.webhookConfig();
         assertNotNull(webhook);
         assertEquals("{username}", webhook.usernameFormat());
         assertEquals("https://example.com/{uuid}", webhook.avatarUrl());
+        assertFalse(webhook.enabled());
 
         // Logging Config
         LoggingConfig logging = context.loggingConfig();
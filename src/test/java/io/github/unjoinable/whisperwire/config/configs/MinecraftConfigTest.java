@@ -0,0 +1,28 @@
+package io.github.unjoinable.whisperwire.config.configs;
+
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinecraftConfigTest {
+
+    @Test
+    void testTemplatesAreCompiledFromFormats() {
+        MinecraftConfig config = new MinecraftConfig(true, "<{username}> {message}", "[D] {username}: {message}", true);
+
+        assertEquals(config.chatFormat(), config.chatTemplate().format());
+        assertEquals(config.discordToMcFormat(), config.discordToMcTemplate().format());
+    }
+
+    @Test
+    void testTemplatesThatDisagreeWithFormatsAreRejected() {
+        ChatTemplate chat = ChatTemplate.compile("<{username}> {message}");
+        ChatTemplate other = ChatTemplate.compile("{message}");
+
+        assertThrows(IllegalArgumentException.class, () -> new MinecraftConfig(true, "<{username}> {message}",
+                "{message}", true, MinecraftConfig.DEFAULT_JOIN_LEAVE_WINDOW, 5, other, other));
+        assertThrows(IllegalArgumentException.class, () -> new MinecraftConfig(true, "<{username}> {message}",
+                "[D] {message}", true, MinecraftConfig.DEFAULT_JOIN_LEAVE_WINDOW, 5, chat, other));
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJournalReader {
+    private static final Instant BASE = Instant.parse("2025-07-11T12:00:00Z");
+    private static final int COUNT = 20_000;
+
+    @TempDir Path dir;
+
+    @Test
+    void testReadsExactlyTheRequestedRange() throws Exception {
+        List<Message> messages = journal(COUNT);
+        JournalReader reader = new JournalReader(dir);
+
+        assertEquals(expected(messages, 5_000, 5_100), read(reader, 5_000, 5_100));
+        assertEquals(expected(messages, 0, 10), read(reader, -1_000, 10));
+        assertEquals(expected(messages, COUNT - 10, COUNT), read(reader, COUNT - 10, COUNT + 1_000));
+        assertTrue(read(reader, 100, 100).isEmpty());
+    }
+
+    @Test
+    void testSeekingSkipsBlocksOutsideTheRange() throws Exception {
+        journal(COUNT);
+        List<Path> indexes = files(JournalIndex.SUFFIX);
+        assertFalse(indexes.isEmpty());
+
+        Path segment = files(JournalSegment.SUFFIX).getFirst();
+        JournalIndex index = JournalIndex.read(JournalIndex.pathFor(segment), (int) Files.size(segment));
+        assertNotNull(index);
+        assertTrue(index.size() > 4, "expected several blocks: " + index.size());
+
+        long middle = JournalIndex.stamp(BASE.plusMillis(5_000));
+        int first = index.firstBlock(middle);
+        int end = index.endBlock(middle + 1);
+        assertTrue(first > 0);
+        assertTrue(end - first <= 2, "blocks read: " + (end - first));
+    }
+
+    @Test
+    void testOutOfOrderTimestampsAreFound() throws Exception {
+        List<Message> messages = new ArrayList<>();
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 20).open()) {
+            for (int i = 0; i < COUNT; i++) {
+                // Every tenth message arrives with a timestamp a minute late
+                int millis = i % 10 == 0 ? i - 60_000 : i;
+                Message message = Message.at("discord-1", "Steve", "message " + i, BASE.plusMillis(millis));
+                messages.add(message);
+                journal.append(message);
+            }
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        Instant from = BASE.minusMillis(60_000);
+        Instant to = BASE.minusMillis(59_000);
+        List<Message> expected = messages.stream()
+                .filter(message -> !message.timestamp().isBefore(from) && message.timestamp().isBefore(to))
+                .toList();
+        List<Message> actual = new ArrayList<>();
+        new JournalReader(dir).read(from, to, actual::add);
+
+        assertEquals(100, expected.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testSegmentsWithoutIndexAreScanned() throws Exception {
+        List<Message> messages = journal(COUNT);
+        for (Path index : files(JournalIndex.SUFFIX)) Files.delete(index);
+
+        assertEquals(expected(messages, 7_000, 7_050), read(new JournalReader(dir), 7_000, 7_050));
+    }
+
+    /**
+     * Journals messages stamped one millisecond apart across several segments.
+     */
+    private List<Message> journal(int count) throws Exception {
+        List<Message> messages = new ArrayList<>(count);
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 20).open()) {
+            for (int i = 0; i < count; i++) {
+                Message message = Message.at("discord-" + (i % 3), "Steve", "message " + i, BASE.plusMillis(i));
+                messages.add(message);
+                journal.append(message);
+            }
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+        return messages;
+    }
+
+    private static List<Message> expected(List<Message> messages, int from, int to) {
+        return messages.subList(from, to);
+    }
+
+    private static List<Message> read(JournalReader reader, int fromMillis, int toMillis) throws IOException {
+        List<Message> messages = new ArrayList<>();
+        long count = reader.read(BASE.plusMillis(fromMillis), BASE.plusMillis(toMillis), messages::add);
+        assertEquals(messages.size(), count);
+        return messages;
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJournalReplay {
+
+    @TempDir Path dir;
+
+    @Test
+    void testReplaysFilteredRangeAtConfiguredRate() throws Exception {
+        Instant now = Instant.now();
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            journal.append(Message.at("discord-1", "Steve", "too old", now.minus(Duration.ofMinutes(20))));
+            for (int i = 0; i < 20; i++) {
+                String source = i % 2 == 0 ? "discord-1" : "minestom-lobby";
+                journal.append(Message.at(source, "Steve", "message " + i, now.minusSeconds(60 - i)));
+            }
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        RecordingNode target = new RecordingNode();
+        long start = System.nanoTime();
+        long sent = JournalReplay.builder(dir)
+                .last(Duration.ofMinutes(10))
+                .filter(message -> message.source().equals("discord-1"))
+                .rate(100)
+                .build()
+                .start(target)
+                .get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(10, sent);
+        assertEquals(List.of("message 0", "message 2", "message 4", "message 6", "message 8",
+                "message 10", "message 12", "message 14", "message 16", "message 18"),
+                target.received.stream().map(Message::rawMessage).toList());
+        assertTrue(elapsedMillis >= 80, "replay was not paced: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testSkipsTargetsOwnMessagesAndMeasuresWindowFromEachStart() throws Exception {
+        JournalReplay replay = JournalReplay.builder(dir).last(Duration.ofMinutes(10)).rate(1000).build();
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            journal.append(Message.at("minestom-lobby", "Steve", "from the game", Instant.now().minusSeconds(2)));
+            journal.append(Message.at("discord-1", "Alex", "from the channel", Instant.now().minusSeconds(1)));
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        RecordingNode channel = new RecordingNode("discord-1");
+        long sent = replay.start(channel).get(5, TimeUnit.SECONDS);
+        assertEquals(1, sent);
+        assertEquals(List.of("from the game"), channel.received.stream().map(Message::rawMessage).toList());
+
+        RecordingNode everything = new RecordingNode("discord-1");
+        sent = JournalReplay.builder(dir)
+                .last(Duration.ofMinutes(10))
+                .includeTargetMessages(true)
+                .rate(1000)
+                .build()
+                .start(everything)
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(2, sent);
+    }
+
+    private static final class RecordingNode extends AbstractDuplexNode {
+        private final List<Message> received = new CopyOnWriteArrayList<>();
+
+        RecordingNode() {
+            this("recording");
+        }
+
+        RecordingNode(String id) {
+            super(id);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendMessage(Message message) {
+            received.add(message);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.unjoinable.whisperwire.core.journal;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMessageJournal {
+    private static final Instant BASE = Instant.parse("2025-07-11T12:00:00.123456789Z");
+
+    @TempDir Path dir;
+
+    @Test
+    void testAppendedMessagesAreReadBackInOrder() throws Exception {
+        List<Message> messages = messages(100);
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 20).open()) {
+            messages.forEach(journal::append);
+            journal.sync().get(5, TimeUnit.SECONDS);
+            assertEquals(100, journal.committedSequence());
+        }
+
+        assertEquals(messages, readAll());
+    }
+
+    @Test
+    void testSegmentsRollBySizeAndContinueTheSequence() throws Exception {
+        List<Message> messages = messages(200);
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(2048).open()) {
+            messages.forEach(journal::append);
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1, "expected several segments: " + segments);
+        long expectedBase = 0;
+        for (Path segment : segments) {
+            try (JournalSegment recovered = JournalSegment.recover(segment)) {
+                assertEquals(expectedBase, recovered.baseSequence());
+                expectedBase = recovered.nextSequence();
+            }
+        }
+        assertEquals(200, expectedBase);
+        assertEquals(messages, readAll());
+    }
+
+    @Test
+    void testRetentionKeepsAtMostMaxSegments() throws Exception {
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(2048).maxSegments(3).open()) {
+            messages(500).forEach(journal::append);
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        List<Path> segments = segments();
+        assertEquals(3, segments.size());
+        List<Message> kept = readAll();
+        assertEquals("message 499", kept.getLast().rawMessage());
+    }
+
+    @Test
+    void testRecoveryTruncatesTornRecord() throws Exception {
+        List<Message> messages = messages(10);
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            messages.forEach(journal::append);
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        // Corrupt the last record's payload, as if the process died halfway through writing it
+        Path segment = segments().getFirst();
+        int lastRecord;
+        try (JournalSegment recovered = JournalSegment.recover(segment)) {
+            lastRecord = recovered.position() - 4;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3, 4}), lastRecord);
+        }
+
+        Message after = Message.at("minestom-lobby", "Alex", "after the crash", BASE);
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            assertEquals(9, journal.committedSequence());
+            journal.append(after);
+            journal.sync().get(5, TimeUnit.SECONDS);
+        }
+
+        List<Message> expected = new ArrayList<>(messages.subList(0, 9));
+        expected.add(after);
+        assertEquals(expected, readAll());
+    }
+
+    @Test
+    void testAppendAfterCloseIsRejected() throws Exception {
+        MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open();
+        assertTrue(journal.append(Message.at("discord-1", "Steve", "before", BASE)));
+        journal.close();
+
+        assertFalse(journal.append(Message.at("discord-1", "Steve", "after", BASE)));
+        assertEquals(1, journal.appended());
+        assertEquals(1, journal.rejected());
+        assertEquals(List.of(Message.at("discord-1", "Steve", "before", BASE)), readAll());
+    }
+
+    @Test
+    void testAppendRacingCloseIsEitherWrittenOrRejected() throws Exception {
+        MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 20).open();
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> appenders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String source = "discord-" + t;
+            appenders.add(Thread.ofPlatform().start(() -> {
+                started.countDown();
+                for (int i = 0; i < 2_000; i++) {
+                    if (journal.append(Message.at(source, "Steve", "message " + i, BASE))) accepted.incrementAndGet();
+                }
+            }));
+        }
+        started.await();
+        journal.close();
+        for (Thread appender : appenders) appender.join();
+
+        assertEquals(accepted.get(), journal.appended());
+        assertEquals(8_000 - accepted.get(), journal.rejected());
+        assertEquals(accepted.get(), readAll().size());
+    }
+
+    @Test
+    void testOpenDiscardsSegmentWithUnwrittenHeader() throws Exception {
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            journal.append(Message.at("discord-1", "Steve", "kept", BASE));
+        }
+        // As if the process died right after the file of the next segment was created
+        Path unwritten = dir.resolve(JournalSegment.fileName(1));
+        Files.write(unwritten, new byte[1 << 16]);
+
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            assertEquals(1, journal.committedSequence());
+        }
+        assertFalse(Files.exists(unwritten));
+        assertEquals(List.of(Message.at("discord-1", "Steve", "kept", BASE)), readAll());
+    }
+
+    @Test
+    void testOpenFailsOnCorruptHeaderWithoutDeletingSegments() throws Exception {
+        try (MessageJournal journal = MessageJournal.builder(dir).segmentSize(1 << 16).open()) {
+            journal.append(Message.at("discord-1", "Steve", "kept", BASE));
+        }
+        Path corrupt = dir.resolve(JournalSegment.fileName(1));
+        byte[] garbage = new byte[1 << 16];
+        garbage[0] = 42;
+        Files.write(corrupt, garbage);
+
+        assertThrows(IOException.class, () -> MessageJournal.builder(dir).segmentSize(1 << 16).open());
+        assertTrue(Files.exists(corrupt));
+        assertEquals(2, segments().size());
+    }
+
+    private static List<Message> messages(int count) {
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(Message.at("discord-" + (i % 3), "Steve é", "message " + i, BASE.plusMillis(i)));
+        }
+        return messages;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(JournalSegment.SUFFIX)).sorted().toList();
+        }
+    }
+
+    private List<Message> readAll() throws IOException {
+        List<Message> messages = new ArrayList<>();
+        for (Path path : segments()) {
+            try (JournalSegment segment = JournalSegment.recover(path)) {
+                segment.forEach(messages::add);
+            }
+        }
+        return messages;
+    }
+}
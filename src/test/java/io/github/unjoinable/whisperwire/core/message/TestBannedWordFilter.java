@@ -0,0 +1,69 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestBannedWordFilter {
+
+    private final BannedWordFilter filter = BannedWordFilter.of(List.of("damn", "hell", "minestorm", "bad word"));
+
+    @Test
+    void testMatchesWholeWordsOnly() {
+        assertTrue(filter.containsBannedWord("what the hell"));
+        assertTrue(filter.containsBannedWord("HELL!"));
+        assertTrue(filter.containsBannedWord("say a bad word please"));
+
+        assertFalse(filter.containsBannedWord("hello there"));
+        assertFalse(filter.containsBannedWord("shell script"));
+        assertFalse(filter.containsBannedWord("minestorms"));
+        assertFalse(filter.containsBannedWord(""));
+    }
+
+    @Test
+    void testShorterSuffixStillMatchesAtWordBoundary() {
+        BannedWordFilter overlapping = BannedWordFilter.of(List.of("xhell", "hell"));
+
+        assertTrue(overlapping.containsBannedWord("oh hell"));
+        assertTrue(overlapping.containsBannedWord("xhell"));
+        assertFalse(overlapping.containsBannedWord("yxhell"));
+    }
+
+    @Test
+    void testPredicateBlocksMessagesWithBannedWords() {
+        assertFalse(filter.test(message("Damn it")));
+        assertTrue(filter.test(message("All good here")));
+    }
+
+    @Test
+    void testMaskingRewritesOnlyMatches() {
+        assertEquals("oh **** no, **** is hot", filter.mask("oh damn no, hell is hot"));
+        assertEquals("hello", filter.mask("hello"));
+
+        Message clean = message("nothing to see");
+        assertSame(clean, filter.masking().transform(clean));
+
+        Message masked = filter.masking().transform(message("Minestorm rocks"));
+        assertEquals("********* rocks", masked.rawMessage());
+    }
+
+    @Test
+    void testLargeWordList() {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            words.add("word" + i);
+        }
+        BannedWordFilter large = BannedWordFilter.of(words);
+
+        assertTrue(large.containsBannedWord("this contains word19999 somewhere"));
+        assertFalse(large.containsBannedWord("this contains word20000 somewhere"));
+    }
+
+    private static Message message(String content) {
+        return new Message("source", "Steve", content, Instant.now());
+    }
+}
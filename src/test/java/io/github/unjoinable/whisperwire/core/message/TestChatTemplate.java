@@ -0,0 +1,56 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate.Field;
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate.Literal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestChatTemplate {
+
+    private static final Message MESSAGE = new Message("discord-1234", "Alex", "hello there", Instant.now());
+
+    @Test
+    void testParsesLiteralsAndPlaceholders() {
+        ChatTemplate template = ChatTemplate.compile("<{username}> {message}");
+
+        assertEquals(List.of(new Literal("<"), Field.USERNAME, new Literal("> "), Field.MESSAGE), template.segments());
+        assertEquals("<Alex> hello there", template.render(MESSAGE));
+    }
+
+    @Test
+    void testUnknownPlaceholdersAndBracesStayLiteral() {
+        ChatTemplate template = ChatTemplate.compile("{time} {username} {unclosed");
+
+        assertEquals("{time} Alex {unclosed", template.render(MESSAGE));
+    }
+
+    @Test
+    void testPlaceholderValuesAreNotReinterpreted() {
+        ChatTemplate template = ChatTemplate.compile("{username}: {message}");
+        Message tricky = new Message("minestom-lobby", "{message}", "{username}", Instant.now());
+
+        assertEquals("{message}: {username}", template.render(tricky));
+    }
+
+    @Test
+    void testRenderToAppendsToReusedBuilder() {
+        ChatTemplate template = ChatTemplate.compile("[{source}] {username}");
+        StringBuilder out = new StringBuilder("> ");
+
+        template.renderTo(MESSAGE, out);
+
+        assertEquals("> [discord-1234] Alex", out.toString());
+    }
+
+    @Test
+    void testEmptyFormat() {
+        ChatTemplate template = ChatTemplate.compile("");
+
+        assertTrue(template.segments().isEmpty());
+        assertEquals("", template.render(MESSAGE));
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate.Cost;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestCompiledPredicate {
+
+    @Test
+    void testMatchesUncompiledSemantics() {
+        List<RelayPredicate> flags = new ArrayList<>();
+        boolean[] values = new boolean[4];
+        for (int i = 0; i < values.length; i++) {
+            int index = i;
+            flags.add(RelayPredicate.named("flag-" + i, Cost.values()[i % 3], _ -> values[index]));
+        }
+        RelayPredicate a = flags.get(0), b = flags.get(1), c = flags.get(2), d = flags.get(3);
+
+        List<RelayPredicate> compositions = List.of(
+                a.and(b).and(c).and(d),
+                a.or(b).or(c.negate()),
+                a.and(b.or(c)).or(d.negate().and(a)),
+                a.negate().or(b.and(c.negate())).and(d.or(RelayPredicate.DENY_ALL)),
+                RelayPredicate.ALLOW_ALL.and(a).or(RelayPredicate.DENY_ALL.and(b))
+        );
+
+        Message message = message("anything");
+        for (RelayPredicate composition : compositions) {
+            CompiledPredicate compiled = composition.compile();
+            for (int bits = 0; bits < 16; bits++) {
+                for (int i = 0; i < values.length; i++) values[i] = (bits & (1 << i)) != 0;
+                assertEquals(composition.test(message), compiled.test(message), "bits=" + bits);
+            }
+        }
+    }
+
+    @Test
+    void testCheapRulesRunFirstAndShortCircuit() {
+        AtomicInteger expensiveCalls = new AtomicInteger();
+        RelayPredicate expensive = RelayPredicate.named("expensive", Cost.EXPENSIVE, _ -> {
+            expensiveCalls.incrementAndGet();
+            return true;
+        });
+
+        CompiledPredicate compiled = expensive.and(RelayPredicate.NOT_BLANK).compile();
+
+        assertFalse(compiled.test(message("   ")));
+        assertEquals(0, expensiveCalls.get());
+
+        assertTrue(compiled.test(message("hello")));
+        assertEquals(1, expensiveCalls.get());
+    }
+
+    @Test
+    void testSharedRuleIsEvaluatedOncePerMessage() {
+        AtomicInteger calls = new AtomicInteger();
+        RelayPredicate shared = RelayPredicate.named("shared", Cost.NORMAL, _ -> {
+            calls.incrementAndGet();
+            return false;
+        });
+        RelayPredicate other = RelayPredicate.named("other", Cost.NORMAL, _ -> false);
+
+        CompiledPredicate compiled = shared.or(other).and(shared.negate().or(other)).compile();
+        compiled.test(message("hi"));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testConstantsFoldAway() {
+        CompiledPredicate compiled = RelayPredicate.ALLOW_ALL.and(RelayPredicate.NOT_BLANK.or(RelayPredicate.ALLOW_ALL)).compile();
+
+        assertEquals(1, compiled.size());
+        assertTrue(compiled.test(message("")));
+        assertFalse(RelayPredicate.DENY_ALL.compile().test(message("x")));
+    }
+
+    @Test
+    void testProfilingRecordsPerRuleStats() {
+        CompiledPredicate compiled = CompiledPredicate.compile(
+                RelayPredicate.NOT_BLANK.and(RelayPredicate.maxLength(5)), true);
+
+        compiled.test(message("short"));
+        compiled.test(message("far too long"));
+        compiled.test(message(" "));
+
+        List<CompiledPredicate.RuleStats> stats = compiled.stats();
+        assertEquals("not-blank", stats.get(0).name());
+        assertEquals(3, stats.get(0).evaluations());
+        assertEquals(2, stats.get(0).passes());
+        assertEquals(2, stats.get(1).evaluations());
+        assertEquals(1, stats.get(1).passes());
+
+        compiled.resetStats();
+        assertEquals(0, compiled.stats().get(0).evaluations());
+    }
+
+    private static Message message(String content) {
+        return new Message("source", "Steve", content, Instant.now());
+    }
+}
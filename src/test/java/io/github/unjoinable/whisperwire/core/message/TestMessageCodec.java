@@ -0,0 +1,180 @@
+package io.github.unjoinable.whisperwire.core.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMessageCodec {
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    void testRandomMessagesRoundTrip() {
+        for (long seed = 0; seed < 5; seed++) {
+            Random random = new Random(seed);
+            List<Message> messages = new ArrayList<>(SAMPLES);
+            for (int i = 0; i < SAMPLES; i++) messages.add(randomMessage(random));
+
+            assertEquals(truncated(messages), roundTrip(messages, ByteBuffer.allocate(1 << 22)), "seed " + seed);
+            assertEquals(truncated(messages), roundTrip(messages, ByteBuffer.allocateDirect(1 << 22)), "seed " + seed);
+        }
+    }
+
+    @Test
+    void testStringsMatchStandardUtf8() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            String text = randomString(random, 40);
+            String expected = new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, MessageCodec.utf8Length(text));
+
+            Message message = Message.at("s", "u", text, Instant.EPOCH);
+            assertEquals(expected, roundTrip(List.of(message), ByteBuffer.allocateDirect(1024)).getFirst().rawMessage());
+        }
+    }
+
+    @Test
+    void testVarintsRoundTrip() {
+        Random random = new Random(7);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        long[] edges = {0, 1, -1, 63, 64, -64, -65, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < SAMPLES + edges.length; i++) {
+            long value = i < edges.length ? edges[i] : random.nextLong() >> random.nextInt(64);
+            buffer.clear();
+            MessageCodec.putVarLong(buffer, MessageCodec.zigzag(value));
+            buffer.flip();
+            assertEquals(value, MessageCodec.unzigzag(MessageCodec.getVarLong(buffer)));
+
+            int unsigned = (int) (value >>> 33);
+            buffer.clear();
+            MessageCodec.putVarInt(buffer, unsigned);
+            buffer.flip();
+            assertEquals(unsigned, MessageCodec.getVarInt(buffer));
+        }
+    }
+
+    @Test
+    void testRepeatedStringsAreSharedAndSmall() {
+        Instant now = Instant.parse("2025-07-11T12:00:00Z");
+        MessageCodec.Encoder encoder = MessageCodec.encoder();
+        MessageCodec.Decoder decoder = MessageCodec.decoder();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        encoder.encode(Message.at("discord-1234567890123456789", "Steve", "hi", now), buffer);
+        int first = buffer.position();
+        encoder.encode(Message.at("discord-1234567890123456789", "Steve", "hi", now.plusSeconds(1)), buffer);
+        int second = buffer.position() - first;
+        buffer.flip();
+
+        Message a = decoder.decode(buffer);
+        Message b = decoder.decode(buffer);
+        assertSame(a.source(), b.source());
+        assertSame(a.username(), b.username());
+        // Two references, a three-byte timestamp delta and the two-byte message
+        assertEquals(2 + 3 + 3, second);
+    }
+
+    @Test
+    void testFullDictionaryFallsBackToLiterals() {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            messages.add(Message.at("source-" + i % 10, "user-" + i % 7, "message " + i, Instant.EPOCH.plusMillis(i)));
+        }
+
+        MessageCodec.Encoder encoder = MessageCodec.encoder(4);
+        MessageCodec.Decoder decoder = MessageCodec.decoder(4);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        for (Message message : messages) encoder.encode(message, buffer);
+        buffer.flip();
+
+        for (Message message : messages) assertEquals(message, decoder.decode(buffer));
+    }
+
+    @Test
+    void testFailedEncodeAndDecodeLeaveSessionIntact() {
+        Message first = Message.at("discord-1", "Steve", "a message that will not fit", Instant.EPOCH.plusSeconds(10));
+        Message second = Message.at("discord-1", "Steve", "second", Instant.EPOCH.plusSeconds(11));
+        MessageCodec.Encoder encoder = MessageCodec.encoder();
+
+        ByteBuffer small = ByteBuffer.allocate(12);
+        assertThrows(BufferOverflowException.class, () -> encoder.encode(first, small));
+        assertEquals(0, small.position());
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        encoder.encode(first, buffer);
+        encoder.encode(second, buffer);
+        buffer.flip();
+
+        MessageCodec.Decoder decoder = MessageCodec.decoder();
+        ByteBuffer truncated = buffer.slice(0, 10);
+        assertThrows(BufferUnderflowException.class, () -> decoder.decode(truncated));
+        assertEquals(0, truncated.position());
+
+        assertEquals(first, decoder.decode(buffer));
+        assertEquals(second, decoder.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private static List<Message> roundTrip(List<Message> messages, ByteBuffer buffer) {
+        MessageCodec.Encoder encoder = MessageCodec.encoder();
+        for (Message message : messages) encoder.encode(message, buffer);
+        buffer.flip();
+
+        MessageCodec.Decoder decoder = MessageCodec.decoder();
+        List<Message> decoded = new ArrayList<>(messages.size());
+        while (buffer.hasRemaining()) decoded.add(decoder.decode(buffer));
+        return decoded;
+    }
+
+    /**
+     * Returns the messages as they decode: microsecond timestamps and unpaired surrogates replaced.
+     */
+    private static List<Message> truncated(List<Message> messages) {
+        return messages.stream()
+                .map(message -> new Message(utf8(message.source()), utf8(message.username()), utf8(message.rawMessage()),
+                        message.timestamp().truncatedTo(ChronoUnit.MICROS)))
+                .toList();
+    }
+
+    private static String utf8(String text) {
+        return new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static Message randomMessage(Random random) {
+        String source = random.nextBoolean() ? "discord-" + random.nextInt(5) : "minestom-" + random.nextInt(3);
+        String username = random.nextInt(10) == 0 ? randomString(random, 16) : "player" + random.nextInt(50);
+        long seconds = random.nextInt(20) == 0
+                ? random.nextLong(-62_000_000_000L, 250_000_000_000L)
+                : 1_752_235_200L + random.nextInt(100_000);
+        Instant timestamp = Instant.ofEpochSecond(seconds, random.nextInt(1_000_000_000));
+        return Message.at(source, username, randomString(random, 200), timestamp);
+    }
+
+    /**
+     * Returns a string mixing ASCII, two- and three-byte characters, surrogate pairs and the
+     * occasional unpaired surrogate.
+     */
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(10)) {
+                case 0 -> out.append((char) random.nextInt(0x80, 0x800));
+                case 1 -> out.append((char) random.nextInt(0x800, 0xD800));
+                case 2 -> out.appendCodePoint(random.nextInt(0x10000, 0x110000));
+                case 3 -> out.append((char) random.nextInt(0xD800, 0xE000));
+                default -> out.append((char) random.nextInt(0x20, 0x7F));
+            }
+        }
+        return out.toString();
+    }
+}
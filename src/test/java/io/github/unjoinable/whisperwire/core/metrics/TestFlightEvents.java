@@ -0,0 +1,76 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.TestDuplexNode;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestFlightEvents {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRelayAndSendAreRecorded() throws Exception {
+        LinkManager manager = new LinkManager();
+        TestDuplexNode a = new TestDuplexNode("node-a");
+        TestDuplexNode b = new TestDuplexNode("node-b");
+        manager.link(a, b);
+
+        Path file = tempDir.resolve("relay.jfr");
+        try (Recording recording = FlightEvents.enable(new Recording(), Duration.ZERO, Duration.ZERO)) {
+            recording.start();
+            manager.relay(a, new Message("node-a", "Alex", "hello", Instant.now())).join();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent relay = only(events, RelayEvent.NAME);
+        assertEquals("node-a", relay.getString("source"));
+        assertEquals("relayed", relay.getString("outcome"));
+        assertEquals(1, relay.getInt("queued"));
+
+        RecordedEvent send = only(events, SendEvent.NAME);
+        assertEquals("node-b", send.getString("node"));
+        assertEquals(5, send.getInt("messageLength"));
+        assertEquals("delivered", send.getString("outcome"));
+    }
+
+    @Test
+    void testThresholdSkipsFastEvents() throws Exception {
+        LinkManager manager = new LinkManager();
+        TestDuplexNode a = new TestDuplexNode("node-a");
+        manager.link(a, new TestDuplexNode("node-b"));
+
+        Path file = tempDir.resolve("fast.jfr");
+        try (Recording recording = FlightEvents.enable(new Recording(), Duration.ofMinutes(1), Duration.ofMinutes(1))) {
+            recording.start();
+            manager.relay(a, new Message("node-a", "Alex", "hello", Instant.now())).join();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertTrue(RecordingFile.readAllEvents(file).stream()
+                .noneMatch(event -> event.getEventType().getName().startsWith("io.github.unjoinable.whisperwire")));
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.getFirst();
+    }
+}
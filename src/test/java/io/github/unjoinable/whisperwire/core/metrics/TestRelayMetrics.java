@@ -0,0 +1,57 @@
+package io.github.unjoinable.whisperwire.core.metrics;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.TestDuplexNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRelayMetrics {
+
+    @Test
+    void testRecordsRelayStages() {
+        RelayMetrics metrics = new RelayMetrics();
+        LinkManager manager = LinkManager.builder()
+                .metrics(metrics)
+                .filter(message -> !message.rawMessage().startsWith("/"))
+                .build();
+        TestDuplexNode a = new TestDuplexNode("node-a");
+        TestDuplexNode b = new TestDuplexNode("node-b");
+        TestDuplexNode c = new TestDuplexNode("node-c");
+        manager.link(a, b);
+        manager.link(a, c, RelayPredicate.maxLength(5));
+
+        manager.relay(a, new Message("node-a", "Alex", "hi", Instant.now())).join();
+        manager.relay(a, new Message("node-a", "Alex", "a long one", Instant.now())).join();
+        manager.relay(a, new Message("node-a", "Alex", "/help", Instant.now())).join();
+
+        RelayMetrics.Snapshot snapshot = metrics.snapshot();
+        NodeMetrics.Snapshot source = snapshot.nodes().get("node-a");
+        assertEquals(3, source.ingested());
+        assertEquals(1, source.filtered());
+        assertEquals(3, source.filter().count());
+
+        assertEquals(new LinkMetrics.Snapshot(2, 0), snapshot.links().get("node-a->node-b"));
+        assertEquals(new LinkMetrics.Snapshot(1, 1), snapshot.links().get("node-a->node-c"));
+        assertEquals(2, snapshot.nodes().get("node-b").sent());
+        assertEquals(2, snapshot.nodes().get("node-b").send().count());
+    }
+
+    @Test
+    void testResetAndFlattenedCounters() {
+        RelayMetrics metrics = new RelayMetrics();
+        metrics.node("n").recordIngest();
+        metrics.link("n", "m").recordBlocked();
+
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("node.n.ingested"));
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("link.n->m.blocked"));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().nodes().get("n").ingested());
+        assertEquals(Long.valueOf(0), metrics.getCounters().get("link.n->m.blocked"));
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ScheduledExecutorService} driven by a manual clock, for testing timing-dependent code
+ * without sleeping. Tasks run on the calling thread, one at a time: immediately when executed,
+ * and when {@link #advance} moves the clock past their delay.
+ */
+public final class ManualScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+    private final PriorityQueue<Job> scheduled = new PriorityQueue<>(
+            Comparator.comparingLong((Job job) -> job.deadline).thenComparingLong(job -> job.sequence));
+    private final ArrayDeque<Runnable> ready = new ArrayDeque<>();
+    private long now;
+    private long sequence;
+    private boolean running;
+    private boolean shutdown;
+
+    /**
+     * Returns the current time of the clock in nanoseconds, to be used as a ticker.
+     */
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Moves the clock forward, running every task that becomes due at the time it is due.
+     */
+    public void advance(Duration duration) {
+        long target = now + duration.toNanos();
+        Job next;
+        while ((next = scheduled.peek()) != null && next.deadline - target <= 0) {
+            if (next.deadline - now > 0) now = next.deadline;
+            runDue();
+        }
+        now = target;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        ready.add(command);
+        runReady();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Job job = new Job(command, now + unit.toNanos(delay), sequence++);
+        scheduled.add(job);
+        runDue();
+        return job;
+    }
+
+    private void runDue() {
+        Job job;
+        while ((job = scheduled.peek()) != null && job.deadline - now <= 0) {
+            scheduled.poll();
+            if (!job.cancelled) ready.add(job::run);
+        }
+        runReady();
+    }
+
+    private void runReady() {
+        if (running) return; // Picked up by the outer loop
+        running = true;
+        try {
+            Runnable task;
+            while ((task = ready.poll()) != null) task.run();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        scheduled.clear();
+        ready.clear();
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+
+    private final class Job implements ScheduledFuture<Void> {
+        private final Runnable command;
+        private final long deadline;
+        private final long sequence;
+        private boolean cancelled;
+        private boolean done;
+
+        Job(Runnable command, long deadline, long sequence) {
+            this.command = command;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        void run() {
+            done = true;
+            command.run();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - now, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done) return false;
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Void get() {
+            return null;
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDeliveryQueue {
+
+    private ManualNode node;
+
+    @BeforeEach
+    void setup() {
+        node = new ManualNode("manual");
+    }
+
+    @Test
+    void testDeliversInOrderWithOneInFlight() {
+        DeliveryQueue queue = new DeliveryQueue(node, QueuePolicy.dropOldest(8), Runnable::run);
+
+        CompletableFuture<Void> first = queue.offer(message("1"));
+        CompletableFuture<Void> second = queue.offer(message("2"));
+
+        assertEquals(List.of("1"), node.sentContents());
+        assertEquals(1, queue.depth());
+
+        node.completeNext();
+        assertTrue(first.isDone());
+        assertEquals(List.of("1", "2"), node.sentContents());
+
+        node.completeNext();
+        assertTrue(second.isDone());
+        assertEquals(2, queue.delivered());
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    void testDropOldestEvictsHead() {
+        DeliveryQueue queue = new DeliveryQueue(node, QueuePolicy.dropOldest(2), Runnable::run);
+
+        queue.offer(message("in-flight"));
+        CompletableFuture<Void> evicted = queue.offer(message("a"));
+        queue.offer(message("b"));
+        queue.offer(message("c"));
+
+        assertTrue(evicted.isDone());
+        assertEquals(1, queue.dropped());
+
+        node.completeNext();
+        node.completeNext();
+        node.completeNext();
+        assertEquals(List.of("in-flight", "b", "c"), node.sentContents());
+    }
+
+    @Test
+    void testDropNewestKeepsQueue() {
+        DeliveryQueue queue = new DeliveryQueue(node, QueuePolicy.dropNewest(1), Runnable::run);
+
+        queue.offer(message("in-flight"));
+        queue.offer(message("kept"));
+        CompletableFuture<Void> rejected = queue.offer(message("rejected"));
+
+        assertTrue(rejected.isDone());
+        assertEquals(1, queue.dropped());
+
+        node.completeNext();
+        node.completeNext();
+        assertEquals(List.of("in-flight", "kept"), node.sentContents());
+    }
+
+    @Test
+    void testExpiredMessagesAreSkipped() {
+        AtomicLong clock = new AtomicLong();
+        QueuePolicy policy = QueuePolicy.dropOldest(8).withTimeToLive(Duration.ofMillis(20));
+        DeliveryQueue queue = new DeliveryQueue(node, policy, Runnable::run, null, clock::get);
+
+        queue.offer(message("in-flight"));
+        CompletableFuture<Void> stale = queue.offer(message("stale"));
+        clock.addAndGet(Duration.ofMillis(21).toNanos());
+
+        node.completeNext();
+
+        assertTrue(stale.isDone());
+        assertEquals(1, queue.expired());
+        assertEquals(List.of("in-flight"), node.sentContents());
+    }
+
+    @Test
+    void testBlockWaitsForSpace() throws InterruptedException {
+        DeliveryQueue queue = new DeliveryQueue(node, QueuePolicy.block(1), Runnable::run);
+        queue.offer(message("in-flight"));
+        queue.offer(message("queued"));
+
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            queue.offer(message("blocked"));
+            offered.countDown();
+        });
+        producer.start();
+
+        assertFalse(offered.await(50, TimeUnit.MILLISECONDS));
+
+        node.completeNext();
+        assertTrue(offered.await(1, TimeUnit.SECONDS));
+        assertEquals(0, queue.dropped());
+    }
+
+    @Test
+    void testFailedSendCompletesExceptionallyAndContinues() {
+        DeliveryQueue queue = new DeliveryQueue(node, QueuePolicy.DEFAULT, Runnable::run);
+
+        CompletableFuture<Void> failing = queue.offer(message("boom"));
+        queue.offer(message("next"));
+        node.failNext(new IllegalStateException("boom"));
+
+        assertTrue(failing.isCompletedExceptionally());
+        assertEquals(1, queue.failed());
+        assertEquals(List.of("boom", "next"), node.sentContents());
+    }
+
+    @Test
+    void testPipelinesUpToMaxInFlight() {
+        ManualNode pipelined = new ManualNode("pipelined", 2);
+        DeliveryQueue queue = new DeliveryQueue(pipelined, QueuePolicy.dropOldest(8), Runnable::run);
+
+        queue.offer(message("1"));
+        queue.offer(message("2"));
+        queue.offer(message("3"));
+
+        assertEquals(List.of("1", "2"), pipelined.sentContents());
+        assertEquals(1, queue.depth());
+
+        pipelined.completeNext();
+        assertEquals(List.of("1", "2", "3"), pipelined.sentContents());
+
+        pipelined.completeNext();
+        pipelined.completeNext();
+        assertEquals(3, queue.delivered());
+    }
+
+    private static Message message(String content) {
+        return new Message("source", "Steve", content, Instant.now());
+    }
+
+    /**
+     * A node whose sends only complete when the test says so.
+     */
+    private static final class ManualNode extends AbstractDuplexNode {
+        private final List<Message> sent = new ArrayList<>();
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        private final int maxInFlight;
+
+        ManualNode(String id) {
+            this(id, 1);
+        }
+
+        ManualNode(String id, int maxInFlight) {
+            super(id);
+            this.maxInFlight = maxInFlight;
+        }
+
+        @Override
+        public int maxInFlight() {
+            return maxInFlight;
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> sendMessage(Message message) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            sent.add(message);
+            pending.add(future);
+            return future;
+        }
+
+        void completeNext() {
+            nextPending().complete(null);
+        }
+
+        void failNext(Throwable error) {
+            nextPending().completeExceptionally(error);
+        }
+
+        synchronized List<String> sentContents() {
+            return sent.stream().map(Message::rawMessage).toList();
+        }
+
+        private synchronized CompletableFuture<Void> nextPending() {
+            return pending.removeFirst();
+        }
+    }
+}
@@ -4,16 +4,17 @@ import io.github.unjoinable.whisperwire.core.message.Message;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * A test implementation of {@link AbstractDuplexNode} for unit testing.
- * It stores received messages in-memory.
+ * It stores received messages in-memory, and may receive them from several threads at once.
  */
 public class TestDuplexNode extends AbstractDuplexNode {
 
-    private final List<Message> receivedMessages = new ArrayList<>();
+    private final List<Message> receivedMessages = Collections.synchronizedList(new ArrayList<>());
 
     public TestDuplexNode(String id) {
         super(id);
@@ -0,0 +1,262 @@
+package io.github.unjoinable.whisperwire.core.node;
+
+import io.github.unjoinable.whisperwire.core.journal.MessageJournal;
+import io.github.unjoinable.whisperwire.core.message.BannedWordFilter;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.message.RelayPredicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLinkManager {
+
+    @TempDir Path tempDir;
+
+    private LinkManager manager;
+    private TestDuplexNode nodeA;
+    private TestDuplexNode nodeB;
+    private TestDuplexNode nodeC;
+
+    @BeforeEach
+    void setup() {
+        manager = new LinkManager();
+        nodeA = new TestDuplexNode("node-a");
+        nodeB = new TestDuplexNode("node-b");
+        nodeC = new TestDuplexNode("node-c");
+    }
+
+    @Test
+    void testLinkIsSymmetricAndUnique() {
+        assertTrue(manager.link(nodeA, nodeB));
+        assertFalse(manager.link(nodeB, nodeA));
+        assertFalse(manager.link(nodeA, nodeA));
+
+        assertTrue(manager.isLinked(nodeA, nodeB));
+        assertTrue(manager.isLinked(nodeB, nodeA));
+        assertFalse(manager.isLinked(nodeA, nodeC));
+        assertEquals(1, manager.activeLinks().size());
+    }
+
+    @Test
+    void testRelayReachesOnlyLinkedNodes() {
+        manager.link(nodeA, nodeB);
+        manager.link(nodeB, nodeC);
+        Message msg = new Message("node-a", "Alex", "Hello", Instant.now());
+
+        manager.relay(nodeA, msg).join();
+
+        assertEquals(1, nodeB.getReceivedMessages().size());
+        assertTrue(nodeA.getReceivedMessages().isEmpty());
+        assertTrue(nodeC.getReceivedMessages().isEmpty());
+    }
+
+    @Test
+    void testUnlinkRemovesOnlyThatLink() {
+        manager.link(nodeA, nodeB);
+        manager.link(nodeA, nodeC);
+
+        assertTrue(manager.unlink(nodeB, nodeA));
+        assertFalse(manager.unlink(nodeB, nodeA));
+
+        manager.relay(nodeA, new Message("node-a", "Alex", "Still here?", Instant.now())).join();
+
+        assertTrue(nodeB.getReceivedMessages().isEmpty());
+        assertEquals(1, nodeC.getReceivedMessages().size());
+        assertFalse(manager.isLinked(nodeA, nodeB));
+        assertTrue(manager.isLinked(nodeA, nodeC));
+    }
+
+    @Test
+    void testConcurrentUnlinkNeverLeavesQueueBehind() throws InterruptedException {
+        Message msg = new Message("node-a", "Alex", "racing", Instant.now());
+        Thread relaying = Thread.ofPlatform().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) manager.relay(nodeA, msg);
+        });
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                manager.link(nodeA, nodeB);
+                manager.unlink(nodeA, nodeB);
+                assertTrue(manager.queueOf(nodeB).isEmpty());
+            }
+        } finally {
+            relaying.interrupt();
+            relaying.join();
+        }
+        assertTrue(manager.queueOf(nodeB).isEmpty());
+    }
+
+    @Test
+    void testResetClearsTopology() {
+        manager.link(nodeA, nodeB);
+        manager.reset();
+
+        assertTrue(manager.activeLinks().isEmpty());
+        assertFalse(manager.isLinked(nodeA, nodeB));
+        manager.relay(nodeA, new Message("node-a", "Alex", "Anyone?", Instant.now())).join();
+        assertTrue(nodeB.getReceivedMessages().isEmpty());
+    }
+
+    @Test
+    void testRelayAppliesPerLinkPredicateOncePerLink() {
+        AtomicInteger evaluations = new AtomicInteger();
+        RelayPredicate onlyShort = message -> {
+            evaluations.incrementAndGet();
+            return message.rawMessage().length() < 10;
+        };
+        manager.link(nodeA, nodeB, onlyShort);
+        manager.link(nodeA, nodeC);
+
+        manager.relay(nodeA, new Message("node-a", "Alex", "a very long message", Instant.now())).join();
+
+        assertTrue(nodeB.getReceivedMessages().isEmpty());
+        assertEquals(1, nodeC.getReceivedMessages().size());
+        assertEquals(1, evaluations.get());
+    }
+
+    @Test
+    void testGlobalFilterRunsOncePerMessage() {
+        AtomicInteger evaluations = new AtomicInteger();
+        LinkManager filtered = LinkManager.builder()
+                .filter(message -> {
+                    evaluations.incrementAndGet();
+                    return !message.rawMessage().startsWith("/");
+                })
+                .build();
+        filtered.link(nodeA, nodeB);
+        filtered.link(nodeA, nodeC);
+
+        filtered.relay(nodeA, new Message("node-a", "Alex", "/help", Instant.now())).join();
+        filtered.relay(nodeA, new Message("node-a", "Alex", "hi", Instant.now())).join();
+
+        assertEquals(2, evaluations.get());
+        assertEquals(1, nodeB.getReceivedMessages().size());
+        assertEquals(1, nodeC.getReceivedMessages().size());
+    }
+
+    @Test
+    void testGlobalTransformerRewritesBeforeFanOut() {
+        LinkManager masking = LinkManager.builder()
+                .transformer(BannedWordFilter.of(List.of("damn")).masking())
+                .build();
+        masking.link(nodeA, nodeB);
+
+        masking.relay(nodeA, new Message("node-a", "Alex", "damn it", Instant.now())).join();
+
+        assertEquals("**** it", nodeB.getReceivedMessages().getFirst().rawMessage());
+    }
+
+    @Test
+    void testNeverRelaysBackToOrigin() {
+        manager.link(nodeB, nodeA);
+        manager.link(nodeB, nodeC);
+
+        // nodeB forwards a message that originated at nodeA
+        manager.relay(nodeB, new Message("node-a", "Alex", "looping", Instant.now())).join();
+
+        assertTrue(nodeA.getReceivedMessages().isEmpty());
+        assertEquals(1, nodeC.getReceivedMessages().size());
+    }
+
+    @Test
+    void testDuplicatesWithinWindowAreSuppressed() {
+        DuplicateSuppressor duplicates = new DuplicateSuppressor(Duration.ofSeconds(2), 64);
+        LinkManager deduplicating = LinkManager.builder().suppressDuplicates(duplicates).build();
+        deduplicating.link(nodeA, nodeB);
+        Instant now = Instant.now();
+
+        deduplicating.relay(nodeA, new Message("node-a", "Alex", "hi", now)).join();
+        deduplicating.relay(nodeA, new Message("node-a", "Alex", "hi", now.plusMillis(300))).join();
+        deduplicating.relay(nodeA, new Message("node-a", "Alex", "hi", now.plusSeconds(5))).join();
+        deduplicating.relay(nodeA, new Message("node-a", "Alex", "hello", now.plusSeconds(5))).join();
+
+        assertEquals(3, nodeB.getReceivedMessages().size());
+        assertEquals(1, duplicates.suppressed());
+    }
+
+    @Test
+    void testSlowNodeDoesNotStallOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        DuplexNode blocking = new AbstractDuplexNode("node-blocking") {
+            @Override
+            public CompletableFuture<Void> sendMessage(Message message) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        manager.link(nodeA, blocking);
+        manager.link(nodeA, nodeB);
+
+        CompletableFuture<Void> relayed = manager.relay(nodeA, new Message("node-a", "Alex", "hi", Instant.now()));
+        manager.queueOf(nodeB).orElseThrow().offer(new Message("node-a", "Alex", "marker", Instant.now())).join();
+
+        assertFalse(relayed.isDone());
+        assertEquals(2, nodeB.getReceivedMessages().size());
+
+        release.countDown();
+        relayed.join();
+    }
+
+    @Test
+    void testPerNodeExecutorOverride() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        LinkManager inline = LinkManager.builder()
+                .executor(nodeB, task -> {
+                    threads.add(Thread.currentThread().getName());
+                    task.run();
+                })
+                .build();
+        inline.link(nodeA, nodeB);
+
+        inline.relay(nodeA, new Message("node-a", "Alex", "hi", Instant.now())).join();
+
+        assertEquals(List.of(Thread.currentThread().getName()), threads);
+        assertEquals(1, nodeB.getReceivedMessages().size());
+    }
+
+    @Test
+    void testRelayedMessagesAreJournaled() throws Exception {
+        RelayPredicate noSpam = message -> !message.rawMessage().contains("spam");
+        try (MessageJournal journal = MessageJournal.builder(tempDir).segmentSize(1 << 16).open()) {
+            LinkManager journaling = LinkManager.builder().filter(noSpam).journal(journal).build();
+            journaling.link(nodeA, nodeB);
+
+            journaling.relay(nodeA, new Message("node-a", "Alex", "hello", Instant.now())).join();
+            journaling.relay(nodeA, new Message("node-a", "Alex", "buy spam", Instant.now())).join();
+            journaling.relay(nodeC, new Message("node-c", "Steve", "unlinked", Instant.now())).join();
+            journal.sync().get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, journal.committedSequence());
+        }
+    }
+
+    @Test
+    void testRelayContinuesAfterJournalIsClosed() throws Exception {
+        MessageJournal journal = MessageJournal.builder(tempDir).segmentSize(1 << 16).open();
+        LinkManager journaling = LinkManager.builder().journal(journal).build();
+        journaling.link(nodeA, nodeB);
+        journaling.link(nodeA, nodeC);
+        journal.close();
+
+        journaling.relay(nodeA, new Message("node-a", "Alex", "hello", Instant.now())).join();
+
+        assertEquals(1, nodeB.getReceivedMessages().size());
+        assertEquals(1, nodeC.getReceivedMessages().size());
+        assertEquals(1, journal.rejected());
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestChatCoalescer {
+
+    private ScheduledExecutorService scheduler;
+    private final List<String> sent = new ArrayList<>();
+    private final List<Priority> levels = new ArrayList<>();
+    private final List<CompletableFuture<Void>> acks = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testLinesWithinWindowShareOneMessage() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 2000);
+
+        CompletableFuture<Void> first = coalescer.submit("a");
+        CompletableFuture<Void> second = coalescer.submit("b");
+        coalescer.flush();
+
+        assertEquals(List.of("a\nb"), sent);
+        assertFalse(first.isDone());
+
+        acks.getFirst().complete(null);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void testPacksUpToMaxLengthInOrder() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 10);
+
+        coalescer.submit("1234");
+        coalescer.submit("5678");
+        coalescer.submit("abcd");
+        coalescer.flush();
+        ackAll();
+
+        assertEquals(List.of("1234\n5678", "abcd"), sent);
+    }
+
+    @Test
+    void testSplitsLinesLongerThanMaxLength() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 4);
+
+        CompletableFuture<Void> line = coalescer.submit("abcdefghij");
+        coalescer.flush();
+        ackAll();
+
+        assertEquals(List.of("abcd", "efgh", "ij"), sent);
+        assertTrue(line.isDone());
+    }
+
+    @Test
+    void testSendsOneMessageAtATime() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 3);
+
+        coalescer.submit("aaa");
+        coalescer.submit("bbb");
+        coalescer.flush();
+
+        assertEquals(List.of("aaa"), sent);
+        acks.getFirst().complete(null);
+        assertEquals(List.of("aaa", "bbb"), sent);
+    }
+
+    @Test
+    void testFailedSendFailsItsLinesAndContinues() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 3);
+
+        CompletableFuture<Void> failing = coalescer.submit("aaa");
+        CompletableFuture<Void> next = coalescer.submit("bbb");
+        coalescer.flush();
+
+        acks.getFirst().completeExceptionally(new IllegalStateException("rate limited"));
+        acks.get(1).complete(null);
+
+        assertTrue(failing.isCompletedExceptionally());
+        assertTrue(next.isDone());
+        assertFalse(next.isCompletedExceptionally());
+    }
+
+    @Test
+    void testBatchIsSentAtItsHighestPriority() {
+        ChatCoalescer coalescer = coalescer(Duration.ofHours(1), 6);
+
+        coalescer.submit("chat");
+        coalescer.submit("joined", Priority.NORMAL);
+        coalescer.flush();
+        ackAll();
+        coalescer.submit("chat");
+        coalescer.flush();
+        ackAll();
+
+        assertEquals(List.of("chat", "joined", "chat"), sent);
+        assertEquals(List.of(Priority.NORMAL, Priority.NORMAL, Priority.LOW), levels);
+    }
+
+    @Test
+    void testWindowTriggersFlush() throws Exception {
+        ChatCoalescer coalescer = new ChatCoalescer((text, _) -> {
+            synchronized (sent) {
+                sent.add(text);
+            }
+            return CompletableFuture.completedFuture(null);
+        }, Duration.ofMillis(20), scheduler, 2000);
+
+        coalescer.submit("x");
+        coalescer.submit("y").get(1, TimeUnit.SECONDS);
+
+        synchronized (sent) {
+            assertEquals(List.of("x\ny"), sent);
+        }
+    }
+
+    private ChatCoalescer coalescer(Duration window, int maxLength) {
+        return new ChatCoalescer((text, level) -> {
+            CompletableFuture<Void> ack = new CompletableFuture<>();
+            sent.add(text);
+            levels.add(level);
+            acks.add(ack);
+            return ack;
+        }, window, scheduler, maxLength);
+    }
+
+    private void ackAll() {
+        for (int i = 0; i < acks.size(); i++) {
+            acks.get(i).complete(null);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.message.ChatTemplate;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDiscordDuplexNode {
+
+    private final List<String> posted = new ArrayList<>();
+    private final TextChannel channel = recordingChannel();
+
+    @Test
+    void testDefaultFormat() {
+        DiscordDuplexNode node = new DiscordDuplexNode(channel);
+
+        node.sendMessage(message("hello")).join();
+
+        assertEquals("discord-1", node.id());
+        assertEquals(List.of("**[Alex]** hello"), posted);
+    }
+
+    @Test
+    void testCustomFormatReachesPostedContent() {
+        DiscordDuplexNode node = DiscordDuplexNode.builder(channel)
+                .format(ChatTemplate.compile("<{username}> {message}"))
+                .build();
+
+        node.sendMessage(message("hello")).join();
+        node.sendMessage(message("   ")).join();
+
+        assertEquals(List.of("<Alex> hello"), posted);
+    }
+
+    private static Message message(String text) {
+        return new Message("minestom-1", "Alex", text, Instant.now());
+    }
+
+    /**
+     * A channel with ID 1 that records the content of every message sent to it and
+     * completes the send immediately.
+     */
+    private TextChannel recordingChannel() {
+        MessageCreateAction action = (MessageCreateAction) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{MessageCreateAction.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "submit" -> CompletableFuture.completedFuture(null);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "MessageCreateAction";
+                    default -> proxy; // Builder-style setters return the action itself
+                });
+
+        return (TextChannel) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{TextChannel.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> "1";
+                    case "sendMessage" -> {
+                        posted.add(args[0].toString());
+                        yield action;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "TextChannel:1";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
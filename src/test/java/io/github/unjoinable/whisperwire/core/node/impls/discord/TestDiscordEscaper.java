@@ -0,0 +1,59 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.Test;
+
+import static io.github.unjoinable.whisperwire.core.node.impls.discord.DiscordEscaper.escape;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDiscordEscaper {
+
+    @Test
+    void testReturnsSameInstanceWhenClean() {
+        String clean = "hello world, see you at 5 - bring snacks";
+
+        assertSame(clean, escape(clean));
+    }
+
+    @Test
+    void testEscapesMarkdown() {
+        assertEquals("\\*\\*bold\\*\\* \\_x\\_ \\~\\~s\\~\\~", escape("**bold** _x_ ~~s~~"));
+        assertEquals("\\`code\\` \\|\\|spoiler\\|\\| \\[link](x)", escape("`code` ||spoiler|| [link](x)"));
+        assertEquals("\\> quote\n\\# title\n  \\- item", escape("> quote\n# title\n  - item"));
+        assertEquals("a > b # c - d", escape("a > b # c - d"));
+    }
+
+    @Test
+    void testNeutralizesMentions() {
+        assertEquals("@\u200Beveryone and @\u200Bhere", escape("@everyone and @here"));
+        assertEquals("\\<@123> \\<@&456> \\<#789>", escape("<@123> <@&456> <#789>"));
+        assertEquals("a <3 b", escape("a <3 b"));
+    }
+
+    @Test
+    void testStripsLegacyFormattingCodes() {
+        assertEquals("red bold", escape("§cred §lbold"));
+        assertEquals("trailing", escape("trailing§"));
+    }
+
+    @Test
+    void testLeavesLinksIntactButDefusesInvites() {
+        String link = "see https://example.com/some_page*x";
+        assertSame(link, escape(link));
+
+        assertEquals("join discord\u200B.gg/abc", escape("join discord.gg/abc"));
+        assertEquals("https://discord\u200B.com/invite/abc", escape("https://discord.com/invite/abc"));
+    }
+
+    @Test
+    void testSanitizesOnlyMessagesFromOutsideDiscord() {
+        Message fromDiscord = Message.of(DiscordDuplexNode.ID_PREFIX + "1", "bob", "**hi**");
+        Message clean = Message.of("minecraft", "alex", "hello");
+        Message dirty = Message.of("minecraft", "a_b", "@everyone");
+
+        assertSame(fromDiscord, DiscordEscaper.sanitize(fromDiscord));
+        assertSame(clean, DiscordEscaper.sanitize(clean));
+        assertEquals("a\\_b", DiscordEscaper.sanitize(dirty).username());
+        assertEquals("@\u200Beveryone", DiscordEscaper.sanitize(dirty).rawMessage());
+    }
+}
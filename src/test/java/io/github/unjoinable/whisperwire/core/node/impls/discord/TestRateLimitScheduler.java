@@ -0,0 +1,181 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.core.node.ManualScheduledExecutor;
+import io.github.unjoinable.whisperwire.core.node.impls.discord.RateLimitScheduler.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestRateLimitScheduler {
+
+    private ManualScheduledExecutor clock;
+    private RateLimitScheduler scheduler;
+
+    @BeforeEach
+    void setup() {
+        clock = new ManualScheduledExecutor();
+    }
+
+    @AfterEach
+    void teardown() {
+        if (scheduler != null) scheduler.close();
+    }
+
+    private RateLimitScheduler.Builder builder() {
+        return RateLimitScheduler.builder().executor(clock).ticker(clock::nanoTime);
+    }
+
+    @Test
+    void testStaysWithinServerBudget() {
+        FakeDiscord discord = new FakeDiscord(5, Duration.ofMillis(100), clock::nanoTime);
+        scheduler = builder().routeLimit(5, Duration.ofMillis(100)).build();
+
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            String content = "line " + i;
+            sends.add(scheduler.submit("channel-1", Priority.NORMAL, () -> discord.post("channel-1", content)));
+        }
+        assertEquals(5, discord.accepted().size());
+        assertEquals(10, scheduler.pending());
+
+        clock.advance(Duration.ofMillis(99));
+        assertEquals(5, discord.accepted().size());
+        clock.advance(Duration.ofMillis(1));
+        assertEquals(10, discord.accepted().size());
+        clock.advance(Duration.ofMillis(100));
+
+        assertEquals(15, discord.accepted().size());
+        assertEquals(0, discord.rejected());
+        assertEquals(0, scheduler.pending());
+        assertTrue(sends.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(Duration.ofMillis(200), scheduler.maxWait());
+    }
+
+    @Test
+    void testHighPriorityOvertakesQueuedChat() {
+        FakeDiscord discord = new FakeDiscord(1, Duration.ofMillis(50), clock::nanoTime);
+        scheduler = builder().routeLimit(1, Duration.ofMillis(50)).build();
+
+        scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "chat 1"));
+        scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "chat 2"));
+        scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "chat 3"));
+        CompletableFuture<?> alert = scheduler.submit("channel-1", Priority.HIGH, () -> discord.post("channel-1", "alert"));
+        CompletableFuture<?> last = scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "chat 4"));
+
+        clock.advance(Duration.ofMillis(50));
+        assertTrue(alert.isDone());
+        assertFalse(last.isDone());
+
+        clock.advance(Duration.ofMillis(150));
+        assertTrue(last.isDone());
+        assertEquals(List.of("chat 1", "alert", "chat 2", "chat 3", "chat 4"), discord.accepted());
+        assertEquals(Duration.ofMillis(50), scheduler.averageWait(Priority.HIGH));
+        assertTrue(scheduler.averageWait(Priority.LOW).compareTo(scheduler.averageWait(Priority.HIGH)) > 0);
+    }
+
+    @Test
+    void testGlobalLimitIsSharedAcrossRoutes() {
+        FakeDiscord discord = new FakeDiscord(10, Duration.ofSeconds(1), clock::nanoTime);
+        scheduler = builder().globalLimit(2, Duration.ofMillis(300)).build();
+
+        List<CompletableFuture<?>> sends = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String route = "channel-" + i;
+            sends.add(scheduler.submit(route, Priority.NORMAL, () -> discord.post(route, "hello")));
+        }
+        assertEquals(2, discord.accepted().size());
+
+        clock.advance(Duration.ofMillis(300));
+        assertEquals(4, discord.accepted().size());
+        assertTrue(sends.stream().allMatch(CompletableFuture::isDone));
+    }
+
+    @Test
+    void testFailedCallCompletesExceptionally() {
+        scheduler = builder().build();
+
+        CompletableFuture<?> failed = scheduler.submit("channel-1", Priority.NORMAL,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("HTTP 403")));
+        CompletableFuture<?> thrown = scheduler.submit("channel-1", Priority.NORMAL, () -> {
+            throw new IllegalStateException("not sent");
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void testCloseFailsQueuedCalls() {
+        FakeDiscord discord = new FakeDiscord(1, Duration.ofMillis(100), clock::nanoTime);
+        scheduler = builder().routeLimit(1, Duration.ofMillis(100)).build();
+
+        CompletableFuture<?> issued = scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "first"));
+        CompletableFuture<?> queued = scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "second"));
+        assertEquals(1, scheduler.pending());
+
+        scheduler.close();
+        clock.advance(Duration.ofMillis(100));
+
+        assertTrue(issued.isDone());
+        assertFalse(issued.isCompletedExceptionally());
+        assertTrue(queued.isCompletedExceptionally());
+        assertEquals(List.of("first"), discord.accepted());
+        assertEquals(0, scheduler.pending());
+        assertThrows(IllegalStateException.class,
+                () -> scheduler.submit("channel-1", Priority.LOW, () -> discord.post("channel-1", "third")));
+    }
+
+    /**
+     * A REST endpoint that enforces a fixed-window limit per route and rejects calls beyond it.
+     */
+    private static final class FakeDiscord {
+        private final int limit;
+        private final long windowNanos;
+        private final LongSupplier ticker;
+        private final Map<String, long[]> windows = new HashMap<>();
+        private final List<String> accepted = new ArrayList<>();
+        private int rejected;
+
+        FakeDiscord(int limit, Duration window, LongSupplier ticker) {
+            this.limit = limit;
+            this.windowNanos = window.toNanos();
+            this.ticker = ticker;
+        }
+
+        CompletableFuture<String> post(String route, String content) {
+            long now = ticker.getAsLong();
+            long[] window = windows.computeIfAbsent(route, _ -> new long[]{now, 0});
+            if (now - window[0] >= windowNanos) {
+                window[0] = now;
+                window[1] = 0;
+            }
+
+            if (window[1] >= limit) {
+                rejected++;
+                return CompletableFuture.failedFuture(new IllegalStateException("HTTP 429"));
+            }
+            window[1]++;
+            accepted.add(content);
+            return CompletableFuture.completedFuture(content);
+        }
+
+        List<String> accepted() {
+            return List.copyOf(accepted);
+        }
+
+        int rejected() {
+            return rejected;
+        }
+    }
+}
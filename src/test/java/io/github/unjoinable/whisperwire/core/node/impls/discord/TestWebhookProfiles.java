@@ -0,0 +1,99 @@
+package io.github.unjoinable.whisperwire.core.node.impls.discord;
+
+import io.github.unjoinable.whisperwire.config.configs.WebhookConfig;
+import io.github.unjoinable.whisperwire.core.message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestWebhookProfiles {
+
+    private static final WebhookConfig CONFIG = new WebhookConfig("{username} [MC]", "https://mc-heads.net/avatar/{uuid}/64");
+
+    @Test
+    void testRendersUsernameAndAvatar() {
+        WebhookProfiles profiles = new WebhookProfiles(CONFIG, WebhookProfiles::offlineUuid, 16);
+        Message message = message("Steve");
+
+        assertEquals("Steve [MC]", profiles.username(message));
+        assertEquals("https://mc-heads.net/avatar/" + WebhookProfiles.offlineUuid("Steve") + "/64",
+                profiles.avatarUrl(message));
+    }
+
+    @Test
+    void testOfflineUuidMatchesServerAlgorithm() {
+        // Offline-mode UUIDs are name-based (version 3)
+        UUID uuid = WebhookProfiles.offlineUuid("Notch");
+
+        assertEquals(3, uuid.version());
+        assertEquals(uuid, WebhookProfiles.offlineUuid("Notch"));
+        assertNotEquals(uuid, WebhookProfiles.offlineUuid("notch"));
+    }
+
+    @Test
+    void testTruncatesLongUsernames() {
+        WebhookProfiles profiles = new WebhookProfiles(CONFIG, WebhookProfiles::offlineUuid, 16);
+
+        String name = profiles.username(message("x".repeat(100)));
+
+        assertEquals(WebhookProfiles.MAX_USERNAME_LENGTH, name.length());
+
+        String emoji = profiles.username(message("x".repeat(79) + "\uD83D\uDE00"));
+        assertEquals("x".repeat(79), emoji);
+    }
+
+    @Test
+    void testCachesUsernamesThatOnlyDependOnThePlayer() {
+        WebhookProfiles profiles = new WebhookProfiles(CONFIG, WebhookProfiles::offlineUuid, 16);
+        String first = profiles.username(message("Steve"));
+        assertSame(first, profiles.username(message("Steve")));
+
+        WebhookProfiles bySource = new WebhookProfiles(new WebhookConfig("{username} ({source})", "{uuid}"),
+                WebhookProfiles::offlineUuid, 16);
+        assertEquals("Steve (minestom-lobby)", bySource.username(message("Steve")));
+        assertEquals("Steve (minestom-hub)",
+                bySource.username(new Message("minestom-hub", "Steve", "hello", Instant.now())));
+    }
+
+    @Test
+    void testAvatarCacheIsBounded() {
+        AtomicInteger resolved = new AtomicInteger();
+        WebhookProfiles profiles = new WebhookProfiles(CONFIG, name -> {
+            resolved.incrementAndGet();
+            return WebhookProfiles.offlineUuid(name);
+        }, 2);
+
+        String first = profiles.avatarUrl(message("Alex"));
+        assertSame(first, profiles.avatarUrl(message("Alex")));
+        assertEquals(1, resolved.get());
+
+        profiles.avatarUrl(message("Steve"));
+        profiles.avatarUrl(message("Herobrine"));
+
+        assertEquals(2, profiles.cachedAvatars());
+        assertNotSame(first, profiles.avatarUrl(message("Alex")));
+        assertEquals(4, resolved.get());
+    }
+
+    @Test
+    void testStripsSubstringsDiscordForbids() {
+        WebhookProfiles profiles = new WebhookProfiles(new WebhookConfig("[Discord] {username}", "{uuid}"),
+                WebhookProfiles::offlineUuid, 16);
+
+        assertEquals("[] Steve", profiles.username(message("Steve")));
+        assertEquals("[] Bob", profiles.username(message("ClYdEBob")));
+        assertEquals("[]", profiles.username(message("discdiscordord")));
+        assertEquals("Alex", WebhookProfiles.stripForbidden("  clydeAlex "));
+        assertEquals(WebhookProfiles.FALLBACK_USERNAME,
+                new WebhookProfiles(new WebhookConfig("{username}", "{uuid}"), WebhookProfiles::offlineUuid, 16)
+                        .username(message("Clyde")));
+    }
+
+    private static Message message(String username) {
+        return new Message("minestom-lobby", username, "hello", Instant.now());
+    }
+}
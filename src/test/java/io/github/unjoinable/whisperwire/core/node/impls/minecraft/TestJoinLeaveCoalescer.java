@@ -0,0 +1,65 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.node.ManualScheduledExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestJoinLeaveCoalescer {
+
+    private ManualScheduledExecutor scheduler;
+    private final List<String> lines = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        scheduler = new ManualScheduledExecutor();
+    }
+
+    @Test
+    void testFewJoinsAreAnnouncedIndividually() {
+        JoinLeaveCoalescer coalescer = new JoinLeaveCoalescer(lines::add, Duration.ofHours(1), 3, scheduler);
+
+        coalescer.joined("alex");
+        coalescer.left("steve");
+        coalescer.joined("bob");
+        coalescer.flush();
+
+        assertEquals(List.of("alex joined the game", "bob joined the game", "steve left the game"), lines);
+    }
+
+    @Test
+    void testBurstIsSummarized() {
+        JoinLeaveCoalescer coalescer = new JoinLeaveCoalescer(lines::add, Duration.ofHours(1), 3, scheduler);
+
+        for (int i = 0; i < 12; i++) {
+            coalescer.joined("p" + i);
+        }
+        coalescer.flush();
+
+        assertEquals(List.of("12 players joined: p0, p1, p2, p3, p4, p5, p6, p7, p8, p9, …"), lines);
+    }
+
+    @Test
+    void testFlushesAfterWindow() {
+        JoinLeaveCoalescer coalescer = new JoinLeaveCoalescer(lines::add, Duration.ofMillis(20), 2, scheduler);
+
+        coalescer.left("a");
+        coalescer.left("b");
+        scheduler.advance(Duration.ofMillis(19));
+        assertTrue(lines.isEmpty());
+
+        scheduler.advance(Duration.ofMillis(1));
+        assertEquals(List.of("2 players left: a, b"), lines);
+    }
+
+    @Test
+    void testRejectsInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new JoinLeaveCoalescer(lines::add, Duration.ofSeconds(1), 0, scheduler));
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.node.impls.minecraft.MarkdownParser.Span;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.github.unjoinable.whisperwire.core.node.impls.minecraft.MarkdownParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMarkdownParser {
+
+    @Test
+    void testBasicStyles() {
+        assertEquals(List.of(new Span("a ", 0), new Span("b", BOLD), new Span(" c", 0)), parse("a **b** c"));
+        assertEquals(List.of(new Span("x", ITALIC)), parse("*x*"));
+        assertEquals(List.of(new Span("x", ITALIC)), parse("_x_"));
+        assertEquals(List.of(new Span("x", UNDERLINE)), parse("__x__"));
+        assertEquals(List.of(new Span("x", STRIKE)), parse("~~x~~"));
+        assertEquals(List.of(new Span("x", SPOILER)), parse("||x||"));
+    }
+
+    @Test
+    void testNestedStyles() {
+        assertEquals(List.of(new Span("a", BOLD), new Span("b", BOLD | ITALIC), new Span("c", BOLD)),
+                parse("**a*b*c**"));
+        assertEquals(List.of(new Span("x", BOLD | ITALIC)), parse("***x***"));
+        assertEquals(List.of(new Span("x", BOLD | ITALIC)), parse("**_x_**"));
+        assertEquals(List.of(new Span("a ", 0), new Span("b", BOLD | ITALIC), new Span(" c", 0)), parse("a ***b*** c"));
+        assertEquals(List.of(new Span("a", ITALIC), new Span("b", BOLD | ITALIC)), parse("*a**b***"));
+        assertEquals(List.of(new Span("a", BOLD), new Span("b", BOLD | ITALIC)), parse("**a*b***"));
+    }
+
+    @Test
+    void testUnclosedDelimitersStayLiteral() {
+        assertEquals(List.of(new Span("2 * 3 = 6", 0)), parse("2 * 3 = 6"));
+        assertEquals(List.of(new Span("**", 0)), parse("**"));
+        assertEquals(List.of(new Span("****", 0)), parse("****"));
+        // the inner italic is discarded when the bold closes around it
+        assertEquals(List.of(new Span("a*b", BOLD), new Span(" c*", 0)), parse("**a*b** c*"));
+    }
+
+    @Test
+    void testUnderscoresInsideWordsAreLiteral() {
+        assertEquals(List.of(new Span("snake_case_name", 0)), parse("snake_case_name"));
+    }
+
+    @Test
+    void testCodeSpansAreNotParsed() {
+        assertEquals(List.of(new Span("run ", 0), new Span("**x**", CODE)), parse("run `**x**`"));
+        assertEquals(List.of(new Span("a ` b", 0)), parse("a ` b"));
+    }
+
+    @Test
+    void testEscapes() {
+        assertEquals(List.of(new Span("hi @Steve!", 0)), parse("hi @Steve!"));
+        assertEquals(List.of(new Span("*not italic*", 0)), parse("\\*not italic\\*"));
+    }
+
+    @Test
+    void testLinearOnPathologicalInput() {
+        String input = "*_~~||".repeat(20_000) + "`".repeat(20_000);
+
+        long start = System.nanoTime();
+        parse(input);
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    }
+
+    @Test
+    void testDetectsPlainText() {
+        assertFalse(mayContainMarkdown("hello world"));
+        assertTrue(mayContainMarkdown("hello *world*"));
+    }
+}
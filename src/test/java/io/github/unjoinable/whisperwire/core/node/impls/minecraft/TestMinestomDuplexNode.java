@@ -0,0 +1,104 @@
+package io.github.unjoinable.whisperwire.core.node.impls.minecraft;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import net.minestom.server.entity.Player;
+import net.minestom.server.timer.Scheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMinestomDuplexNode {
+
+    private Scheduler scheduler;
+    private AtomicInteger lookups;
+    private Supplier<Collection<Player>> players;
+
+    @BeforeEach
+    void setup() {
+        // A standalone scheduler only advances when ticked by the test, no server needed
+        scheduler = Scheduler.newScheduler();
+        lookups = new AtomicInteger();
+        players = () -> {
+            lookups.incrementAndGet();
+            return List.of();
+        };
+    }
+
+    @Test
+    void testMessagesWithinOneTickAreFlushedTogether() {
+        MinestomDuplexNode node = MinestomDuplexNode.builder(players).scheduler(scheduler).build();
+
+        List<CompletableFuture<Void>> sent = send(node, 3);
+        assertTrue(sent.stream().noneMatch(CompletableFuture::isDone));
+        assertEquals(0, lookups.get());
+
+        scheduler.processTick();
+
+        assertTrue(sent.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void testMessagesBeyondMaxPerTickCarryOver() {
+        MinestomDuplexNode node = MinestomDuplexNode.builder(players).scheduler(scheduler).maxPerTick(2).build();
+        assertEquals(2, node.maxInFlight());
+
+        List<CompletableFuture<Void>> sent = send(node, 5);
+
+        scheduler.processTick();
+        assertEquals(2, sent.stream().filter(CompletableFuture::isDone).count());
+        assertFalse(sent.get(2).isDone());
+
+        scheduler.processTick();
+        assertEquals(4, sent.stream().filter(CompletableFuture::isDone).count());
+
+        scheduler.processTick();
+        assertTrue(sent.stream().allMatch(CompletableFuture::isDone));
+        assertEquals(3, lookups.get());
+
+        scheduler.processTick();
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    void testSendAfterFlushSchedulesAnotherTick() {
+        MinestomDuplexNode node = MinestomDuplexNode.builder(players).scheduler(scheduler).build();
+
+        CompletableFuture<Void> first = node.sendMessage(message("first"));
+        scheduler.processTick();
+        CompletableFuture<Void> second = node.sendMessage(message("second"));
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        scheduler.processTick();
+        assertNull(second.join());
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testPublicConstructorNeedsNoServerUntilFirstSend() {
+        MinestomDuplexNode node = new MinestomDuplexNode(players);
+        assertEquals(64, node.maxInFlight());
+    }
+
+    private static List<CompletableFuture<Void>> send(MinestomDuplexNode node, int count) {
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sent.add(node.sendMessage(message("message " + i)));
+        }
+        return sent;
+    }
+
+    private static Message message(String text) {
+        return new Message("discord-1", "Alex", text, Instant.now());
+    }
+}
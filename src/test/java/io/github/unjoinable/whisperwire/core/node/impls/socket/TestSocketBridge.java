@@ -0,0 +1,252 @@
+package io.github.unjoinable.whisperwire.core.node.impls.socket;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.QueuePolicy;
+import io.github.unjoinable.whisperwire.core.node.TestDuplexNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSocketBridge {
+    private static final Duration RECONNECT_DELAY = Duration.ofMillis(20);
+
+    @TempDir
+    Path tempDir;
+
+    private LinkManager hubManager;
+    private LinkManager spokeManager;
+    private TestDuplexNode hubSink;
+    private TestDuplexNode spokeSink;
+    private SocketBridge hub;
+    private SocketBridge spoke;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hubManager = new LinkManager();
+        spokeManager = new LinkManager();
+        hubSink = new TestDuplexNode("hub-sink");
+        spokeSink = new TestDuplexNode("spoke-sink");
+
+        hub = SocketBridge.builder("hub", hubManager)
+                .reconnectDelay(RECONNECT_DELAY)
+                .onPeer(node -> hubManager.link(node, hubSink))
+                .build();
+        spoke = SocketBridge.builder("spoke", spokeManager)
+                .reconnectDelay(RECONNECT_DELAY)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        spoke.close();
+        hub.close();
+    }
+
+    @Test
+    void testMessagesFlowBothWaysOverTcp() throws Exception {
+        SocketAddress address = hub.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketDuplexNode toHub = spoke.connect("hub", address);
+        spokeManager.link(toHub, spokeSink);
+
+        toHub.sendMessage(message("spoke-1", "from spoke")).get(5, TimeUnit.SECONDS);
+        await(() -> hubSink.getReceivedMessages().size() == 1);
+        Message received = hubSink.getReceivedMessages().getFirst();
+        assertEquals("from spoke", received.rawMessage());
+        assertEquals("spoke-1", received.source());
+
+        assertEquals(1, hub.peers().size());
+        SocketDuplexNode toSpoke = hub.peers().getFirst();
+        assertEquals("bridge-spoke", toSpoke.id());
+        assertEquals("spoke", toSpoke.peerName());
+        assertTrue(toSpoke.isConnected());
+
+        toSpoke.sendMessage(message("hub-1", "from hub")).get(5, TimeUnit.SECONDS);
+        await(() -> spokeSink.getReceivedMessages().size() == 1);
+        assertEquals("from hub", spokeSink.getReceivedMessages().getFirst().rawMessage());
+    }
+
+    @Test
+    void testReconnectResumesWithoutLossOrDuplicates() throws Exception {
+        SocketAddress address = hub.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketDuplexNode toHub = spoke.connect("hub", address);
+
+        int count = 1_000;
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sent.add(toHub.sendMessage(message("spoke-1", "m" + i)));
+            if (i % 250 == 100) {
+                spoke.dropConnections();
+                hub.dropConnections();
+            }
+        }
+        CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        await(() -> hubSink.getReceivedMessages().size() >= count);
+        List<Message> received = List.copyOf(hubSink.getReceivedMessages());
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("m" + i, received.get(i).rawMessage());
+        }
+    }
+
+    @Test
+    void testUnixDomainSocket() throws Exception {
+        SocketAddress address = hub.listen(UnixDomainSocketAddress.of(tempDir.resolve("hub.sock")));
+        SocketDuplexNode toHub = spoke.connect("hub", address);
+
+        toHub.sendMessage(message("spoke-1", "over unix")).get(5, TimeUnit.SECONDS);
+        await(() -> hubSink.getReceivedMessages().size() == 1);
+        assertEquals("over unix", hubSink.getReceivedMessages().getFirst().rawMessage());
+    }
+
+    @Test
+    void testWindowIsMaxInFlightAndCloseFailsPending() throws Exception {
+        try (SocketBridge bridge = SocketBridge.builder("lonely", new LinkManager()).window(8).build()) {
+            // Nothing listens on this port, so messages stay pending
+            SocketDuplexNode node = bridge.connect("nobody", new InetSocketAddress(InetAddress.getLoopbackAddress(), 1));
+            assertEquals(8, node.maxInFlight());
+            assertFalse(node.isConnected());
+            assertThrows(IllegalArgumentException.class,
+                    () -> bridge.connect("nobody", new InetSocketAddress(InetAddress.getLoopbackAddress(), 1)));
+
+            CompletableFuture<Void> pending = node.sendMessage(message("lonely-1", "hello?"));
+            bridge.close();
+            CompletionException e = assertThrows(CompletionException.class, pending::join);
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(node.sendMessage(message("lonely-1", "late")).isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    void testBlockedRelayHoldsBackAcksWithoutStallingOtherPeers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TestDuplexNode stuckSink = new TestDuplexNode("stuck-sink") {
+            @Override
+            public CompletableFuture<Void> sendMessage(Message message) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.sendMessage(message);
+            }
+        };
+        LinkManager blocking = LinkManager.builder().queuePolicy(QueuePolicy.block(1)).build();
+        try (SocketBridge server = SocketBridge.builder("server", blocking)
+                .window(4)
+                .onPeer(node -> blocking.link(node, node.peerName().equals("slow") ? stuckSink : hubSink))
+                .build();
+             SocketBridge slow = SocketBridge.builder("slow", new LinkManager()).build();
+             SocketBridge fast = SocketBridge.builder("fast", new LinkManager()).build()) {
+            SocketAddress address = server.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketDuplexNode slowNode = slow.connect("server", address);
+            SocketDuplexNode fastNode = fast.connect("server", address);
+
+            List<CompletableFuture<Void>> sent = new ArrayList<>();
+            for (int i = 0; i < 20; i++) sent.add(slowNode.sendMessage(message("slow-1", "s" + i)));
+            fastNode.sendMessage(message("fast-1", "still flowing")).get(5, TimeUnit.SECONDS);
+            await(() -> hubSink.getReceivedMessages().size() == 1);
+
+            // One message is being sent, one is queued and one relay waits for space
+            assertFalse(sent.getLast().isDone());
+            assertTrue(sent.stream().filter(CompletableFuture::isDone).count() <= 3);
+
+            release.countDown();
+            CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            await(() -> stuckSink.getReceivedMessages().size() == 20);
+            for (int i = 0; i < 20; i++) {
+                assertEquals("s" + i, stuckSink.getReceivedMessages().get(i).rawMessage());
+            }
+        }
+    }
+
+    @Test
+    void testSecretIsRequiredBeyondLoopback() {
+        assertThrows(IllegalStateException.class, () -> hub.listen(new InetSocketAddress(0)));
+    }
+
+    @Test
+    void testPeerWithWrongSecretIsRejected() throws Exception {
+        try (SocketBridge guarded = SocketBridge.builder("guarded", hubManager)
+                .secret("correct horse")
+                .onPeer(node -> hubManager.link(node, hubSink))
+                .build();
+             SocketBridge intruder = SocketBridge.builder("intruder", new LinkManager())
+                     .secret("battery staple")
+                     .reconnectDelay(RECONNECT_DELAY)
+                     .build();
+             SocketBridge friend = SocketBridge.builder("friend", new LinkManager())
+                     .secret("correct horse")
+                     .build()) {
+            SocketAddress address = guarded.listen(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketDuplexNode fromIntruder = intruder.connect("guarded", address);
+            SocketDuplexNode fromFriend = friend.connect("guarded", address);
+
+            CompletableFuture<Void> rejected = fromIntruder.sendMessage(message("intruder-1", "let me in"));
+            fromFriend.sendMessage(message("friend-1", "hello")).get(5, TimeUnit.SECONDS);
+            await(() -> hubSink.getReceivedMessages().size() == 1);
+
+            assertEquals(List.of("friend"), guarded.peers().stream().map(SocketDuplexNode::peerName).toList());
+            assertFalse(fromIntruder.isConnected());
+            assertFalse(rejected.isDone());
+            assertEquals(List.of("hello"), hubSink.getReceivedMessages().stream().map(Message::rawMessage).toList());
+        }
+    }
+
+    @Test
+    void testConnectionWithoutHandshakeIsClosed() throws Exception {
+        try (SocketBridge guarded = SocketBridge.builder("guarded", hubManager)
+                .handshakeTimeout(Duration.ofMillis(100))
+                .build()) {
+            InetSocketAddress address = (InetSocketAddress) guarded.listen(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            try (Socket silent = new Socket(address.getAddress(), address.getPort())) {
+                silent.setSoTimeout(5_000);
+                DataInputStream in = new DataInputStream(silent.getInputStream());
+
+                int length = in.readInt();
+                assertEquals(Frame.CHALLENGE, in.readByte());
+                in.skipNBytes(length - 1);
+                assertEquals(Frame.NONCE_SIZE + 1, length);
+                assertEquals(-1, in.read());
+            }
+            assertTrue(guarded.peers().isEmpty());
+        }
+    }
+
+    private static Message message(String source, String text) {
+        return new Message(source, "Alex", text, Instant.now());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for condition");
+            Thread.sleep(5);
+        }
+    }
+}
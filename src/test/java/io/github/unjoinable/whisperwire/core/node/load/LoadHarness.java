@@ -0,0 +1,317 @@
+package io.github.unjoinable.whisperwire.core.node.load;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.metrics.LatencyHistogram;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+import io.github.unjoinable.whisperwire.core.node.DeliveryQueue;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+import io.github.unjoinable.whisperwire.core.node.QueuePolicy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives synthetic traffic through a {@link LinkManager} without Discord or Minecraft.
+ *
+ * <p>A run builds {@code sources} source nodes and {@code sinks} {@link SyntheticSink}s,
+ * links them according to a {@link Topology}, and relays messages from {@code threads}
+ * producer threads at a combined target rate, spread round-robin over the sources. Each
+ * producer paces itself against an absolute schedule, so a stall is caught up afterwards
+ * rather than lowering the rate. Sinks can be given a fixed latency and a failure rate.
+ *
+ * <p>After the run, the harness waits up to {@code drainTimeout} for queued deliveries and
+ * reports throughput, end-to-end latency percentiles, failures, drops and heap growth.
+ *
+ * <p>Run it from Gradle with {@code ./gradlew soak}, passing settings as {@code key=value}
+ * arguments, e.g. {@code --args="topology=MESH rate=50000 duration=PT5M"}.
+ */
+public final class LoadHarness {
+    private final Topology topology;
+    private final int sources;
+    private final int sinks;
+    private final int rate;
+    private final int threads;
+    private final Duration duration;
+    private final Duration sinkLatency;
+    private final double failureRate;
+    private final QueuePolicy queuePolicy;
+    private final Duration drainTimeout;
+
+    private LoadHarness(Builder builder) {
+        this.topology = builder.topology;
+        this.sources = builder.sources;
+        this.sinks = builder.sinks;
+        this.rate = builder.rate;
+        this.threads = builder.threads;
+        this.duration = builder.duration;
+        this.sinkLatency = builder.sinkLatency;
+        this.failureRate = builder.failureRate;
+        this.queuePolicy = builder.queuePolicy;
+        this.drainTimeout = builder.drainTimeout;
+    }
+
+    /**
+     * Creates a new builder with defaults suitable for a short local run.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the load and returns its report.
+     *
+     * @throws InterruptedException if interrupted while waiting for producers
+     */
+    public LoadReport run() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        LatencyHistogram endToEnd = new LatencyHistogram();
+        LinkManager manager = LinkManager.builder().queuePolicy(queuePolicy).build();
+
+        List<SourceNode> sourceNodes = new ArrayList<>(sources);
+        for (int i = 0; i < sources; i++) {
+            sourceNodes.add(new SourceNode("source-" + i));
+        }
+        List<SyntheticSink> sinkNodes = new ArrayList<>(sinks);
+        for (int i = 0; i < sinks; i++) {
+            sinkNodes.add(new SyntheticSink("sink-" + i, sinkLatency, failureRate, endToEnd));
+        }
+        topology.link(manager, sourceNodes, sinkNodes);
+
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        LongAdder relayed = new LongAdder();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(threads) / rate;
+
+        Thread[] producers = new Thread[threads];
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] tails = new CompletableFuture[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            producers[t] = Thread.ofPlatform().name("load-producer-" + t).start(() -> {
+                CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+                long next = start + intervalNanos * offset / threads;
+                long sequence = offset;
+
+                while (next < end) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+
+                    SourceNode source = sourceNodes.get((int) (sequence % sources));
+                    last = manager.relay(source, new Message(source.id(), "load", "message " + sequence, Instant.now()));
+                    relayed.increment();
+                    sequence += threads;
+                    next += intervalNanos;
+                }
+                tails[offset] = last;
+            });
+        }
+        for (Thread producer : producers) producer.join();
+        long elapsed = System.nanoTime() - start;
+
+        List<CompletableFuture<Void>> lastRelays = new ArrayList<>(threads);
+        for (CompletableFuture<Void> tail : tails) lastRelays.add(tail.exceptionally(_ -> null));
+        awaitDrain(manager, sinkNodes, lastRelays);
+
+        long delivered = 0;
+        long failed = 0;
+        long dropped = 0;
+        for (SyntheticSink sink : sinkNodes) {
+            // Sinks the topology left unlinked never get a queue
+            Optional<DeliveryQueue> found = manager.queueOf(sink);
+            if (found.isEmpty()) continue;
+
+            DeliveryQueue queue = found.get();
+            delivered += queue.delivered();
+            failed += queue.failed();
+            dropped += queue.dropped() + queue.expired();
+        }
+
+        System.gc();
+        long heapGrowth = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+
+        return new LoadReport(Duration.ofNanos(elapsed), relayed.sum(), delivered, failed, dropped,
+                endToEnd.snapshot(), heapGrowth);
+    }
+
+    /**
+     * Waits until every queue is empty and the last relay of each producer has completed.
+     */
+    private void awaitDrain(LinkManager manager, List<SyntheticSink> sinkNodes, List<CompletableFuture<Void>> lastRelays) {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        try {
+            CompletableFuture.allOf(lastRelays.toArray(CompletableFuture[]::new))
+                    .get(drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception _) {
+            // Reported as undelivered
+        }
+
+        while (System.nanoTime() < deadline) {
+            boolean idle = sinkNodes.stream()
+                    .allMatch(sink -> manager.queueOf(sink).map(queue -> queue.depth() == 0).orElse(true));
+            if (idle) return;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    /**
+     * Runs the harness with {@code key=value} settings and prints the report.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Builder builder = builder();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value but got: " + arg);
+
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq)) {
+                case "topology" -> builder.topology(Topology.valueOf(value.toUpperCase()));
+                case "sources" -> builder.sources(Integer.parseInt(value));
+                case "sinks" -> builder.sinks(Integer.parseInt(value));
+                case "rate" -> builder.rate(Integer.parseInt(value));
+                case "threads" -> builder.threads(Integer.parseInt(value));
+                case "duration" -> builder.duration(Duration.parse(value));
+                case "sinkLatency" -> builder.sinkLatency(Duration.parse(value));
+                case "failureRate" -> builder.failureRate(Double.parseDouble(value));
+                case "queueCapacity" -> builder.queuePolicy(QueuePolicy.dropOldest(Integer.parseInt(value)));
+                default -> throw new IllegalArgumentException("Unknown setting: " + arg);
+            }
+        }
+
+        LoadHarness harness = builder.build();
+        System.out.println(harness);
+        System.out.println(harness.run());
+    }
+
+    @Override
+    public String toString() {
+        return "LoadHarness[topology=%s, sources=%d, sinks=%d, rate=%d/s, threads=%d, duration=%s, sinkLatency=%s, failureRate=%s]"
+                .formatted(topology, sources, sinks, rate, threads, duration, sinkLatency, failureRate);
+    }
+
+    /**
+     * A source node; it only originates messages, and anything relayed to it is discarded.
+     */
+    private static final class SourceNode extends AbstractDuplexNode {
+        private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+        SourceNode(String id) {
+            super(id);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendMessage(Message message) {
+            return DONE;
+        }
+    }
+
+    /**
+     * Builder for {@link LoadHarness}.
+     */
+    public static final class Builder {
+        private Topology topology = Topology.STAR;
+        private int sources = 4;
+        private int sinks = 4;
+        private int rate = 1_000;
+        private int threads = 4;
+        private Duration duration = Duration.ofSeconds(10);
+        private Duration sinkLatency = Duration.ZERO;
+        private double failureRate;
+        private QueuePolicy queuePolicy = QueuePolicy.DEFAULT;
+        private Duration drainTimeout = Duration.ofSeconds(30);
+
+        private Builder() {}
+
+        public Builder topology(Topology topology) {
+            this.topology = Objects.requireNonNull(topology, "topology must not be null");
+            return this;
+        }
+
+        public Builder sources(int sources) {
+            this.sources = positive(sources, "sources");
+            return this;
+        }
+
+        public Builder sinks(int sinks) {
+            this.sinks = positive(sinks, "sinks");
+            return this;
+        }
+
+        /**
+         * Sets the combined target rate of all producers, in messages per second.
+         */
+        public Builder rate(int rate) {
+            this.rate = positive(rate, "rate");
+            return this;
+        }
+
+        public Builder threads(int threads) {
+            this.threads = positive(threads, "threads");
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = Objects.requireNonNull(duration, "duration must not be null");
+            return this;
+        }
+
+        /**
+         * Sets how long each sink blocks per message.
+         */
+        public Builder sinkLatency(Duration sinkLatency) {
+            this.sinkLatency = Objects.requireNonNull(sinkLatency, "sinkLatency must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the share of sends, between 0 and 1, that sinks fail.
+         */
+        public Builder failureRate(double failureRate) {
+            if (failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("failureRate must be between 0 and 1: " + failureRate);
+            }
+            this.failureRate = failureRate;
+            return this;
+        }
+
+        public Builder queuePolicy(QueuePolicy queuePolicy) {
+            this.queuePolicy = Objects.requireNonNull(queuePolicy, "queuePolicy must not be null");
+            return this;
+        }
+
+        /**
+         * Sets how long to wait for queued deliveries after producers stop.
+         */
+        public Builder drainTimeout(Duration drainTimeout) {
+            this.drainTimeout = Objects.requireNonNull(drainTimeout, "drainTimeout must not be null");
+            return this;
+        }
+
+        public LoadHarness build() {
+            if (rate < threads) {
+                throw new IllegalArgumentException("rate must be at least the number of threads: " + rate);
+            }
+            return new LoadHarness(this);
+        }
+
+        private static int positive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return value;
+        }
+    }
+}
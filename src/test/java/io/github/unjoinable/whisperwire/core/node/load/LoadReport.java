@@ -0,0 +1,68 @@
+package io.github.unjoinable.whisperwire.core.node.load;
+
+import io.github.unjoinable.whisperwire.core.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a {@link LoadHarness} run.
+ *
+ * @param elapsed   how long messages were generated for
+ * @param relayed   the number of messages handed to {@code LinkManager.relay}
+ * @param delivered the number of deliveries that reached a sink
+ * @param failed    the number of deliveries a sink failed
+ * @param dropped   the number of deliveries discarded by a full queue or expiry
+ * @param latency   end-to-end latency from message creation to arrival at a sink
+ * @param heapGrowthBytes used heap after the run minus before it, both after a GC
+ */
+public record LoadReport(
+        Duration elapsed,
+        long relayed,
+        long delivered,
+        long failed,
+        long dropped,
+        LatencyHistogram.Snapshot latency,
+        long heapGrowthBytes) {
+
+    /**
+     * Returns the number of relayed messages per second.
+     */
+    public double relayedPerSecond() {
+        return relayed / seconds();
+    }
+
+    /**
+     * Returns the number of deliveries per second.
+     */
+    public double deliveredPerSecond() {
+        return delivered / seconds();
+    }
+
+    private double seconds() {
+        return Math.max(1, elapsed.toNanos()) / 1e9;
+    }
+
+    @Override
+    public String toString() {
+        return """
+                elapsed:    %d ms
+                relayed:    %d (%.0f/s)
+                delivered:  %d (%.0f/s)
+                failed:     %d
+                dropped:    %d
+                latency:    p50 %.3f ms, p99 %.3f ms, p999 %.3f ms, max %.3f ms
+                heap:       %+.1f MiB""".formatted(
+                elapsed.toMillis(),
+                relayed, relayedPerSecond(),
+                delivered, deliveredPerSecond(),
+                failed,
+                dropped,
+                millis(latency.p50()), millis(latency.p99()), millis(latency.p999()), millis(latency.max()),
+                heapGrowthBytes / (1024.0 * 1024.0));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
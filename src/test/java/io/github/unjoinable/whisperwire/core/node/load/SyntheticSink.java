@@ -0,0 +1,52 @@
+package io.github.unjoinable.whisperwire.core.node.load;
+
+import io.github.unjoinable.whisperwire.core.message.Message;
+import io.github.unjoinable.whisperwire.core.metrics.LatencyHistogram;
+import io.github.unjoinable.whisperwire.core.node.AbstractDuplexNode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A sink node that blocks for a fixed latency per message and fails a share of sends.
+ *
+ * <p>End-to-end latency is measured from each message's timestamp to its arrival here, so it
+ * includes queueing in the {@link io.github.unjoinable.whisperwire.core.node.DeliveryQueue}
+ * but not the injected latency.
+ */
+final class SyntheticSink extends AbstractDuplexNode {
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final long latencyNanos;
+    private final double failureRate;
+    private final LatencyHistogram endToEnd;
+    private final LongAdder received = new LongAdder();
+
+    SyntheticSink(String id, Duration latency, double failureRate, LatencyHistogram endToEnd) {
+        super(id);
+        this.latencyNanos = latency.toNanos();
+        this.failureRate = failureRate;
+        this.endToEnd = endToEnd;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendMessage(Message message) {
+        Duration age = Duration.between(message.timestamp(), Instant.now());
+        endToEnd.record(age.toNanos());
+        received.increment();
+
+        if (latencyNanos > 0) LockSupport.parkNanos(latencyNanos);
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            return CompletableFuture.failedFuture(new IllegalStateException("injected failure"));
+        }
+        return DONE;
+    }
+
+    long received() {
+        return received.sum();
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.unjoinable.whisperwire.core.node.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestLoadHarness {
+
+    @Test
+    void testEveryTopologyDelivers() throws InterruptedException {
+        for (Topology topology : Topology.values()) {
+            LoadReport report = LoadHarness.builder()
+                    .topology(topology)
+                    .sources(3)
+                    .sinks(3)
+                    .rate(2_000)
+                    .threads(2)
+                    .duration(Duration.ofMillis(200))
+                    .build()
+                    .run();
+
+            assertTrue(report.relayed() > 0, topology + ": " + report);
+            assertTrue(report.delivered() > 0, topology + ": " + report);
+            assertEquals(0, report.failed());
+            assertTrue(report.latency().count() > 0);
+        }
+    }
+
+    @Test
+    void testInjectedFailuresAreCounted() throws InterruptedException {
+        LoadReport report = LoadHarness.builder()
+                .sources(2)
+                .sinks(1)
+                .rate(1_000)
+                .threads(1)
+                .duration(Duration.ofMillis(200))
+                .failureRate(0.5)
+                .build()
+                .run();
+
+        assertTrue(report.failed() > 0, report.toString());
+        assertTrue(report.delivered() > 0, report.toString());
+    }
+
+    @Test
+    void testBuilderRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> LoadHarness.builder().failureRate(1.5));
+        assertThrows(IllegalArgumentException.class, () -> LoadHarness.builder().sinks(0));
+        assertThrows(IllegalArgumentException.class, () -> LoadHarness.builder().rate(2).threads(4).build());
+    }
+}
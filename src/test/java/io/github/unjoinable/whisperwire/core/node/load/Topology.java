@@ -0,0 +1,54 @@
+package io.github.unjoinable.whisperwire.core.node.load;
+
+import io.github.unjoinable.whisperwire.core.node.DuplexNode;
+import io.github.unjoinable.whisperwire.core.node.LinkManager;
+
+import java.util.List;
+
+/**
+ * How the synthetic source and sink nodes of a load run are linked.
+ */
+public enum Topology {
+
+    /**
+     * Every source is linked to the first sink, which receives all traffic.
+     */
+    STAR {
+        @Override
+        void link(LinkManager manager, List<? extends DuplexNode> sources, List<? extends DuplexNode> sinks) {
+            for (DuplexNode source : sources) {
+                manager.link(source, sinks.getFirst());
+            }
+        }
+    },
+
+    /**
+     * Every source is linked to every sink, so each message fans out to all sinks.
+     */
+    MESH {
+        @Override
+        void link(LinkManager manager, List<? extends DuplexNode> sources, List<? extends DuplexNode> sinks) {
+            for (DuplexNode source : sources) {
+                for (DuplexNode sink : sinks) {
+                    manager.link(source, sink);
+                }
+            }
+        }
+    },
+
+    /**
+     * Sources and sinks alternate along a line, so each source reaches its one or two
+     * neighbouring sinks.
+     */
+    CHAIN {
+        @Override
+        void link(LinkManager manager, List<? extends DuplexNode> sources, List<? extends DuplexNode> sinks) {
+            for (int i = 0; i < sources.size(); i++) {
+                if (i < sinks.size()) manager.link(sources.get(i), sinks.get(i));
+                if (i > 0 && i - 1 < sinks.size()) manager.link(sources.get(i), sinks.get(i - 1));
+            }
+        }
+    };
+
+    abstract void link(LinkManager manager, List<? extends DuplexNode> sources, List<? extends DuplexNode> sinks);
+}
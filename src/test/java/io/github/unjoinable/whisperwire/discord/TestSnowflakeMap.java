@@ -0,0 +1,66 @@
+package io.github.unjoinable.whisperwire.discord;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestSnowflakeMap {
+
+    @Test
+    void testPutAndGet() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+
+        assertNull(map.put(1_234_567_890_123_456_789L, "general"));
+        assertEquals("general", map.get(1_234_567_890_123_456_789L));
+        assertNull(map.get(42L));
+        assertTrue(map.containsKey(1_234_567_890_123_456_789L));
+        assertFalse(map.containsKey(42L));
+    }
+
+    @Test
+    void testReplacesExistingValue() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+        map.put(7L, "a");
+
+        assertEquals("a", map.put(7L, "b"));
+        assertEquals("b", map.get(7L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void testGrowsAndKeepsEntries() {
+        SnowflakeMap<Long> map = new SnowflakeMap<>();
+        long base = Long.parseUnsignedLong("1392014543206289408");
+        for (long i = 0; i < 1_000; i++) {
+            // sequential snowflakes differ only in their low bits
+            map.put(base + (i << 22), i);
+        }
+
+        assertEquals(1_000, map.size());
+        for (long i = 0; i < 1_000; i++) {
+            assertEquals(Long.valueOf(i), map.get(base + (i << 22)));
+        }
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+        map.put(7L, "a");
+        SnowflakeMap<String> copy = new SnowflakeMap<>(map);
+
+        map.put(7L, "b");
+        map.put(8L, "c");
+
+        assertEquals("a", copy.get(7L));
+        assertFalse(copy.containsKey(8L));
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    void testRejectsZero() {
+        SnowflakeMap<String> map = new SnowflakeMap<>();
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, "x"));
+        assertNull(map.get(0L));
+    }
+}